@@ -19,21 +19,41 @@
 
 package cl.ucn.disc.dsm.rortizhidalgo.news;
 
-import android.os.AsyncTask;
 import android.os.Bundle;
-import android.widget.ArrayAdapter;
-import android.widget.ListView;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
+
+import com.mikepenz.fastadapter.FastAdapter;
+import com.mikepenz.fastadapter.adapters.ItemAdapter;
+import com.mikepenz.fastadapter.commons.utils.FastAdapterDiffUtil;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import cl.ucn.disc.dsm.rortizhidalgo.news.activities.ImageLoader;
+import cl.ucn.disc.dsm.rortizhidalgo.news.activities.NewsItem;
 import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
-import cl.ucn.disc.dsm.rortizhidalgo.news.services.Contracts;
+import cl.ucn.disc.dsm.rortizhidalgo.news.services.ContractsImplIndexed;
 import cl.ucn.disc.dsm.rortizhidalgo.news.services.ContractsImplNewsApi;
+import cl.ucn.disc.dsm.rortizhidalgo.news.services.ContractsImplStore;
+import cl.ucn.disc.dsm.rortizhidalgo.news.services.NewsApiClient;
+import cl.ucn.disc.dsm.rortizhidalgo.news.services.NewsApiService;
+import cl.ucn.disc.dsm.rortizhidalgo.news.services.PrefetchScheduler;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Metrics;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.StringPool;
 
 /**
  * The Main Class.
@@ -47,9 +67,54 @@ public final class MainActivity extends AppCompatActivity {
     private static final Logger log = LoggerFactory.getLogger(MainActivity.class);
 
     /**
-     *  The List View
+     * The number of news to show.
+     */
+    private static final int SIZE = 30;
+
+    /**
+     * The size of the http cache.
      */
-    protected ListView listView;
+    private static final long HTTP_CACHE_SIZE = 10 * 1024 * 1024;
+
+    /**
+     * The categories refreshed in background.
+     */
+    private static final List<String> CATEGORIES = Arrays.asList("technology", "science");
+
+    /**
+     * The time between checks of the refreshes due (millis).
+     */
+    private static final long REFRESH_TICK = 60 * 1000L;
+
+    /**
+     * The local store of news.
+     */
+    private static ContractsImplStore store;
+
+    /**
+     * The search over the store (the news saved by the scheduler are indexed too).
+     */
+    private static ContractsImplIndexed indexed;
+
+    /**
+     * The refresh of the store.
+     */
+    private static PrefetchScheduler scheduler;
+
+    /**
+     * The adapter of the items (the model of the list).
+     */
+    private final ItemAdapter<NewsItem> itemAdapter = new ItemAdapter<>();
+
+    /**
+     * The list of news.
+     */
+    protected RecyclerView recyclerView;
+
+    /**
+     * The pull to refresh.
+     */
+    protected SwipeRefreshLayout swipeRefreshLayout;
 
     /**
      * Oncreate.
@@ -62,28 +127,229 @@ public final class MainActivity extends AppCompatActivity {
         log.debug("onCreate...");
         setContentView(R.layout.activity_main);
 
-        // Get the ListView from layout
-        this.listView = findViewById(R.id.am_t_toolbar);
+        // The images of the rows
+        ImageLoader.init(getCacheDir());
+
+        // The metrics of the stages, only in the debug builds (exported in onStop)
+        Metrics.setEnabled(BuildConfig.DEBUG);
+        registerGauges(getFilesDir());
+
+        // The FastAdapter: the ids of the News are stable, so the RecyclerView keeps the rows
+        // (and their views) of the news already shown
+        final FastAdapter<NewsItem> fastAdapter = FastAdapter.with(this.itemAdapter);
+        fastAdapter.setHasStableIds(true);
 
         // Click un one item
-        this.listView.setOnItemClickListener((parent, view, position, id) -> {
-            log.debug("Position: {}, Id: {}.",position,id);
+        fastAdapter.withOnClickListener((view, adapter, item, position) -> {
+            log.debug("Position: {}, Id: {}.", position, item.getIdentifier());
+            return true;
+        });
+
+        // Get the RecyclerView from layout
+        this.recyclerView = findViewById(R.id.am_rv_news);
+        this.recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        this.recyclerView.addItemDecoration(
+                new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
+        this.recyclerView.setHasFixedSize(true);
+        this.recyclerView.setAdapter(fastAdapter);
+
+        // The items built before the text metrics of the rows were known are built again
+        NewsItem.setMetricsListener(this::rebuildItems);
+
+        // Prefetch the images of the next screen while scrolling down
+        this.recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                if (dy > 0) {
+                    prefetchImages((LinearLayoutManager) view.getLayoutManager());
+                }
+            }
         });
-        // Running in BackgroundThread...
-        AsyncTask.execute(()->{
-            // Using the contracts to get the news...
-            Contracts contracts = new ContractsImplNewsApi("d49251f091fe4c96a56694b17fd3c739");
 
-            // Get the news from NewAPi (internet)
-            List<News> listNews = contracts.retrieveNews(30);
+        // The store is opened (and read) in background, the scheduler refreshes it from
+        // NewsAPI and tells us when there are news to show
+        final File dir = getFilesDir();
+        final File cacheDir = new File(getCacheDir(), "newsapi");
+
+        // Pull to refresh: request all the categories now, the list is updated when they arrive
+        this.swipeRefreshLayout = findViewById(R.id.am_swl_refresh);
+        this.swipeRefreshLayout.setOnRefreshListener(() -> CompletableFuture.runAsync(() -> {
+            getScheduler(dir, cacheDir).refreshNow();
+            runOnUiThread(() -> this.swipeRefreshLayout.setRefreshing(false));
+        }));
+
+        CompletableFuture.runAsync(() -> {
+            // The local store: show what we already have
+            this.showNews(getStore(dir).retrieveNews(SIZE));
 
-            //Build the simple adapter to populate the list
-            ArrayAdapter<String> adapter = new ArrayAdapter(this, android.R.layout.simple_list_item_1,listNews);
+            // Index what we already have (from the records): the new ones are indexed when saved
+            getIndexed(dir);
 
-            //... update the listView in Uithread
-            runOnUiThread(()->{
-                this.listView.setAdapter(adapter);
-            });
+            final PrefetchScheduler theScheduler = getScheduler(dir, cacheDir);
+            theScheduler.setListener(category -> this.showNews(getStore(dir).retrieveNews(SIZE)));
+            theScheduler.start(REFRESH_TICK);
+        }).exceptionally(ex -> {
+            log.error("Can't retrieve the news", ex);
+            return null;
         });
     }
+
+    /**
+     * Flush the store (and its filter of ids) in background: the process may be killed while
+     * stopped. The debug builds export the metrics too.
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        final File metricsDir = new File(getCacheDir(), "metrics");
+        CompletableFuture.runAsync(() -> {
+            if (Metrics.isEnabled()) {
+                Metrics.export(metricsDir);
+            }
+            final ContractsImplStore theStore;
+            synchronized (MainActivity.class) {
+                theStore = store;
+            }
+            if (theStore == null) {
+                return;
+            }
+            try {
+                theStore.flush();
+            } catch (IOException ex) {
+                log.warn("Can't flush the store", ex);
+            }
+        });
+    }
+
+    /**
+     * Stop telling this activity about the refreshes and the text metrics of the rows.
+     */
+    @Override
+    protected void onDestroy() {
+        NewsItem.setMetricsListener(null);
+        synchronized (MainActivity.class) {
+            if (scheduler != null) {
+                scheduler.setListener(null);
+            }
+        }
+        final ImageLoader imageLoader = ImageLoader.getInstance();
+        if (imageLoader != null) {
+            log.debug("Images: memory hit rate {}, disk hit rate {}.",
+                    imageLoader.getMemoryHitRate(), imageLoader.getFetcher().getDiskHitRate());
+        }
+        super.onDestroy();
+    }
+
+    /**
+     * Register the gauges of the pools and caches (read only when exported).
+     *
+     * @param dir where the store lives.
+     */
+    private static void registerGauges(final File dir) {
+        Metrics.gauge("names.dedup", StringPool.NAMES::getDedupRatio);
+        Metrics.gauge("names.requests", StringPool.NAMES::getRequests);
+        Metrics.gauge("store.size", () -> getStore(dir).size());
+        Metrics.gauge("store.falsePositives", () -> getStore(dir).getFalsePositives());
+
+        final ImageLoader imageLoader = ImageLoader.getInstance();
+        Metrics.gauge("images.memoryHitRate", imageLoader::getMemoryHitRate);
+        Metrics.gauge("images.diskHitRate", imageLoader.getFetcher()::getDiskHitRate);
+        Metrics.gauge("images.coalesced", imageLoader.getFetcher()::getCoalesced);
+        Metrics.gauge("images.cancels", imageLoader.getFetcher()::getCancels);
+        Metrics.gauge("images.errors", imageLoader.getFetcher()::getErrors);
+    }
+
+    /**
+     * @param dir where the store lives.
+     * @return the store of news (opened once per process).
+     */
+    private static synchronized ContractsImplStore getStore(final File dir) {
+        if (store == null) {
+            store = new ContractsImplStore(new File(dir, "news.store"));
+        }
+        return store;
+    }
+
+    /**
+     * @param dir where the store lives.
+     * @return the searchable store of news (created once per process).
+     */
+    private static synchronized ContractsImplIndexed getIndexed(final File dir) {
+        if (indexed == null) {
+            indexed = new ContractsImplIndexed(getStore(dir));
+        }
+        return indexed;
+    }
+
+    /**
+     * @param dir      where the store lives.
+     * @param cacheDir of the http cache.
+     * @return the scheduler of the refreshes (created once per process).
+     */
+    private static synchronized PrefetchScheduler getScheduler(final File dir,
+                                                               final File cacheDir) {
+        if (scheduler == null) {
+            // The articles already stored are skipped before building their News
+            final ContractsImplStore theStore = getStore(dir);
+            final ContractsImplNewsApi contracts = new ContractsImplNewsApi(new NewsApiService(
+                    "d49251f091fe4c96a56694b17fd3c739", NewsApiClient.BASE_URL,
+                    NewsApiClient.resilient(
+                            NewsApiClient.withCache(cacheDir, HTTP_CACHE_SIZE))),
+                    theStore::isKnown);
+            scheduler = new PrefetchScheduler(contracts, getIndexed(dir), CATEGORIES);
+        }
+        return scheduler;
+    }
+
+    /**
+     * Prefetch the images of the rows after the visible ones (one screen).
+     *
+     * @param layoutManager of the list.
+     */
+    private void prefetchImages(final LinearLayoutManager layoutManager) {
+        final int first = layoutManager.findFirstVisibleItemPosition();
+        final int last = layoutManager.findLastVisibleItemPosition();
+        if (first < 0 || last < 0) {
+            return;
+        }
+        final int end = Math.min(this.itemAdapter.getAdapterItemCount(),
+                last + 1 + (last - first + 1));
+        for (int position = last + 1; position < end; position++) {
+            final NewsItem item = this.itemAdapter.getAdapterItem(position);
+            if (item.markPrefetched()) {
+                ImageLoader.getInstance().prefetch(item.getModel().getUrlImage());
+            }
+        }
+    }
+
+    /**
+     * Build again (in background) the items shown, with the current text metrics of the rows.
+     */
+    private void rebuildItems() {
+        final List<News> shown = new ArrayList<>(this.itemAdapter.getAdapterItemCount());
+        for (NewsItem item : this.itemAdapter.getAdapterItems()) {
+            shown.add(item.getModel());
+        }
+        CompletableFuture.runAsync(() -> this.showNews(shown));
+    }
+
+    /**
+     * Show the news in the list. The items (and their texts) are built here, in background,
+     * and diffed here against the ones shown by id, so the UI thread only applies the result
+     * and only the new (or moved) rows are bound again.
+     *
+     * @param listNews to show.
+     */
+    private void showNews(final List<News> listNews) {
+        final List<NewsItem> items = NewsItem.of(listNews);
+
+        // One diff at a time, applied in the same order
+        synchronized (this.itemAdapter) {
+            final DiffUtil.DiffResult diff = FastAdapterDiffUtil.calculateDiff(
+                    this.itemAdapter, items);
+
+            //... update the RecyclerView in Uithread
+            runOnUiThread(() -> FastAdapterDiffUtil.set(this.itemAdapter, diff));
+        }
+    }
 }
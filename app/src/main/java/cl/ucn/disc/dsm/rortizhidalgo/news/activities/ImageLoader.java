@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.activities;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.R;
+import cl.ucn.disc.dsm.rortizhidalgo.news.services.ImageFetcher;
+
+/**
+ * The images of the list: a memory cache of bitmaps (sized by bytes) over the {@link
+ * ImageFetcher} (and its disk cache). The bitmaps are decoded downsampled to the size of the
+ * view, in background, and the request of a view is cancelled when the view is reused.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class ImageLoader {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(ImageLoader.class);
+
+    /**
+     * The size of the disk cache.
+     */
+    private static final long DISK_CACHE_SIZE = 50 * 1024 * 1024;
+
+    /**
+     * The key of the request in the tags of the view.
+     */
+    private static final int R_TAG = R.id.in_iv_image;
+
+    /**
+     * The instance, once initialized.
+     */
+    private static volatile ImageLoader instance;
+
+    /**
+     * The downloads.
+     */
+    private final ImageFetcher fetcher;
+
+    /**
+     * The bitmaps, by url and size.
+     */
+    private final LruCache<String, Bitmap> memory;
+
+    /**
+     * The decoders (the bitmaps aren't decoded in the http threads).
+     */
+    private final ExecutorService decoder = Executors.newFixedThreadPool(2, runnable -> {
+        final Thread thread = new Thread(runnable, "image-decoder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The number of images found in the memory cache.
+     */
+    private final AtomicLong memoryHits = new AtomicLong();
+
+    /**
+     * The number of images not found in the memory cache.
+     */
+    private final AtomicLong memoryMisses = new AtomicLong();
+
+    /**
+     * The Constructor.
+     *
+     * @param theFetcher     of the images.
+     * @param theMemoryBytes size of the memory cache.
+     */
+    public ImageLoader(@NonNull final ImageFetcher theFetcher, final int theMemoryBytes) {
+        this.fetcher = theFetcher;
+        this.memory = new LruCache<String, Bitmap>(theMemoryBytes) {
+            @Override
+            protected int sizeOf(final String key, final Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+        };
+    }
+
+    /**
+     * Initialize the instance (once per process): 1/8 of the heap for the bitmaps.
+     *
+     * @param cacheDir of the app.
+     */
+    public static synchronized void init(@NonNull final File cacheDir) {
+        if (instance == null) {
+            instance = new ImageLoader(
+                    new ImageFetcher(new File(cacheDir, "images"), DISK_CACHE_SIZE),
+                    (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8));
+        }
+    }
+
+    /**
+     * @return the instance, null if not initialized.
+     */
+    public static ImageLoader getInstance() {
+        return instance;
+    }
+
+    /**
+     * Show the image in the view, cancelling the previous request of the view.
+     *
+     * @param url  of the image (null for none).
+     * @param view to show the image.
+     */
+    public void load(final String url, @NonNull final ImageView view) {
+        this.cancel(view);
+        if (url == null) {
+            view.setImageResource(R.mipmap.ic_launcher);
+            return;
+        }
+
+        final int width = targetSize(view.getLayoutParams().width, view.getWidth());
+        final int height = targetSize(view.getLayoutParams().height, view.getHeight());
+        final String key = url + '@' + width + 'x' + height;
+
+        // Memory hit: no allocation, no thread
+        final Bitmap cached = this.memory.get(key);
+        if (cached != null) {
+            this.memoryHits.incrementAndGet();
+            view.setImageBitmap(cached);
+            return;
+        }
+        this.memoryMisses.incrementAndGet();
+        view.setImageResource(R.mipmap.ic_launcher);
+
+        final CompletableFuture<byte[]> request = this.fetcher.fetch(url);
+        view.setTag(R_TAG, request);
+        request.thenApplyAsync(bytes -> decode(bytes, width, height), this.decoder)
+                .thenAccept(bitmap -> {
+                    if (bitmap == null) {
+                        return;
+                    }
+                    this.memory.put(key, bitmap);
+                    view.post(() -> {
+                        // Still the request of the view?
+                        if (view.getTag(R_TAG) == request) {
+                            view.setTag(R_TAG, null);
+                            view.setImageBitmap(bitmap);
+                        }
+                    });
+                }).exceptionally(ex -> {
+                    if (!request.isCancelled()) {
+                        log.debug("Can't load {}: {}", url, ex.toString());
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Cancel the request of the view (if any).
+     *
+     * @param view reused.
+     */
+    public void cancel(@NonNull final ImageView view) {
+        final Object request = view.getTag(R_TAG);
+        if (request instanceof CompletableFuture) {
+            ((CompletableFuture<?>) request).cancel(true);
+        }
+        view.setTag(R_TAG, null);
+    }
+
+    /**
+     * Download the image into the disk cache, so it is there when its row is shown.
+     *
+     * @param url of the image (null for none).
+     */
+    public void prefetch(final String url) {
+        if (url != null) {
+            this.fetcher.prefetch(url);
+        }
+    }
+
+    /**
+     * @return the fraction of the loads served by the memory cache (0 - 1).
+     */
+    public double getMemoryHitRate() {
+        final long hits = this.memoryHits.get();
+        final long total = hits + this.memoryMisses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return the downloads (and their counters).
+     */
+    public ImageFetcher getFetcher() {
+        return this.fetcher;
+    }
+
+    /**
+     * @param layout size of the layout params.
+     * @param actual size of the view.
+     * @return the size to decode (0 if unknown).
+     */
+    private static int targetSize(final int layout, final int actual) {
+        return layout > 0 ? layout : Math.max(0, actual);
+    }
+
+    /**
+     * Decode the image downsampled to the target.
+     *
+     * @param bytes  of the image.
+     * @param width  of the target.
+     * @param height of the target.
+     * @return the bitmap, null if not an image.
+     */
+    private static Bitmap decode(final byte[] bytes, final int width, final int height) {
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = ImageFetcher.sampleSize(options.outWidth, options.outHeight,
+                width, height);
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+    }
+}
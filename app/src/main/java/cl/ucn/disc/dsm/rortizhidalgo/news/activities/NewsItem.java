@@ -11,7 +11,9 @@
 package cl.ucn.disc.dsm.rortizhidalgo.news.activities;
 
 
+import android.text.PrecomputedText;
 import android.view.View;
+import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
@@ -19,12 +21,14 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.mikepenz.fastadapter.items.ModelAbstractItem;
 
-import org.threeten.bp.format.DateTimeFormatter;
-
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 import cl.ucn.disc.dsm.rortizhidalgo.news.R;
 import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Metrics;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.PublishedAtFormatter;
 
 
 
@@ -34,16 +38,173 @@ public class NewsItem extends ModelAbstractItem<News, NewsItem, NewsItem.ViewHol
     /**
      *  The ZonedDateTime formatter
      */
-    private static final DateTimeFormatter FORMATTER =
-            DateTimeFormatter.ofPattern("HH:mm d.LLL.yyyy");
+    private static final PublishedAtFormatter FORMATTER =
+            new PublishedAtFormatter(Locale.getDefault());
+
+    /**
+     * The timer of the build of the items.
+     */
+    private static final Metrics.Timer BUILD = Metrics.timer("item.build");
+
+    /**
+     * The timer of the binds.
+     */
+    private static final Metrics.Timer BIND = Metrics.timer("item.bind");
+
+    /**
+     * The text metrics of the title views (known after the first ViewHolder).
+     */
+    private static volatile PrecomputedText.Params titleParams;
 
     /**
-     * The Constructor.
+     * The text metrics of the description views (known after the first ViewHolder).
+     */
+    private static volatile PrecomputedText.Params descriptionParams;
+
+    /**
+     * Who is told when the text metrics change (the items built before need to be rebuilt).
+     */
+    private static Runnable metricsListener;
+
+    /**
+     * The title (precomputed out of the UI thread, if the metrics are known).
+     */
+    private final CharSequence title;
+
+    /**
+     * The author.
+     */
+    private final String author;
+
+    /**
+     * The source.
+     */
+    private final String source;
+
+    /**
+     * The description (precomputed out of the UI thread, if the metrics are known).
+     */
+    private final CharSequence description;
+
+    /**
+     * The date, formatted with the item (out of the UI thread).
+     */
+    private final String publishedAt;
+
+    /**
+     * True if the image was prefetched (UI thread only).
+     */
+    private boolean prefetched;
+
+    /**
+     * The Constructor: the id of the News is the (stable) id of the item. The texts are built
+     * here, so bindView only sets them.
      *
      * @param news to show.
      */
     public NewsItem(@NonNull News news){
         super(news);
+        withIdentifier(news.getId());
+
+        this.title = precompute(news.getTitle(), titleParams);
+        this.author = news.getAuthor();
+        this.source = news.getSource();
+        this.description = precompute(news.getDescription(), descriptionParams);
+        this.publishedAt = FORMATTER.format(news.getPublishedAt());
+    }
+
+    /**
+     * Build the items of the news (call out of the UI thread).
+     *
+     * @param listNews to show.
+     * @return the items.
+     */
+    @NonNull
+    public static List<NewsItem> of(@NonNull List<News> listNews) {
+        final Metrics.Span span = BUILD.start();
+        try {
+            final List<NewsItem> items = new ArrayList<>(listNews.size());
+            for (News news : listNews) {
+                items.add(new NewsItem(news));
+            }
+            return items;
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * @return true the first time (the image needs a prefetch), false after.
+     */
+    public boolean markPrefetched() {
+        if (this.prefetched) {
+            return false;
+        }
+        this.prefetched = true;
+        return true;
+    }
+
+    /**
+     * @param text   to layout.
+     * @param params of the view, null if unknown.
+     * @return the text with its layout measured, or the same text if the view is unknown.
+     */
+    private static CharSequence precompute(final String text,
+                                           final PrecomputedText.Params params) {
+        if (params == null || text == null) {
+            return text;
+        }
+        return PrecomputedText.create(text, params);
+    }
+
+    /**
+     * @param listener told (in the UI thread) when the text metrics change: the items built
+     *                 before show their texts without the precomputed layout until rebuilt.
+     */
+    public static synchronized void setMetricsListener(final Runnable listener) {
+        metricsListener = listener;
+    }
+
+    /**
+     * Use the text metrics of the views of a new ViewHolder for the next items.
+     *
+     * @param theTitleParams       of the title view.
+     * @param theDescriptionParams of the description view.
+     */
+    private static void useMetrics(final PrecomputedText.Params theTitleParams,
+                                   final PrecomputedText.Params theDescriptionParams) {
+        final Runnable listener;
+        synchronized (NewsItem.class) {
+            if (theTitleParams.equals(titleParams)
+                    && theDescriptionParams.equals(descriptionParams)) {
+                return;
+            }
+            titleParams = theTitleParams;
+            descriptionParams = theDescriptionParams;
+            listener = metricsListener;
+        }
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Set the text in the view: a PrecomputedText built with other metrics than the ones of the
+     * view (setText would throw) is replaced by the plain text (until the item is rebuilt).
+     *
+     * @param view   to use.
+     * @param params of the view.
+     * @param text   to show.
+     * @param plain  text, without the layout.
+     */
+    private static void setText(final TextView view, final PrecomputedText.Params params,
+                                final CharSequence text, final String plain) {
+        if (text instanceof PrecomputedText
+                && !((PrecomputedText) text).getParams().equals(params)) {
+            view.setText(plain);
+            return;
+        }
+        view.setText(text);
     }
 
     /**
@@ -72,7 +233,7 @@ public class NewsItem extends ModelAbstractItem<News, NewsItem, NewsItem.ViewHol
     }
 
     /**
-     *  Bind the holder with the model.
+     *  Bind the holder with the model: the texts are already built.
      * @param holder to use.
      * @param payloads ?.
      */
@@ -80,12 +241,23 @@ public class NewsItem extends ModelAbstractItem<News, NewsItem, NewsItem.ViewHol
     public void bindView(@NonNull ViewHolder holder, @NonNull List<Object> payloads) {
         super.bindView(holder, payloads);
 
-        // Setting the holder
-        holder.title.setText(getModel().getTitle());
-        holder.author.setText(getModel().getAuthor());
-        holder.source.setText(getModel().getSource());
-        holder.description.setText(getModel().getDescription());
-        holder.publishedAt.setText(FORMATTER.format(getModel().getPublishedAt()));
+        final Metrics.Span span = BIND.start();
+        try {
+            // Setting the holder
+            setText(holder.title, holder.titleParams, this.title, getModel().getTitle());
+            holder.author.setText(this.author);
+            holder.source.setText(this.source);
+            setText(holder.description, holder.descriptionParams, this.description,
+                    getModel().getDescription());
+            holder.publishedAt.setText(this.publishedAt);
+
+            final ImageLoader imageLoader = ImageLoader.getInstance();
+            if (imageLoader != null) {
+                imageLoader.load(getModel().getUrlImage(), holder.image);
+            }
+        } finally {
+            span.close();
+        }
     }
         /**
          * Clear the holder
@@ -102,6 +274,13 @@ public class NewsItem extends ModelAbstractItem<News, NewsItem, NewsItem.ViewHol
             holder.description.setText(null);
             holder.publishedAt.setText(null);
 
+            // The row is reused: its image isn't needed anymore
+            final ImageLoader imageLoader = ImageLoader.getInstance();
+            if (imageLoader != null) {
+                imageLoader.cancel(holder.image);
+            }
+            holder.image.setImageDrawable(null);
+
         }
 
     /**
@@ -114,6 +293,17 @@ public class NewsItem extends ModelAbstractItem<News, NewsItem, NewsItem.ViewHol
         protected TextView source;
         protected TextView description;
         protected TextView publishedAt;
+        protected ImageView image;
+
+        /**
+         * The text metrics of the title view (read once: each call builds them).
+         */
+        protected PrecomputedText.Params titleParams;
+
+        /**
+         * The text metrics of the description view.
+         */
+        protected PrecomputedText.Params descriptionParams;
 
         public ViewHolder(@NonNull View view){
             super(view);
@@ -122,7 +312,12 @@ public class NewsItem extends ModelAbstractItem<News, NewsItem, NewsItem.ViewHol
             this.source = view.findViewById(R.id.in_tv_source);
             this.description = view.findViewById(R.id.in_tv_description);
             this.publishedAt = view.findViewById(R.id.in_tv_published_at);
+            this.image = view.findViewById(R.id.in_iv_image);
 
+            // The next items precompute their layout with the metrics of these views
+            this.titleParams = this.title.getTextMetricsParams();
+            this.descriptionParams = this.description.getTextMetricsParams();
+            useMetrics(this.titleParams, this.descriptionParams);
         }
     }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.model;
+
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+
+/**
+ * The description and content of a {@link News} kept as the {@link NewsCodec} bytes (a slice
+ * of the store or of a heap buffer) and decoded on access. The description (shown in the
+ * list) is kept once decoded; the content (the body of the article) is decoded only when
+ * asked for, and kept only while the heap has room for it.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+final class LazyText {
+
+    /**
+     * The bytes: [description][content] as written by NewsCodec.
+     */
+    private final ByteBuffer bytes;
+
+    /**
+     * The description, once decoded.
+     */
+    private volatile String description;
+
+    /**
+     * The content, once decoded (cleared by the GC if the heap needs it).
+     */
+    private volatile SoftReference<String> content;
+
+    /**
+     * The Constructor.
+     *
+     * @param theBytes of the description and the content (read only, not shared).
+     */
+    LazyText(final ByteBuffer theBytes) {
+        this.bytes = theBytes;
+    }
+
+    /**
+     * @return the description.
+     */
+    String getDescription() {
+        String value = this.description;
+        if (value == null) {
+            value = NewsCodec.readString(this.bytes.duplicate());
+            this.description = value;
+        }
+        return value;
+    }
+
+    /**
+     * @return the content.
+     */
+    String getContent() {
+        final SoftReference<String> reference = this.content;
+        String value = reference == null ? null : reference.get();
+        if (value == null) {
+            final ByteBuffer buffer = this.bytes.duplicate();
+            NewsCodec.skipString(buffer);
+            if (NewsCodec.isSameAsDescription(buffer)) {
+                return this.getDescription();
+            }
+            value = NewsCodec.readString(buffer);
+            if (value != null) {
+                this.content = new SoftReference<>(value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return true if the content is decoded (and not cleared).
+     */
+    boolean isContentDecoded() {
+        final SoftReference<String> reference = this.content;
+        return reference != null && reference.get() != null;
+    }
+
+    /**
+     * @return the size of the bytes.
+     */
+    int size() {
+        return this.bytes.remaining();
+    }
+}
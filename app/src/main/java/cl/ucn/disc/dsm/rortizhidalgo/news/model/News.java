@@ -12,8 +12,6 @@ package cl.ucn.disc.dsm.rortizhidalgo.news.model;
 
 import androidx.annotation.NonNull;
 
-import net.openhft.hashing.LongHashFunction;
-
 import org.threeten.bp.ZonedDateTime;
 
 import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
@@ -29,7 +27,7 @@ public final class News {
     /**
      * Unique id.
      */
-    private final Long id;
+    private final long id;
 
     /**
      * The Title.
@@ -58,15 +56,20 @@ public final class News {
     private final String urlImage;
 
     /**
-     * The Description.
+     * The Description (null if lazy).
      */
     private final String description;
 
     /**
-     * The Content.
+     * The Content (null if lazy).
      */
     private final String content;
 
+    /**
+     * The Description and Content not decoded yet (null if eager).
+     */
+    private final LazyText lazyText;
+
     /**
      * The Date of publish.
      */
@@ -99,7 +102,7 @@ public final class News {
         this.author = author;
 
         // Hashing unique! https://github.com/Cyan4973
-        this.id = LongHashFunction.xx().hashChars(title + "|" + source + "|" + author);
+        this.id = NewsId.of(title, source, author);
 
         // Can't be null
         this.url = url;
@@ -116,13 +119,42 @@ public final class News {
         //Validation publishedAt
         Validation.notNull(publishedAt, "publishedAt");
         this.publishedAt = publishedAt;
+
+        this.lazyText = null;
+    }
+
+    /**
+     * The constructor of the News read by {@link NewsCodec}: the description and content are
+     * decoded on first access. The fields were validated when the News was written.
+     *
+     * @param id          of the News.
+     * @param title       of the News.
+     * @param source      of the News.
+     * @param author      of the News.
+     * @param url         to the main article.
+     * @param urlImage    to the image.
+     * @param lazyText    the description and content.
+     * @param publishedAt of the News.
+     */
+    News(long id, String title, String source, String author, String url, String urlImage,
+         LazyText lazyText, ZonedDateTime publishedAt) {
+        this.id = id;
+        this.title = title;
+        this.source = source;
+        this.author = author;
+        this.url = url;
+        this.urlImage = urlImage;
+        this.description = null;
+        this.content = null;
+        this.lazyText = lazyText;
+        this.publishedAt = publishedAt;
     }
 
 
     /**
      * @return the id.
      */
-    public  Long getId() {
+    public long getId() {
         return id;
     }
 
@@ -165,14 +197,14 @@ public final class News {
      * @return the descriptions.
      */
     public String getDescription() {
-        return description;
+        return lazyText == null ? description : lazyText.getDescription();
     }
 
     /**
      * @return the content.
      */
     public String getContent() {
-        return content;
+        return lazyText == null ? content : lazyText.getContent();
     }
 
     /**
@@ -0,0 +1,459 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.model;
+
+import org.threeten.bp.Instant;
+import org.threeten.bp.ZoneOffset;
+import org.threeten.bp.ZonedDateTime;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.StringPool;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+
+/**
+ * The binary codec of {@link News}.
+ *
+ * Layout (big endian): [byte version][long id][long publishedAt (epoch millis)]
+ * [int offset (seconds)] and then title, source, author, url, urlImage, description and content,
+ * each one as [int length][UTF-8 bytes] (length -1 means null). A content equal to the
+ * description is written as length -2 and no bytes.
+ *
+ * The codec doesn't frame the record: the container (store, socket, ..) writes the length. The
+ * names of the source and the author read are pooled ({@link StringPool#NAMES}).
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class NewsCodec {
+
+    /**
+     * The current version of the format.
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * Size of the fixed header: version, id, publishedAt and offset.
+     */
+    public static final int HEADER_SIZE = 1 + Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    /**
+     * The length of a null string.
+     */
+    private static final int NULL = -1;
+
+    /**
+     * The length of a content equal to the description.
+     */
+    private static final int SAME_AS_DESCRIPTION = -2;
+
+    /**
+     * Position of the id inside a record.
+     */
+    private static final int ID_POSITION = 1;
+
+    /**
+     * Position of the publishedAt inside a record.
+     */
+    private static final int PUBLISHED_AT_POSITION = ID_POSITION + Long.BYTES;
+
+    /**
+     * Scratch space to decode strings from direct (or mapped) buffers.
+     */
+    private static final ThreadLocal<char[]> CHARS = new ThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[256];
+        }
+    };
+
+    /**
+     * Utility class.
+     */
+    private NewsCodec() {
+        // Nothing here
+    }
+
+    /**
+     * @param news to measure.
+     * @return the size in bytes of the encoded News.
+     */
+    public static int sizeOf(final News news) {
+        Validation.notNull(news, "news");
+        return HEADER_SIZE
+                + sizeOf(news.getTitle())
+                + sizeOf(news.getSource())
+                + sizeOf(news.getAuthor())
+                + sizeOf(news.getUrl())
+                + sizeOf(news.getUrlImage())
+                + sizeOf(news.getDescription())
+                + (sameAsDescription(news) ? Integer.BYTES : sizeOf(news.getContent()));
+    }
+
+    /**
+     * Write the News at the current position of the buffer (advancing it).
+     *
+     * @param news   to write.
+     * @param buffer where to write, with at least {@link #sizeOf(News)} bytes remaining.
+     * @return the number of bytes written.
+     */
+    public static int write(final News news, final ByteBuffer buffer) {
+        Validation.notNull(news, "news");
+        Validation.notNull(buffer, "buffer");
+
+        final int start = buffer.position();
+        buffer.put(VERSION);
+        buffer.putLong(news.getId());
+        buffer.putLong(news.getPublishedAt().toInstant().toEpochMilli());
+        buffer.putInt(news.getPublishedAt().getOffset().getTotalSeconds());
+        writeString(news.getTitle(), buffer);
+        writeString(news.getSource(), buffer);
+        writeString(news.getAuthor(), buffer);
+        writeString(news.getUrl(), buffer);
+        writeString(news.getUrlImage(), buffer);
+        writeString(news.getDescription(), buffer);
+        if (sameAsDescription(news)) {
+            buffer.putInt(SAME_AS_DESCRIPTION);
+        } else {
+            writeString(news.getContent(), buffer);
+        }
+        return buffer.position() - start;
+    }
+
+    /**
+     * @param news to encode.
+     * @return the bytes of the News.
+     */
+    public static byte[] encode(final News news) {
+        final byte[] bytes = new byte[sizeOf(news)];
+        write(news, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Read a News from the current position of the buffer (advancing it).
+     *
+     * @param buffer to read.
+     * @return the News.
+     */
+    public static News read(final ByteBuffer buffer) {
+        Validation.notNull(buffer, "buffer");
+
+        checkVersion(buffer.get());
+        buffer.getLong(); // the id is computed again by News
+        final long epochMillis = buffer.getLong();
+        final int offsetSeconds = buffer.getInt();
+
+        final String title = readString(buffer);
+        final String source = StringPool.NAMES.intern(readString(buffer));
+        final String author = StringPool.NAMES.intern(readString(buffer));
+        final String url = readString(buffer);
+        final String urlImage = readString(buffer);
+        final String description = readString(buffer);
+        final String content = readContent(buffer, description);
+
+        return new News(title, source, author, url, urlImage, description, content,
+                ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis),
+                        ZoneOffset.ofTotalSeconds(offsetSeconds)));
+    }
+
+    /**
+     * Read a News at an absolute position of the buffer (the buffer is not modified).
+     *
+     * @param buffer to read.
+     * @param offset of the record.
+     * @return the News.
+     */
+    public static News read(final ByteBuffer buffer, final int offset) {
+        final ByteBuffer record = buffer.duplicate();
+        record.position(offset);
+        return read(record);
+    }
+
+    /**
+     * Read a News at an absolute position of the buffer, keeping the description and content
+     * as bytes: they are decoded on first access. The bytes are not copied, so the buffer must
+     * not be modified while the News is in use (the store is append only).
+     *
+     * @param buffer to read.
+     * @param offset of the record.
+     * @return the News.
+     */
+    public static News readLazy(final ByteBuffer buffer, final int offset) {
+        Validation.notNull(buffer, "buffer");
+
+        final ByteBuffer record = buffer.duplicate();
+        record.position(offset);
+
+        checkVersion(record.get());
+        final long id = record.getLong();
+        final long epochMillis = record.getLong();
+        final int offsetSeconds = record.getInt();
+
+        final String title = readString(record);
+        final String source = StringPool.NAMES.intern(readString(record));
+        final String author = StringPool.NAMES.intern(readString(record));
+        final String url = readString(record);
+        final String urlImage = readString(record);
+
+        // Skip the description and the content
+        final int start = record.position();
+        skipString(record);
+        skipString(record);
+        record.limit(record.position());
+        record.position(start);
+
+        return new News(id, title, source, author, url, urlImage,
+                new LazyText(record.slice().asReadOnlyBuffer()),
+                ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis),
+                        ZoneOffset.ofTotalSeconds(offsetSeconds)));
+    }
+
+    /**
+     * @param bytes to decode.
+     * @return the News.
+     */
+    public static News decode(final byte[] bytes) {
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Read only the id of the record, without decoding it.
+     *
+     * @param buffer to read.
+     * @param offset of the record.
+     * @return the id.
+     */
+    public static long readId(final ByteBuffer buffer, final int offset) {
+        checkVersion(buffer.get(offset));
+        return buffer.getLong(offset + ID_POSITION);
+    }
+
+    /**
+     * Read only the publishedAt (epoch millis) of the record, without decoding it.
+     *
+     * @param buffer to read.
+     * @param offset of the record.
+     * @return the epoch millis.
+     */
+    public static long readPublishedAt(final ByteBuffer buffer, final int offset) {
+        checkVersion(buffer.get(offset));
+        return buffer.getLong(offset + PUBLISHED_AT_POSITION);
+    }
+
+    /**
+     * Read only the title of the record (the buffer is not modified).
+     *
+     * @param buffer to read.
+     * @param offset of the record.
+     * @return the title.
+     */
+    public static String readTitle(final ByteBuffer buffer, final int offset) {
+        checkVersion(buffer.get(offset));
+        final ByteBuffer record = buffer.duplicate();
+        record.position(offset + HEADER_SIZE);
+        return readString(record);
+    }
+
+    /**
+     * Read only the description of the record (the buffer is not modified), ex: to index it
+     * without keeping it in a News.
+     *
+     * @param buffer to read.
+     * @param offset of the record.
+     * @return the description.
+     */
+    public static String readDescription(final ByteBuffer buffer, final int offset) {
+        checkVersion(buffer.get(offset));
+        final ByteBuffer record = buffer.duplicate();
+        record.position(offset + HEADER_SIZE);
+
+        // Skip the title, source, author, url and urlImage
+        for (int i = 0; i < 5; i++) {
+            skipString(record);
+        }
+        return readString(record);
+    }
+
+    /**
+     * @param news to check.
+     * @return true if the content is the description (as built from NewsAPI).
+     */
+    private static boolean sameAsDescription(final News news) {
+        return news.getContent() != null && news.getContent().equals(news.getDescription());
+    }
+
+    /**
+     * @param version to check.
+     */
+    private static void checkVersion(final byte version) {
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported News version: " + version);
+        }
+    }
+
+    /**
+     * @param value to measure.
+     * @return the encoded size of the string.
+     */
+    private static int sizeOf(final String value) {
+        return Integer.BYTES + (value == null ? 0 : utf8Length(value));
+    }
+
+    /**
+     * @param value to measure.
+     * @return the number of UTF-8 bytes of the string.
+     */
+    static int utf8Length(final String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Write the string as [int length][UTF-8 bytes], without intermediate arrays.
+     *
+     * @param value  to write.
+     * @param buffer where to write.
+     */
+    private static void writeString(final String value, final ByteBuffer buffer) {
+        if (value == null) {
+            buffer.putInt(NULL);
+            return;
+        }
+        buffer.putInt(utf8Length(value));
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int cp = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | (cp >> 18)));
+                buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (cp & 0x3F)));
+            } else {
+                // Lone surrogates are written as '?', like String.getBytes
+                final char ch = Character.isSurrogate(c) ? '?' : c;
+                if (ch < 0x80) {
+                    buffer.put((byte) ch);
+                } else {
+                    buffer.put((byte) (0xE0 | (ch >> 12)));
+                    buffer.put((byte) (0x80 | ((ch >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (ch & 0x3F)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the content, written after the description.
+     *
+     * @param buffer      to read.
+     * @param description already read.
+     * @return the content.
+     */
+    static String readContent(final ByteBuffer buffer, final String description) {
+        if (isSameAsDescription(buffer)) {
+            buffer.getInt();
+            return description;
+        }
+        return readString(buffer);
+    }
+
+    /**
+     * @param buffer at the content.
+     * @return true if the content is the description (not written again).
+     */
+    static boolean isSameAsDescription(final ByteBuffer buffer) {
+        return buffer.getInt(buffer.position()) == SAME_AS_DESCRIPTION;
+    }
+
+    /**
+     * Skip a [int length][UTF-8 bytes] string (or the content same as the description).
+     *
+     * @param buffer to read.
+     */
+    static void skipString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length > 0) {
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    /**
+     * Read a [int length][UTF-8 bytes] string. Heap buffers are decoded in place from the backing
+     * array; direct (or mapped) buffers are decoded into a reused scratch array.
+     *
+     * @param buffer to read.
+     * @return the string (or null).
+     */
+    static String readString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length == NULL) {
+            return null;
+        }
+        final int position = buffer.position();
+        buffer.position(position + length);
+
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + position, length,
+                    StandardCharsets.UTF_8);
+        }
+
+        // At most one char per byte
+        char[] chars = CHARS.get();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+            CHARS.set(chars);
+        }
+
+        int count = 0;
+        int i = position;
+        final int end = position + length;
+        while (i < end) {
+            final int b = buffer.get(i++);
+            if (b >= 0) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0 && i < end) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (buffer.get(i++) & 0x3F));
+            } else if ((b & 0xF0) == 0xE0 && i + 1 < end) {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((buffer.get(i++) & 0x3F) << 6)
+                        | (buffer.get(i++) & 0x3F));
+            } else if ((b & 0xF8) == 0xF0 && i + 2 < end) {
+                final int cp = ((b & 0x07) << 18) | ((buffer.get(i++) & 0x3F) << 12)
+                        | ((buffer.get(i++) & 0x3F) << 6) | (buffer.get(i++) & 0x3F);
+                chars[count++] = Character.highSurrogate(cp);
+                chars[count++] = Character.lowSurrogate(cp);
+            } else {
+                chars[count++] = '\uFFFD';
+            }
+        }
+        return new String(chars, 0, count);
+    }
+}
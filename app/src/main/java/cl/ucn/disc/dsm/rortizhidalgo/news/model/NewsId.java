@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.model;
+
+import net.openhft.hashing.LongHashFunction;
+
+import java.util.List;
+import java.util.function.Function;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+
+/**
+ * The id of {@link News}: the xxHash of title|source|author.
+ *
+ * The fields are copied into a reused (per thread) char array and hashed from there, so no
+ * StringBuilder nor String is created. The ids are the same as the hash of the concatenated
+ * String (null fields are hashed as "null", like the concatenation).
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class NewsId {
+
+    /**
+     * The hash function (stateless, thread safe).
+     */
+    private static final LongHashFunction XX = LongHashFunction.xx();
+
+    /**
+     * The separator of the fields.
+     */
+    private static final char SEPARATOR = '|';
+
+    /**
+     * The text of a null field.
+     */
+    private static final String NULL = "null";
+
+    /**
+     * Scratch space to join the fields.
+     */
+    private static final ThreadLocal<char[]> CHARS = new ThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[256];
+        }
+    };
+
+    /**
+     * Utility class.
+     */
+    private NewsId() {
+        // Nothing here
+    }
+
+    /**
+     * @param title  of the news.
+     * @param source of the news.
+     * @param author of the news.
+     * @return the id.
+     */
+    public static long of(final String title, final String source, final String author) {
+        return hash(CHARS.get(), title, source, author);
+    }
+
+    /**
+     * Compute the ids of many items at once (ex: the articles of a response), before building
+     * the News.
+     *
+     * @param items  to hash.
+     * @param title  of each item.
+     * @param source of each item.
+     * @param author of each item.
+     * @param <T>    type of the items.
+     * @return the ids, in the order of the items.
+     */
+    public static <T> long[] of(final List<T> items, final Function<T, String> title,
+                                final Function<T, String> source,
+                                final Function<T, String> author) {
+        Validation.notNull(items, "items");
+        Validation.notNull(title, "title");
+        Validation.notNull(source, "source");
+        Validation.notNull(author, "author");
+
+        final long[] ids = new long[items.size()];
+        final char[] chars = CHARS.get();
+        for (int i = 0; i < ids.length; i++) {
+            final T item = items.get(i);
+            ids[i] = hash(chars, title.apply(item), source.apply(item), author.apply(item));
+        }
+        return ids;
+    }
+
+    /**
+     * @param scratch where to join the fields (replaced if too small).
+     * @param title   of the news.
+     * @param source  of the news.
+     * @param author  of the news.
+     * @return the hash of title|source|author.
+     */
+    private static long hash(final char[] scratch, final String title, final String source,
+                             final String author) {
+        final String t = title == null ? NULL : title;
+        final String s = source == null ? NULL : source;
+        final String a = author == null ? NULL : author;
+
+        final int length = t.length() + s.length() + a.length() + 2;
+        char[] chars = scratch;
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+            CHARS.set(chars);
+        }
+
+        int position = 0;
+        t.getChars(0, t.length(), chars, position);
+        position += t.length();
+        chars[position++] = SEPARATOR;
+        s.getChars(0, s.length(), chars, position);
+        position += s.length();
+        chars[position++] = SEPARATOR;
+        a.getChars(0, a.length(), chars, position);
+
+        return XX.hashChars(chars, 0, length);
+    }
+}
@@ -0,0 +1,548 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.LongHashSet;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+
+/**
+ * The inverted index of the title and description of {@link News}: each term (lower case,
+ * without accents) points to the sorted int array of the documents that contain it. The news
+ * are numbered in arrival order, so adding one only appends to the postings of its terms.
+ *
+ * Only the id and the publishedAt of each News are kept (not the News, nor its text): the
+ * search gives the ids, to read from the store.
+ *
+ * A query matches the news with all its terms, the last one as a prefix (so it works while
+ * typing), newest first.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class NewsIndex {
+
+    /**
+     * The min length of a term.
+     */
+    private static final int MIN_TERM = 2;
+
+    /**
+     * The result without News.
+     */
+    private static final long[] NONE = new long[0];
+
+    /**
+     * The initial number of documents.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The lock: one writer, many readers.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The ids of the news, by document number.
+     */
+    private long[] docs = new long[INITIAL_CAPACITY];
+
+    /**
+     * The publishedAt (epoch millis), by document number.
+     */
+    private long[] publishedAt = new long[INITIAL_CAPACITY];
+
+    /**
+     * The number of documents.
+     */
+    private int size;
+
+    /**
+     * The ids of the news indexed.
+     */
+    private final LongHashSet ids = new LongHashSet();
+
+    /**
+     * The postings, by term (sorted, for the prefixes).
+     */
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+
+    /**
+     * Index one News (ignored if already indexed).
+     *
+     * @param news to index.
+     * @return true if indexed.
+     */
+    public boolean add(final News news) {
+        Validation.notNull(news, "news");
+        this.lock.writeLock().lock();
+        try {
+            return this.index(news);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Index one News by its fields (ignored if already indexed): the text is only split in
+     * terms, not kept.
+     *
+     * @param id          of the news.
+     * @param publishedAt of the news (epoch millis).
+     * @param title       of the news.
+     * @param description of the news.
+     * @return true if indexed.
+     */
+    public boolean add(final long id, final long publishedAt, final String title,
+                       final String description) {
+        this.lock.writeLock().lock();
+        try {
+            return this.index(id, publishedAt, title, description);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Index many News, holding the lock once.
+     *
+     * @param news to index.
+     * @return the number of News indexed (not already indexed).
+     */
+    public int addAll(final Collection<News> news) {
+        Validation.notNull(news, "news");
+        this.lock.writeLock().lock();
+        try {
+            int added = 0;
+            for (News n : news) {
+                if (this.index(n)) {
+                    added++;
+                }
+            }
+            return added;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Search the news.
+     *
+     * @param query the terms (all required), the last one as a prefix.
+     * @param limit max number of News.
+     * @return the ids of the News matching the query, newest first.
+     */
+    public long[] search(final String query, final int limit) {
+        Validation.notNull(query, "query");
+        if (limit < 1) {
+            throw new IllegalArgumentException("Error: limit need to be >0");
+        }
+        final List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return NONE;
+        }
+
+        this.lock.readLock().lock();
+        try {
+            // The terms starting with the last one
+            final SortedMap<String, Postings> prefixTerms = subMap(this.terms,
+                    tokens.get(tokens.size() - 1));
+            if (prefixTerms.isEmpty()) {
+                return NONE;
+            }
+
+            // The exact terms (and the last one if it's the only one with the prefix), the
+            // shortest postings first
+            final boolean onePrefix = prefixTerms.firstKey().equals(prefixTerms.lastKey());
+            final int exactCount = tokens.size() - (onePrefix ? 0 : 1);
+            final Postings[] exact = new Postings[exactCount];
+            for (int i = 0; i < exactCount; i++) {
+                exact[i] = onePrefix && i == exactCount - 1
+                        ? prefixTerms.values().iterator().next()
+                        : this.terms.get(tokens.get(i));
+                if (exact[i] == null) {
+                    return NONE;
+                }
+            }
+            Arrays.sort(exact, (p1, p2) -> Integer.compare(p1.size, p2.size));
+
+            // Else, the documents with any of the terms with the prefix
+            final long[] prefix = onePrefix ? null : this.prefixDocs(prefixTerms);
+
+            final TopDocs top = new TopDocs(limit, this.publishedAt);
+            if (exactCount == 0) {
+                for (int w = 0; w < prefix.length; w++) {
+                    long word = prefix[w];
+                    while (word != 0) {
+                        top.offer((w << 6) + Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                // The candidates are ascending: the others postings are walked forward only
+                final Postings first = exact[0];
+                final int[] cursors = new int[exactCount];
+                candidates:
+                for (int i = 0; i < first.size; i++) {
+                    final int doc = first.docs[i];
+                    if (prefix != null && (prefix[doc >>> 6] & (1L << doc)) == 0) {
+                        continue;
+                    }
+                    for (int e = 1; e < exactCount; e++) {
+                        cursors[e] = exact[e].advance(cursors[e], doc);
+                        if (cursors[e] == exact[e].size) {
+                            break candidates;
+                        }
+                        if (exact[e].docs[cursors[e]] != doc) {
+                            continue candidates;
+                        }
+                    }
+                    top.offer(doc);
+                }
+            }
+            return top.ids(this.docs);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Complete the last term of a query (autocomplete).
+     *
+     * @param prefix of the term.
+     * @param limit  max number of terms.
+     * @return the indexed terms with the prefix, the most frequent first.
+     */
+    public List<String> complete(final String prefix, final int limit) {
+        Validation.notNull(prefix, "prefix");
+        final List<String> tokens = tokenize(prefix);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final String term = tokens.get(tokens.size() - 1);
+
+        this.lock.readLock().lock();
+        try {
+            final List<Map.Entry<String, Postings>> matches =
+                    new ArrayList<>(subMap(this.terms, term).entrySet());
+            Collections.sort(matches, (e1, e2) -> Integer.compare(e2.getValue().size,
+                    e1.getValue().size));
+            final List<String> completions = new ArrayList<>(Math.min(limit, matches.size()));
+            for (int i = 0; i < matches.size() && i < limit; i++) {
+                completions.add(matches.get(i).getKey());
+            }
+            return completions;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of News indexed.
+     */
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.size;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of terms.
+     */
+    public int getTermCount() {
+        this.lock.readLock().lock();
+        try {
+            return this.terms.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Split the text in terms: letters and digits, lower case, without accents.
+     *
+     * @param text to split.
+     * @return the terms, in order (with repetitions).
+     */
+    static List<String> tokenize(final String text) {
+        final List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        final String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i <= decomposed.length(); i++) {
+            final char c = i < decomposed.length() ? decomposed.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                if (sb.length() >= MIN_TERM) {
+                    tokens.add(sb.toString());
+                }
+                sb.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Index the news (holding the write lock).
+     *
+     * @param news to index.
+     * @return true if indexed.
+     */
+    private boolean index(final News news) {
+        return this.index(news.getId(), news.getPublishedAt().toInstant().toEpochMilli(),
+                news.getTitle(), news.getDescription());
+    }
+
+    /**
+     * Index the fields of the news (holding the write lock).
+     *
+     * @param id          of the news.
+     * @param publishedAt of the news (epoch millis).
+     * @param title       of the news.
+     * @param description of the news.
+     * @return true if indexed.
+     */
+    private boolean index(final long id, final long publishedAt, final String title,
+                          final String description) {
+        if (!this.ids.add(id)) {
+            return false;
+        }
+        if (this.size == this.docs.length) {
+            this.docs = Arrays.copyOf(this.docs, this.size * 2);
+            this.publishedAt = Arrays.copyOf(this.publishedAt, this.size * 2);
+        }
+        final int doc = this.size++;
+        this.docs[doc] = id;
+        this.publishedAt[doc] = publishedAt;
+
+        this.indexText(title, doc);
+        this.indexText(description, doc);
+        return true;
+    }
+
+    /**
+     * @param text of the news.
+     * @param doc  number of the news.
+     */
+    private void indexText(final String text, final int doc) {
+        for (String term : tokenize(text)) {
+            Postings postings = this.terms.get(term);
+            if (postings == null) {
+                postings = new Postings();
+                this.terms.put(term, postings);
+            }
+            postings.add(doc);
+        }
+    }
+
+    /**
+     * @param prefixTerms the terms with the prefix.
+     * @return the bitset of the documents with any of the terms.
+     */
+    private long[] prefixDocs(final SortedMap<String, Postings> prefixTerms) {
+        final long[] bits = new long[(this.size + 63) >>> 6];
+        for (Postings postings : prefixTerms.values()) {
+            for (int i = 0; i < postings.size; i++) {
+                final int doc = postings.docs[i];
+                bits[doc >>> 6] |= 1L << doc;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * @param terms  all the terms.
+     * @param prefix of the terms.
+     * @return the terms starting with the prefix.
+     */
+    private static SortedMap<String, Postings> subMap(final TreeMap<String, Postings> terms,
+                                                      final String prefix) {
+        return terms.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    /**
+     * The sorted documents of one term.
+     */
+    private static final class Postings {
+
+        /**
+         * The documents, ascending.
+         */
+        private int[] docs = new int[4];
+
+        /**
+         * The number of documents.
+         */
+        private int size;
+
+        /**
+         * @param doc to add (the greatest one so far).
+         */
+        private void add(final int doc) {
+            // Twice in the same news
+            if (this.size > 0 && this.docs[this.size - 1] == doc) {
+                return;
+            }
+            if (this.size == this.docs.length) {
+                this.docs = Arrays.copyOf(this.docs, this.size * 2);
+            }
+            this.docs[this.size++] = doc;
+        }
+
+        /**
+         * Galloping search: exponential steps from the cursor, then binary search.
+         *
+         * @param from the cursor.
+         * @param doc  to find.
+         * @return the first position (from the cursor) with a document >= doc, size if none.
+         */
+        private int advance(final int from, final int doc) {
+            if (from >= this.size || this.docs[from] >= doc) {
+                return from;
+            }
+            int low = from;
+            int step = 1;
+            while (low + step < this.size && this.docs[low + step] < doc) {
+                low += step;
+                step <<= 1;
+            }
+            final int found = Arrays.binarySearch(this.docs, low + 1,
+                    Math.min(low + step, this.size), doc);
+            return found >= 0 ? found : -(found + 1);
+        }
+    }
+
+    /**
+     * The newest documents: a min heap (by publishedAt) of the limit best.
+     */
+    private static final class TopDocs {
+
+        /**
+         * The heap of documents, the oldest on top.
+         */
+        private final int[] heap;
+
+        /**
+         * The publishedAt of the documents.
+         */
+        private final long[] publishedAt;
+
+        /**
+         * The number of documents in the heap.
+         */
+        private int size;
+
+        /**
+         * The Constructor.
+         *
+         * @param limit       max number of documents.
+         * @param publishedAt of the documents.
+         */
+        private TopDocs(final int limit, final long[] publishedAt) {
+            this.heap = new int[limit];
+            this.publishedAt = publishedAt;
+        }
+
+        /**
+         * @param doc to offer.
+         */
+        private void offer(final int doc) {
+            if (this.size < this.heap.length) {
+                this.heap[this.size] = doc;
+                this.siftUp(this.size++);
+            } else if (this.newer(doc, this.heap[0])) {
+                this.heap[0] = doc;
+                this.siftDown(0);
+            }
+        }
+
+        /**
+         * @param docs the ids, by number.
+         * @return the ids, newest first.
+         */
+        private long[] ids(final long[] docs) {
+            final long[] result = new long[this.size];
+            while (this.size > 0) {
+                result[this.size - 1] = docs[this.heap[0]];
+                this.heap[0] = this.heap[--this.size];
+                this.siftDown(0);
+            }
+            return result;
+        }
+
+        /**
+         * @param d1 document.
+         * @param d2 document.
+         * @return true if d1 is newer than d2 (the last one indexed if same date).
+         */
+        private boolean newer(final int d1, final int d2) {
+            final long p1 = this.publishedAt[d1];
+            final long p2 = this.publishedAt[d2];
+            return p1 != p2 ? p1 > p2 : d1 > d2;
+        }
+
+        /**
+         * @param index to move up.
+         */
+        private void siftUp(final int index) {
+            int i = index;
+            final int doc = this.heap[i];
+            while (i > 0) {
+                final int parent = (i - 1) >>> 1;
+                if (!this.newer(this.heap[parent], doc)) {
+                    break;
+                }
+                this.heap[i] = this.heap[parent];
+                i = parent;
+            }
+            this.heap[i] = doc;
+        }
+
+        /**
+         * @param index to move down.
+         */
+        private void siftDown(final int index) {
+            int i = index;
+            final int doc = this.heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= this.size) {
+                    break;
+                }
+                if (child + 1 < this.size && this.newer(this.heap[child], this.heap[child + 1])) {
+                    child++;
+                }
+                if (!this.newer(doc, this.heap[child])) {
+                    break;
+                }
+                this.heap[i] = this.heap[child];
+                i = child;
+            }
+            this.heap[i] = doc;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.LongHashSet;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+
+/**
+ * The bounded timeline of {@link News}: newest first, without duplicates (by id) and holding at
+ * most the capacity newest ones. Merging k news costs O(k log n), so a refresh only pays for
+ * what it brings.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class NewsTimeline {
+
+    /**
+     * Newest first, ties broken by id.
+     */
+    public static final Comparator<News> NEWEST_FIRST = (n1, n2) -> {
+        final int cmp = n2.getPublishedAt().compareTo(n1.getPublishedAt());
+        return cmp != 0 ? cmp : Long.compare(n1.getId(), n2.getId());
+    };
+
+    /**
+     * The max number of news.
+     */
+    private final int capacity;
+
+    /**
+     * The news, newest first.
+     */
+    private final TreeSet<News> news = new TreeSet<>(NEWEST_FIRST);
+
+    /**
+     * The ids of the news (primitive longs, no boxing per lookup).
+     */
+    private final LongHashSet ids = new LongHashSet();
+
+    /**
+     * The Constructor.
+     *
+     * @param theCapacity max number of news.
+     */
+    public NewsTimeline(final int theCapacity) {
+        if (theCapacity < 1) {
+            throw new IllegalArgumentException("Error: capacity need to be >0");
+        }
+        this.capacity = theCapacity;
+    }
+
+    /**
+     * Merge one News.
+     *
+     * @param theNews to merge.
+     * @return true if the news was added (not duplicated and new enough).
+     */
+    public synchronized boolean add(final News theNews) {
+        Validation.notNull(theNews, "news");
+
+        if (this.ids.contains(theNews.getId())) {
+            return false;
+        }
+
+        // Full and older than the oldest one: nothing to do
+        if (this.news.size() == this.capacity
+                && NEWEST_FIRST.compare(theNews, this.news.last()) > 0) {
+            return false;
+        }
+
+        this.news.add(theNews);
+        this.ids.add(theNews.getId());
+        if (this.news.size() > this.capacity) {
+            this.ids.remove(this.news.pollLast().getId());
+        }
+        return true;
+    }
+
+    /**
+     * Merge the news.
+     *
+     * @param theNews to merge.
+     * @return the number of news added.
+     */
+    public synchronized int addAll(final Iterable<News> theNews) {
+        Validation.notNull(theNews, "news");
+        int added = 0;
+        for (News n : theNews) {
+            if (this.add(n)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * @param size max number of news.
+     * @return the newest news.
+     */
+    public synchronized List<News> newest(final int size) {
+        final List<News> newest = new ArrayList<>(Math.min(size, this.news.size()));
+        final Iterator<News> iterator = this.news.iterator();
+        while (newest.size() < size && iterator.hasNext()) {
+            newest.add(iterator.next());
+        }
+        return newest;
+    }
+
+    /**
+     * @param id to find.
+     * @return true if the timeline has the news.
+     */
+    public synchronized boolean contains(final long id) {
+        return this.ids.contains(id);
+    }
+
+    /**
+     * @return the number of news.
+     */
+    public synchronized int size() {
+        return this.news.size();
+    }
+
+    /**
+     * @return the max number of news.
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+}
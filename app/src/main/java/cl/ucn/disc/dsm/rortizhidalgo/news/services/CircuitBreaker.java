@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.Clock;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * The circuit breaker of NewsAPI: after some consecutive failures (io errors, 429 or 5xx) the
+ * circuit opens and, during some time, the requests don't reach the network: they are served
+ * by the http cache even if stale, or fail fast with a 503. Then one request is let through
+ * (half open): its success closes the circuit, its failure opens it again.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class CircuitBreaker implements Interceptor {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /**
+     * The cache control of the requests while open: any cached response, no network.
+     */
+    private static final CacheControl STALE = new CacheControl.Builder()
+            .onlyIfCached()
+            .maxStale(Integer.MAX_VALUE, TimeUnit.SECONDS)
+            .build();
+
+    /**
+     * The states.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * The consecutive failures to open.
+     */
+    private final int failureThreshold;
+
+    /**
+     * The time open (millis).
+     */
+    private final long openMillis;
+
+    /**
+     * The clock.
+     */
+    private final Clock clock;
+
+    /**
+     * The state.
+     */
+    private State state = State.CLOSED;
+
+    /**
+     * The consecutive failures.
+     */
+    private int failures;
+
+    /**
+     * When the circuit was opened (millis).
+     */
+    private long openedAt;
+
+    /**
+     * The number of requests served by the cache while open.
+     */
+    private final AtomicLong staleHits = new AtomicLong();
+
+    /**
+     * The number of requests failed fast while open.
+     */
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * The Constructor.
+     *
+     * @param theFailureThreshold consecutive failures to open.
+     * @param theOpenMillis       time open.
+     * @param theClock            to use.
+     */
+    public CircuitBreaker(final int theFailureThreshold, final long theOpenMillis,
+                          final Clock theClock) {
+        Validation.notNull(theClock, "clock");
+        if (theFailureThreshold < 1 || theOpenMillis < 1) {
+            throw new IllegalArgumentException("Error: threshold and open time need to be >0");
+        }
+        this.failureThreshold = theFailureThreshold;
+        this.openMillis = theOpenMillis;
+        this.clock = theClock;
+    }
+
+    /**
+     * The Constructor: 5 failures, 30 seconds.
+     */
+    public CircuitBreaker() {
+        this(5, 30 * 1000L, Clock.systemUTC());
+    }
+
+    /**
+     * @param chain of the request.
+     * @return the response.
+     * @throws IOException of the network.
+     */
+    @Override
+    public Response intercept(final Chain chain) throws IOException {
+        final Request request = chain.request();
+        if (!this.allow()) {
+            return this.fromCache(chain);
+        }
+
+        final Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException ex) {
+            this.onResult(false);
+            throw ex;
+        }
+        this.onResult(!NewsApiException.isTransient(response.code()));
+        return response;
+    }
+
+    /**
+     * @return the state.
+     */
+    public synchronized State getState() {
+        return this.state;
+    }
+
+    /**
+     * @return the number of requests served by the cache while open.
+     */
+    public long getStaleHits() {
+        return this.staleHits.get();
+    }
+
+    /**
+     * @return the number of requests failed fast while open.
+     */
+    public long getRejected() {
+        return this.rejected.get();
+    }
+
+    /**
+     * @return true if the request can go to the network.
+     */
+    private synchronized boolean allow() {
+        switch (this.state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (this.clock.millis() - this.openedAt < this.openMillis) {
+                    return false;
+                }
+                // The trial request
+                this.state = State.HALF_OPEN;
+                log.debug("Circuit half open.");
+                return true;
+            default:
+                // Only one trial at a time
+                return false;
+        }
+    }
+
+    /**
+     * @param success of the request.
+     */
+    private synchronized void onResult(final boolean success) {
+        if (success) {
+            if (this.state != State.CLOSED) {
+                log.debug("Circuit closed.");
+            }
+            this.state = State.CLOSED;
+            this.failures = 0;
+            return;
+        }
+        this.failures++;
+        if (this.state == State.HALF_OPEN || this.failures >= this.failureThreshold) {
+            if (this.state != State.OPEN) {
+                log.warn("Circuit open after {} failures.", this.failures);
+            }
+            this.state = State.OPEN;
+            this.openedAt = this.clock.millis();
+        }
+    }
+
+    /**
+     * @param chain of the request.
+     * @return the cached response (even if stale), or a 503.
+     * @throws IOException of the cache.
+     */
+    private Response fromCache(final Chain chain) throws IOException {
+        final Request request = chain.request();
+        if ("GET".equals(request.method())) {
+            final Response cached = chain.proceed(request.newBuilder().cacheControl(STALE).build());
+            if (cached.isSuccessful()) {
+                this.staleHits.incrementAndGet();
+                return cached;
+            }
+            cached.close();
+        }
+        this.rejected.incrementAndGet();
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(503)
+                .message("Circuit open")
+                .body(ResponseBody.create("Circuit open", null))
+                .build();
+    }
+}
@@ -11,9 +11,13 @@
 
 package cl.ucn.disc.dsm.rortizhidalgo.news.services;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
 
 /**
  * The Contracts  from  CU/UH.
@@ -30,8 +34,69 @@ public interface Contracts {
      */
     List<News> retrieveNews(Integer size);
 
+    /**
+     * Get the list of News without blocking the caller. The default implementation runs
+     * {@link #retrieveNews(Integer)} in the common pool.
+     *
+     * @param size size of the list
+     * @return the future list of News.
+     */
+    default CompletableFuture<List<News>> retrieveNewsAsync(final Integer size) {
+        return CompletableFuture.supplyAsync(() -> this.retrieveNews(size));
+    }
+
+    /**
+     * Get one page of News. The default implementation reads the first offset + pageSize + 1
+     * News and uses the offset as the token, so it assumes {@link #retrieveNews(Integer)} is
+     * stable (newest first).
+     *
+     * @param pageToken of the page, null for the first one.
+     * @param pageSize  size of the page.
+     * @return the page.
+     */
+    default NewsPage retrievePage(final String pageToken, final Integer pageSize) {
+        Validation.notNull(pageSize, "pageSize");
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Error: pageSize need to be >0");
+        }
+        final int offset = pageToken == null ? 0 : Validation.toInt(pageToken, 0, "pageToken");
+        if ((long) offset + pageSize + 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Error: the page is too far -> " + pageToken);
+        }
+        final List<News> news = this.retrieveNews(offset + pageSize + 1);
+        if (news.size() <= offset) {
+            return new NewsPage(new ArrayList<>(), null);
+        }
+        final int end = Math.min(news.size(), offset + pageSize);
+        return new NewsPage(new ArrayList<>(news.subList(offset, end)),
+                news.size() > end ? String.valueOf(end) : null);
+    }
+
+    /**
+     * Get one page of News without blocking the caller.
+     *
+     * @param pageToken of the page, null for the first one.
+     * @param pageSize  size of the page.
+     * @return the future page.
+     */
+    default CompletableFuture<NewsPage> retrievePageAsync(final String pageToken,
+                                                          final Integer pageSize) {
+        return CompletableFuture.supplyAsync(() -> this.retrievePage(pageToken, pageSize));
+    }
+
     /**
      * Save one News into the System.
      */
     void saveNews(News news);
+
+    /**
+     * Save many News into the System. The default implementation saves them one by one.
+     *
+     * @param news to save.
+     */
+    default void saveAll(final Collection<News> news) {
+        for (News n : news) {
+            this.saveNews(n);
+        }
+    }
 }
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.Clock;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+
+/**
+ * The read-through cache of {@link ContractsImplNewsApi}: the results are cached per
+ * (category, size) during a TTL, the least recently used entries are evicted when the cache is
+ * full and concurrent callers of the same key share one request to NewsAPI.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class ContractsImplCache implements Contracts {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(ContractsImplCache.class);
+
+    /**
+     * The contracts to decorate.
+     */
+    private final ContractsImplNewsApi delegate;
+
+    /**
+     * The time to live of the entries (millis).
+     */
+    private final long ttlMillis;
+
+    /**
+     * The max number of entries.
+     */
+    private final int maxEntries;
+
+    /**
+     * The clock.
+     */
+    private final Clock clock;
+
+    /**
+     * The entries, in access order (LRU first).
+     */
+    private final LinkedHashMap<Key, Entry> entries;
+
+    /**
+     * The requests in flight.
+     */
+    private final Map<Key, CompletableFuture<List<News>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * The number of calls answered by the cache.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * The number of calls not answered by the cache.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * The number of entries evicted.
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * The number of requests to NewsAPI.
+     */
+    private final AtomicLong loads = new AtomicLong();
+
+    /**
+     * The Constructor.
+     *
+     * @param theDelegate   the contracts to decorate.
+     * @param theTtlMillis  time to live of the entries.
+     * @param theMaxEntries max number of entries.
+     * @param theClock      to use.
+     */
+    public ContractsImplCache(final ContractsImplNewsApi theDelegate, final long theTtlMillis,
+                              final int theMaxEntries, final Clock theClock) {
+        Validation.notNull(theDelegate, "delegate");
+        Validation.notNull(theClock, "clock");
+        if (theTtlMillis < 0 || theMaxEntries < 1) {
+            throw new IllegalArgumentException("Error: ttl need to be >=0 and maxEntries >0");
+        }
+        this.delegate = theDelegate;
+        this.ttlMillis = theTtlMillis;
+        this.maxEntries = theMaxEntries;
+        this.clock = theClock;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The Constructor: 5 minutes, 32 entries.
+     *
+     * @param theDelegate the contracts to decorate.
+     */
+    public ContractsImplCache(final ContractsImplNewsApi theDelegate) {
+        this(theDelegate, 5 * 60 * 1000L, 32, Clock.systemUTC());
+    }
+
+    /**
+     * Get the list of News.
+     *
+     * @param size size of the list.
+     * @return the list of News.
+     */
+    @Override
+    public List<News> retrieveNews(final Integer size) {
+        return this.retrieveNews(ContractsImplNewsApi.CATEGORY, size);
+    }
+
+    /**
+     * Get the list of News of one category, from the cache if fresh.
+     *
+     * @param category of the news.
+     * @param size     size of the list.
+     * @return the list of News.
+     */
+    public List<News> retrieveNews(final String category, final Integer size) {
+        return join(this.retrieveNewsAsync(category, size));
+    }
+
+    /**
+     * Get the list of News without blocking the caller.
+     *
+     * @param size size of the list.
+     * @return the future list of News.
+     */
+    @Override
+    public CompletableFuture<List<News>> retrieveNewsAsync(final Integer size) {
+        return this.retrieveNewsAsync(ContractsImplNewsApi.CATEGORY, size);
+    }
+
+    /**
+     * Get the list of News of one category without blocking the caller, from the cache if
+     * fresh. Concurrent callers of the same key share the same future.
+     *
+     * @param category of the news.
+     * @param size     size of the list.
+     * @return the future list of News.
+     */
+    public CompletableFuture<List<News>> retrieveNewsAsync(final String category,
+                                                           final Integer size) {
+        Validation.notNull(category, "category");
+        Validation.notNull(size, "size");
+
+        final Key key = new Key(category, size);
+
+        // Fresh?
+        final List<News> cached = this.getFresh(key);
+        if (cached != null) {
+            this.hits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+        this.misses.incrementAndGet();
+
+        // Join the request in flight or start a new one
+        final CompletableFuture<List<News>> future = new CompletableFuture<>();
+        final CompletableFuture<List<News>> running = this.inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            return running;
+        }
+
+        this.loads.incrementAndGet();
+        final CompletableFuture<List<News>> loading;
+        try {
+            loading = this.delegate.retrieveNewsAsync(category, size);
+        } catch (RuntimeException ex) {
+            // Not started: the next callers must not join it
+            this.inFlight.remove(key, future);
+            future.completeExceptionally(ex);
+            return future;
+        }
+        loading.whenComplete((news, ex) -> {
+            if (ex == null) {
+                final List<News> value = Collections.unmodifiableList(news);
+                synchronized (this.entries) {
+                    this.entries.put(key, new Entry(value, this.clock.millis()));
+                }
+                this.inFlight.remove(key, future);
+                future.complete(value);
+            } else {
+                this.inFlight.remove(key, future);
+                future.completeExceptionally(ex);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Get one page of News: the pages aren't cached, each one is one page of NewsAPI (the
+     * default would read again all the News before the page).
+     *
+     * @param pageToken of the page, null for the first one.
+     * @param pageSize  size of the page.
+     * @return the page.
+     */
+    @Override
+    public NewsPage retrievePage(final String pageToken, final Integer pageSize) {
+        return this.delegate.retrievePage(pageToken, pageSize);
+    }
+
+    /**
+     * Get one page of News without blocking the caller.
+     *
+     * @param pageToken of the page, null for the first one.
+     * @param pageSize  size of the page.
+     * @return the future page.
+     */
+    @Override
+    public CompletableFuture<NewsPage> retrievePageAsync(final String pageToken,
+                                                         final Integer pageSize) {
+        return this.delegate.retrievePageAsync(pageToken, pageSize);
+    }
+
+    /**
+     * Save one News into the System.
+     *
+     * @param news to save.
+     */
+    @Override
+    public void saveNews(final News news) {
+        this.delegate.saveNews(news);
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    public void invalidateAll() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    /**
+     * @return the number of hits.
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * @return the number of misses.
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * @return the number of evictions.
+     */
+    public long getEvictions() {
+        return this.evictions.get();
+    }
+
+    /**
+     * @return the number of requests to NewsAPI.
+     */
+    public long getLoads() {
+        return this.loads.get();
+    }
+
+    /**
+     * @param key to find.
+     * @return the news if cached and not expired, else null.
+     */
+    private List<News> getFresh(final Key key) {
+        synchronized (this.entries) {
+            final Entry entry = this.entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (this.clock.millis() - entry.loadedAt >= this.ttlMillis) {
+                log.debug("Expired: {}.", key);
+                this.entries.remove(key);
+                return null;
+            }
+            return entry.news;
+        }
+    }
+
+    /**
+     * @param future to wait.
+     * @return the result of the future, rethrowing its cause.
+     */
+    private static List<News> join(final CompletableFuture<List<News>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+
+    /**
+     * The key of the cache.
+     */
+    private static final class Key {
+
+        /**
+         * The category.
+         */
+        private final String category;
+
+        /**
+         * The size.
+         */
+        private final int size;
+
+        /**
+         * The Constructor.
+         *
+         * @param category of the news.
+         * @param size     of the list.
+         */
+        private Key(final String category, final int size) {
+            this.category = category;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return this.size == key.size && this.category.equals(key.category);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.category.hashCode() + this.size;
+        }
+
+        @Override
+        public String toString() {
+            return this.category + "/" + this.size;
+        }
+    }
+
+    /**
+     * The cached value.
+     */
+    private static final class Entry {
+
+        /**
+         * The news.
+         */
+        private final List<News> news;
+
+        /**
+         * When the news were loaded (millis).
+         */
+        private final long loadedAt;
+
+        /**
+         * The Constructor.
+         *
+         * @param news     loaded.
+         * @param loadedAt when.
+         */
+        private Entry(final List<News> news, final long loadedAt) {
+            this.news = news;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
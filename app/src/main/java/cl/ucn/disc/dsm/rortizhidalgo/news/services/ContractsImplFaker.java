@@ -18,14 +18,17 @@ import org.threeten.bp.ZoneId;
 import org.threeten.bp.ZonedDateTime;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
 import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.LongHashSet;
 import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
 
 /**
- * The faker implementation of {@link Contracts}
+ * The faker implementation of {@link Contracts}. The duplicates are found with a primitive
+ * index of the ids. Thread safe.
  *
  * @author Ricardo Ortiz-Hidalgo
  */
@@ -41,6 +44,10 @@ public class ContractsImplFaker implements Contracts {
      */
     private final List<News> theNews = new ArrayList<>();
 
+    /**
+     * The ids of the News.
+     */
+    private final LongHashSet ids = new LongHashSet();
 
     /**
      * The Constructor: Generate 5 {@link News}
@@ -50,7 +57,7 @@ public class ContractsImplFaker implements Contracts {
         final Faker faker = Faker.instance();
 
         for (int i = 0; i < 5; i++) {
-            this.theNews.add(new News(
+            this.saveNews(new News(
                     faker.book().title(),
                     faker.name().username(),
                     faker.name().fullName(),
@@ -71,14 +78,31 @@ public class ContractsImplFaker implements Contracts {
      * @return the List of News.
      */
     @Override
-    public List<News> retrieveNews(final Integer size) {
+    public synchronized List<News> retrieveNews(final Integer size) {
 
         // Return all the data
         if (size > theNews.size()) {
-            return Collections.unmodifiableList(this.theNews);
+            return Collections.unmodifiableList(new ArrayList<>(this.theNews));
         }
-        return Collections.unmodifiableList(theNews.subList(theNews.size() - size,
-                theNews.size()));
+        return Collections.unmodifiableList(new ArrayList<>(theNews.subList(
+                theNews.size() - size, theNews.size())));
+    }
+
+    /**
+     * Get one page of News, from the last ones saved. The token is the number of News already
+     * returned.
+     *
+     * @param pageToken of the page, null for the first one.
+     * @param pageSize  size of the page.
+     * @return the page.
+     */
+    @Override
+    public synchronized NewsPage retrievePage(final String pageToken, final Integer pageSize) {
+        final int offset = pageToken == null ? 0 : Validation.toInt(pageToken, 0, "pageToken");
+        final int end = Math.max(0, this.theNews.size() - offset);
+        final int start = Math.max(0, end - pageSize);
+        return new NewsPage(new ArrayList<>(this.theNews.subList(start, end)),
+                start > 0 ? String.valueOf(offset + pageSize) : null);
     }
 
     /**
@@ -87,20 +111,52 @@ public class ContractsImplFaker implements Contracts {
      * @param news to save
      */
     @Override
-    public void saveNews(final News news) {
+    public synchronized void saveNews(final News news) {
 
         // Nullity
         Validation.notNull(news, "news");
 
         // Check duplicates
-        for (News n : this.theNews) {
-            if (n.getId().equals(news.getId())) {
+        if (!this.ids.add(news.getId())) {
+            throw new IllegalArgumentException("Can't allow duplicate news!");
+        }
+
+        // Add news
+        this.theNews.add(news);
+    }
+
+    /**
+     * Save many News into the System: all or nothing, a duplicate (with the saved News or
+     * inside the collection) saves none.
+     *
+     * @param news to save.
+     */
+    @Override
+    public synchronized void saveAll(final Collection<News> news) {
+
+        // Nullity
+        Validation.notNull(news, "news");
+        for (News n : news) {
+            Validation.notNull(n, "news");
+        }
+
+        // Check duplicates, undoing the ids added
+        this.ids.ensureCapacity(this.ids.size() + news.size());
+        int added = 0;
+        for (News n : news) {
+            if (!this.ids.add(n.getId())) {
+                for (News undo : news) {
+                    if (added-- == 0) {
+                        break;
+                    }
+                    this.ids.remove(undo.getId());
+                }
                 throw new IllegalArgumentException("Can't allow duplicate news!");
             }
-
+            added++;
         }
 
         // Add news
-        this.theNews.add(news);
+        this.theNews.addAll(news);
     }
 }
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.LongHashSet;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+
+/**
+ * The fan-out of {@link ContractsImplNewsApi}: the categories are requested concurrently (at
+ * most maxConcurrency at a time, each one with a timeout) and the results are merged by
+ * publishedAt, without duplicates, in one pass.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class ContractsImplFanOut implements Contracts {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(ContractsImplFanOut.class);
+
+    /**
+     * The timer of the timeouts.
+     */
+    private static final ScheduledThreadPoolExecutor TIMER =
+            new ScheduledThreadPoolExecutor(1, runnable -> {
+                final Thread thread = new Thread(runnable, "news-fan-out-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        // The timeouts are cancelled when the request ends: don't keep them in the queue
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * The contracts to fan-out.
+     */
+    private final ContractsImplNewsApi delegate;
+
+    /**
+     * The categories.
+     */
+    private final List<String> categories;
+
+    /**
+     * The max number of requests in flight.
+     */
+    private final int maxConcurrency;
+
+    /**
+     * The timeout of each request (millis).
+     */
+    private final long timeoutMillis;
+
+    /**
+     * The requests waiting for a slot.
+     */
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+
+    /**
+     * The number of requests in flight.
+     */
+    private int running;
+
+    /**
+     * The Constructor.
+     *
+     * @param theDelegate       the contracts to fan-out.
+     * @param theCategories     to request.
+     * @param theMaxConcurrency max number of requests in flight.
+     * @param theTimeoutMillis  timeout of each request.
+     */
+    public ContractsImplFanOut(final ContractsImplNewsApi theDelegate,
+                               final List<String> theCategories,
+                               final int theMaxConcurrency, final long theTimeoutMillis) {
+        Validation.notNull(theDelegate, "delegate");
+        Validation.notNull(theCategories, "categories");
+        if (theCategories.isEmpty() || theMaxConcurrency < 1 || theTimeoutMillis < 1) {
+            throw new IllegalArgumentException(
+                    "Error: categories can't be empty, maxConcurrency and timeout need to be >0");
+        }
+        this.delegate = theDelegate;
+        this.categories = new ArrayList<>(theCategories);
+        this.maxConcurrency = theMaxConcurrency;
+        this.timeoutMillis = theTimeoutMillis;
+    }
+
+    /**
+     * Get the list of News of all the categories.
+     *
+     * @param size size of the list.
+     * @return the list of News.
+     */
+    @Override
+    public List<News> retrieveNews(final Integer size) {
+        try {
+            return this.retrieveNewsAsync(size).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+
+    /**
+     * Get the list of News of all the categories without blocking the caller. A category that
+     * fails (or times out) is skipped; if all of them fail, so does the result.
+     *
+     * @param size size of the list (and of each request).
+     * @return the future list of News.
+     */
+    @Override
+    public CompletableFuture<List<News>> retrieveNewsAsync(final Integer size) {
+        Validation.notNull(size, "size");
+
+        final List<CompletableFuture<List<News>>> requests = new ArrayList<>();
+        for (String category : this.categories) {
+            requests.add(this.submit(category, size));
+        }
+
+        return CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0]))
+                .handle((ignored, error) -> {
+                    final List<List<News>> results = new ArrayList<>(requests.size());
+                    Throwable cause = null;
+                    for (int i = 0; i < requests.size(); i++) {
+                        try {
+                            results.add(requests.get(i).join());
+                        } catch (CompletionException ex) {
+                            log.warn("Category {} failed: {}.", this.categories.get(i),
+                                    ex.getCause().toString());
+                            cause = ex.getCause();
+                        }
+                    }
+                    if (results.isEmpty()) {
+                        throw new CompletionException(cause);
+                    }
+                    return merge(results, size);
+                });
+    }
+
+    /**
+     * Save one News into the System.
+     *
+     * @param news to save.
+     */
+    @Override
+    public void saveNews(final News news) {
+        this.delegate.saveNews(news);
+    }
+
+    /**
+     * Request one category as soon as there is a free slot.
+     *
+     * @param category to request.
+     * @param size     of the list.
+     * @return the future list of News (sorted by publishedAt).
+     */
+    private CompletableFuture<List<News>> submit(final String category, final int size) {
+        final CompletableFuture<List<News>> result = new CompletableFuture<>();
+        final Runnable start = () -> {
+            final CompletableFuture<List<News>> request;
+            try {
+                request = this.delegate.retrieveNewsAsync(category, size);
+            } catch (RuntimeException ex) {
+                // Not started: free the slot
+                result.completeExceptionally(ex);
+                this.release();
+                return;
+            }
+
+            // The timeout cancels the request
+            final ScheduledFuture<?> timeout = TIMER.schedule(() -> request.completeExceptionally(
+                    new TimeoutException("Timeout requesting " + category)),
+                    this.timeoutMillis, TimeUnit.MILLISECONDS);
+
+            request.whenComplete((news, ex) -> {
+                timeout.cancel(false);
+                this.release();
+                if (ex == null) {
+                    result.complete(news);
+                } else {
+                    result.completeExceptionally(ex instanceof CompletionException
+                            ? ex.getCause() : ex);
+                }
+            });
+        };
+
+        synchronized (this.pending) {
+            if (this.running < this.maxConcurrency) {
+                this.running++;
+            } else {
+                this.pending.add(start);
+                return result;
+            }
+        }
+        start.run();
+        return result;
+    }
+
+    /**
+     * Free one slot, starting the next pending request (if any).
+     */
+    private void release() {
+        final Runnable next;
+        synchronized (this.pending) {
+            next = this.pending.poll();
+            if (next == null) {
+                this.running--;
+                return;
+            }
+        }
+        next.run();
+    }
+
+    /**
+     * The k-way merge of lists sorted by publishedAt (newest first), removing the duplicates
+     * (by id) in the same pass.
+     *
+     * @param sorted the lists to merge.
+     * @param limit  max size of the result.
+     * @return the merged list.
+     */
+    static List<News> merge(final List<List<News>> sorted, final int limit) {
+        if (sorted.size() == 1 && sorted.get(0).size() <= limit) {
+            return sorted.get(0);
+        }
+
+        // The heads of the lists: {list, position}, newest first
+        final PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, sorted.size()),
+                (h1, h2) -> sorted.get(h2[0]).get(h2[1]).getPublishedAt()
+                        .compareTo(sorted.get(h1[0]).get(h1[1]).getPublishedAt()));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (!sorted.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+
+        final List<News> merged = new ArrayList<>(limit);
+        final LongHashSet seen = new LongHashSet(limit);
+        while (merged.size() < limit && !heads.isEmpty()) {
+            final int[] head = heads.poll();
+            final List<News> list = sorted.get(head[0]);
+            final News news = list.get(head[1]);
+            if (seen.add(news.getId())) {
+                merged.add(news);
+            }
+            if (++head[1] < list.size()) {
+                heads.add(head);
+            }
+        }
+        return Collections.unmodifiableList(merged);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.NewsIndex;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+
+/**
+ * The searchable store: the News stored (when opened) and saved through it are added to a
+ * {@link NewsIndex}, so they can be searched by the words of their title and description.
+ *
+ * The index keeps only the ids: the News found are read from the store, and the stored ones
+ * are indexed from their records, so the text of the lazy News is never decoded (and kept)
+ * just to index it.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class ContractsImplIndexed implements Contracts {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(ContractsImplIndexed.class);
+
+    /**
+     * The store to decorate.
+     */
+    private final ContractsImplStore store;
+
+    /**
+     * The index.
+     */
+    private final NewsIndex index = new NewsIndex();
+
+    /**
+     * The Constructor: index the news stored.
+     *
+     * @param theStore the store to decorate.
+     */
+    public ContractsImplIndexed(final ContractsImplStore theStore) {
+        Validation.notNull(theStore, "store");
+        this.store = theStore;
+        final int added = theStore.indexInto(this.index);
+        log.debug("Indexed {} news, {} terms.", added, this.index.getTermCount());
+    }
+
+    /**
+     * Get the list of News (already indexed).
+     *
+     * @param size size of the list.
+     * @return the list of News.
+     */
+    @Override
+    public List<News> retrieveNews(final Integer size) {
+        return this.store.retrieveNews(size);
+    }
+
+    /**
+     * Get the list of News without blocking the caller (already indexed).
+     *
+     * @param size size of the list.
+     * @return the future list of News.
+     */
+    @Override
+    public CompletableFuture<List<News>> retrieveNewsAsync(final Integer size) {
+        return this.store.retrieveNewsAsync(size);
+    }
+
+    /**
+     * Get one page of News (already indexed).
+     *
+     * @param pageToken of the page, null for the first one.
+     * @param pageSize  size of the page.
+     * @return the page.
+     */
+    @Override
+    public NewsPage retrievePage(final String pageToken, final Integer pageSize) {
+        return this.store.retrievePage(pageToken, pageSize);
+    }
+
+    /**
+     * Get one page of News without blocking the caller (already indexed).
+     *
+     * @param pageToken of the page, null for the first one.
+     * @param pageSize  size of the page.
+     * @return the future page.
+     */
+    @Override
+    public CompletableFuture<NewsPage> retrievePageAsync(final String pageToken,
+                                                         final Integer pageSize) {
+        return this.store.retrievePageAsync(pageToken, pageSize);
+    }
+
+    /**
+     * Save one News into the System (and index it).
+     *
+     * @param news to save.
+     */
+    @Override
+    public void saveNews(final News news) {
+        this.store.saveNews(news);
+        this.index.add(news);
+    }
+
+    /**
+     * Save many News into the System (and index them).
+     *
+     * @param news to save.
+     */
+    @Override
+    public void saveAll(final Collection<News> news) {
+        this.store.saveAll(news);
+        final int added = this.index.addAll(news);
+        if (added > 0) {
+            log.debug("Indexed {} news, {} terms.", added, this.index.getTermCount());
+        }
+    }
+
+    /**
+     * Search the News stored.
+     *
+     * @param query the words (all required), the last one as a prefix.
+     * @param limit max number of News.
+     * @return the News matching the query, newest first.
+     */
+    public List<News> search(final String query, final int limit) {
+        final long[] ids = this.index.search(query, limit);
+        final List<News> news = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            final News found = this.store.get(id);
+            if (found != null) {
+                news.add(found);
+            }
+        }
+        return news;
+    }
+
+    /**
+     * Complete the last word of a query.
+     *
+     * @param prefix of the word.
+     * @param limit  max number of words.
+     * @return the words with the prefix, the most frequent first.
+     */
+    public List<String> complete(final String prefix, final int limit) {
+        return this.index.complete(prefix, limit);
+    }
+
+    /**
+     * @return the index.
+     */
+    public NewsIndex getIndex() {
+        return this.index;
+    }
+}
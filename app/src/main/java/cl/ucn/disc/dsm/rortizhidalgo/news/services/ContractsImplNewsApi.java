@@ -11,26 +11,21 @@
 
 package cl.ucn.disc.dsm.rortizhidalgo.news.services;
 
-import com.kwabenaberko.newsapilib.models.Article;
-
 import org.apache.commons.lang3.NotImplementedException;
-import org.apache.commons.lang3.builder.ToStringBuilder;
-import org.apache.commons.lang3.builder.ToStringStyle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.threeten.bp.ZoneId;
-import org.threeten.bp.ZonedDateTime;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.function.LongPredicate;
 
 import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.NewsTimeline;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Metrics;
 import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
 
 /**
@@ -44,11 +39,36 @@ public final class ContractsImplNewsApi implements Contracts {
      */
     private static final Logger log = LoggerFactory.getLogger(ContractsImplNewsApi.class);
 
+    /**
+     * The timer of the merge into the timelines.
+     */
+    private static final Metrics.Timer MERGE = Metrics.timer("news.merge");
+
+    /**
+     * The category used by {@link #retrieveNews(Integer)}.
+     */
+    public static final String CATEGORY = "technology";
+
+    /**
+     * The max number of news kept per category.
+     */
+    private static final int TIMELINE_CAPACITY = 500;
+
     /**
      * The Connection to NewApi
      */
     private final NewsApiService newsApiService;
 
+    /**
+     * The news already retrieved, by category.
+     */
+    private final Map<String, NewsTimeline> timelines = new ConcurrentHashMap<>();
+
+    /**
+     * The ids already stored elsewhere (null: none).
+     */
+    private final LongPredicate stored;
+
     /**
      * the constructor
      *
@@ -59,48 +79,31 @@ public final class ContractsImplNewsApi implements Contracts {
         //Validation.notNull(apikey, "apikey");
         Validation.minSize(theApikey,10,"ApiKey !!");
         this.newsApiService = new NewsApiService(theApikey);
+        this.stored = null;
     }
 
     /**
-     * Article to news/Transformer pattern
-     * @param article used to convert
-     * @return the News.
+     * The constructor.
+     *
+     * @param theNewsApiService to use.
      */
-    private static News toNews(final Article article){
-        //validation null news
-        Validation.notNull(article,"Article null??");
-
-        //warning message
-        boolean needFix=false;
+    public ContractsImplNewsApi(final NewsApiService theNewsApiService) {
+        this(theNewsApiService, null);
+    }
 
-        //Fix the author is null
-        if(article.getAuthor()==null || article.getAuthor().length()==0){
-            article.setAuthor("*No author*");
-            needFix=true;
-        }
-        //more restriction
-        if (article.getDescription()==null||article.getDescription().length()==0){
-            article.setDescription("*No description*");
-            needFix=true;
-        }
-        //yes warning
-        if(needFix==true){
-            //Debug of Article
-            log.warn("Article with invalid restriction: ().", ToStringBuilder.reflectionToString(
-                    article, ToStringStyle.MULTI_LINE_STYLE));
-        }
-        //the date
-        ZonedDateTime publishedAt= ZonedDateTime.parse(article.getPublishedAt()).withZoneSameInstant(ZoneId.of("-3"));
-
-        //the news
-        return new News(article.getTitle(),
-                article.getSource().getName(),
-                article.getAuthor(),
-                article.getUrl(),
-                article.getUrlToImage(),
-                article.getDescription(),
-                article.getDescription(), //Fix content
-                publishedAt);
+    /**
+     * The constructor of the ingestion: the articles already stored (ex:
+     * {@link ContractsImplStore#isKnown(long)}) are skipped like the ones already retrieved,
+     * so the lists returned hold only the News not stored.
+     *
+     * @param theNewsApiService to use.
+     * @param theStored         ids already stored, null for none.
+     */
+    public ContractsImplNewsApi(final NewsApiService theNewsApiService,
+                                final LongPredicate theStored) {
+        Validation.notNull(theNewsApiService, "newsApiService");
+        this.newsApiService = theNewsApiService;
+        this.stored = theStored;
     }
 
     /**
@@ -111,27 +114,24 @@ public final class ContractsImplNewsApi implements Contracts {
      */
     @Override
     public List<News> retrieveNews(final Integer size) {
+        return this.retrieveNews(CATEGORY, size);
+    }
 
-        try {
-            //Request to newApi category "general"
-            List<Article> articles =newsApiService.getTopHeadlines("technology",size);
-
-            //The list of articles to list of news
-            List<News> news = new ArrayList<>();
+    /**
+     * Get the list of News of one category. Only the articles not retrieved before are
+     * turned into News and merged (delta refresh).
+     *
+     * @param category of the news.
+     * @param size size of the list.
+     * @return the list of News.
+     */
+    public List<News> retrieveNews(final String category, final Integer size) {
 
-            //iterate over the articles
-            for (Article article : articles){
-                //articles -> News
-                news.add(toNews(article));
-            }
-            //Filter and sort the News
-            return news.stream().filter(distintById(News::getId))
-                    // Remote the duplicates (by id)
-                    .sorted((k1,k2)->k2
-                            // Sort the stream by publishedAt
-                            .getPublishedAt().compareTo(k1.getPublishedAt()))
-                    // Return the stream to List
-                    .collect(Collectors.toList());
+        try {
+            //Request to newApi by category
+            final NewsTimeline timeline = this.timeline(category);
+            return merge(category, timeline, newsApiService.getTopHeadlinesNews(category,
+                    size, 1, this.known(timeline)), size);
         } catch (IOException ex) {
             //log.error("Error",ex);
             //return null;
@@ -141,15 +141,139 @@ public final class ContractsImplNewsApi implements Contracts {
     }
 
     /**
-     * Filter the stream.
+     * Get the list of News without blocking the caller.
+     *
+     * @param size size of the list.
+     * @return the future list of News.
+     */
+    @Override
+    public CompletableFuture<List<News>> retrieveNewsAsync(final Integer size) {
+        return this.retrieveNewsAsync(CATEGORY, size);
+    }
+
+    /**
+     * Get the list of News of one category without blocking the caller (delta refresh).
      *
-     * @param idExtractor
-     * @param <T> news to filter
-     * @return true if the news already exists.
+     * @param category of the news.
+     * @param size size of the list.
+     * @return the future list of News.
      */
-    private static <T> Predicate<T> distintById (Function<? super T, ?> idExtractor){
-        Map<Object, Boolean> seen = new ConcurrentHashMap<>();
-        return t -> seen.putIfAbsent(idExtractor.apply(t),Boolean.TRUE)==null;
+    public CompletableFuture<List<News>> retrieveNewsAsync(final String category,
+                                                           final Integer size) {
+        final NewsTimeline timeline = this.timeline(category);
+        return map(newsApiService.getTopHeadlinesNewsAsync(category, size, 1,
+                this.known(timeline)), news -> merge(category, timeline, news, size));
+    }
+
+    /**
+     * Get one page of News: the token is the number of the NewsAPI page.
+     *
+     * @param pageToken of the page, null for the first one.
+     * @param pageSize  size of the page.
+     * @return the page.
+     */
+    @Override
+    public NewsPage retrievePage(final String pageToken, final Integer pageSize) {
+        final int page = pageToken == null ? 1 : Validation.toInt(pageToken, 1, "pageToken");
+        try {
+            return toPage(newsApiService.getTopHeadlinesNews(CATEGORY, pageSize, page),
+                    page, pageSize);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Get one page of News without blocking the caller.
+     *
+     * @param pageToken of the page, null for the first one.
+     * @param pageSize  size of the page.
+     * @return the future page.
+     */
+    @Override
+    public CompletableFuture<NewsPage> retrievePageAsync(final String pageToken,
+                                                         final Integer pageSize) {
+        final int page = pageToken == null ? 1 : Validation.toInt(pageToken, 1, "pageToken");
+        return map(newsApiService.getTopHeadlinesNewsAsync(CATEGORY, pageSize, page),
+                news -> toPage(news, page, pageSize));
+    }
+
+    /**
+     * Apply the function to the result of the request. Cancelling (or timing out) the returned
+     * future cancels the request.
+     *
+     * @param request  to NewsAPI.
+     * @param function to apply.
+     * @param <T> type of the response.
+     * @param <R> type of the result.
+     * @return the future result.
+     */
+    private static <T, R> CompletableFuture<R> map(final CompletableFuture<T> request,
+                                                   final Function<T, R> function) {
+        final CompletableFuture<R> result = request.thenApply(function);
+        result.whenComplete((r, ex) -> {
+            if (ex != null) {
+                request.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @param news     of the page.
+     * @param page     number of the page.
+     * @param pageSize size of the page.
+     * @return the page of News (a short page is the last one).
+     */
+    private static NewsPage toPage(final List<News> news, final int page,
+                                   final int pageSize) {
+        final NewsTimeline timeline = new NewsTimeline(Math.max(1, news.size()));
+        timeline.addAll(news);
+        return new NewsPage(timeline.newest(news.size()),
+                news.size() < pageSize ? null : String.valueOf(page + 1));
+    }
+
+    /**
+     * @param category of the news.
+     * @return the timeline of the category (its ids are the known articles).
+     */
+    private NewsTimeline timeline(final String category) {
+        Validation.notNull(category, "category");
+        return this.timelines.computeIfAbsent(category,
+                c -> new NewsTimeline(TIMELINE_CAPACITY));
+    }
+
+    /**
+     * @param timeline of the category.
+     * @return the ids to skip: already retrieved or stored.
+     */
+    private LongPredicate known(final NewsTimeline timeline) {
+        if (this.stored == null) {
+            return timeline::contains;
+        }
+        return id -> timeline.contains(id) || this.stored.test(id);
+    }
+
+    /**
+     * Merge the new news into the timeline of the category: they are inserted, the rest is
+     * neither sorted again nor copied.
+     *
+     * @param category of the news.
+     * @param timeline of the category.
+     * @param news     to merge (the articles not known).
+     * @param size     size of the list.
+     * @return the newest news of the category.
+     */
+    private static List<News> merge(final String category, final NewsTimeline timeline,
+                                    final List<News> news, final int size) {
+        final Metrics.Span span = MERGE.start();
+        try {
+            final int added = timeline.addAll(news);
+            log.debug("Category {}: {} new articles.", category, added);
+            return timeline.newest(size);
+        } finally {
+            span.close();
+        }
     }
 
     /**
@@ -0,0 +1,580 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.NewsCodec;
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.NewsIndex;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.BloomFilter;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Metrics;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+
+/**
+ * The persistent implementation of {@link Contracts}: an append-only, memory-mapped log of
+ * {@link News} records with an in-memory primary index (by id) and a secondary index (by
+ * publishedAt, newest first).
+ *
+ * Each record is [int length] followed by the {@link NewsCodec} bytes of the News. The length
+ * is written last, so a torn write is ignored on the next open. The log is append only, so
+ * the News read keep pointing to their bytes (see {@link NewsCodec#readLazy}).
+ *
+ * {@link #isKnown(long)} doesn't take the lock: the ids stored are also kept in a
+ * {@link BloomFilter} (written next to the log on close) that answers most of the unknown ids,
+ * and the primary index (concurrent) answers the rest.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class ContractsImplStore implements Contracts, Closeable {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(ContractsImplStore.class);
+
+    /**
+     * The timer of the retrieves.
+     */
+    private static final Metrics.Timer RETRIEVE = Metrics.timer("store.retrieve");
+
+    /**
+     * The timer of the saves.
+     */
+    private static final Metrics.Timer SAVE = Metrics.timer("store.save");
+
+    /**
+     * The initial size of the mapped region.
+     */
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    /**
+     * Size of the length prefix of each record.
+     */
+    private static final int LENGTH_SIZE = Integer.BYTES;
+
+    /**
+     * The default number of ids of the filter.
+     */
+    private static final long BLOOM_EXPECTED = 10_000;
+
+    /**
+     * The default false positive probability of the filter.
+     */
+    private static final double BLOOM_FPP = 0.01;
+
+    /**
+     * The secondary index order: newest first, ties broken by id.
+     */
+    private static final Comparator<Entry> BY_PUBLISHED_AT = (e1, e2) -> {
+        int cmp = Long.compare(e2.publishedAt, e1.publishedAt);
+        return cmp != 0 ? cmp : Long.compare(e1.id, e2.id);
+    };
+
+    /**
+     * The file of the log.
+     */
+    private final RandomAccessFile file;
+
+    /**
+     * The channel of the file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The primary index: id -> entry (written with the lock, read without it by isKnown).
+     */
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+
+    /**
+     * The secondary index: publishedAt (desc) -> entry.
+     */
+    private final TreeSet<Entry> byPublishedAt = new TreeSet<>(BY_PUBLISHED_AT);
+
+    /**
+     * The file of the filter.
+     */
+    private final File bloomFile;
+
+    /**
+     * The min number of ids of the filter.
+     */
+    private final long bloomExpected;
+
+    /**
+     * The false positive probability of the filter.
+     */
+    private final double bloomFpp;
+
+    /**
+     * The filter of the ids stored (replaced when too full).
+     */
+    private volatile BloomFilter bloom;
+
+    /**
+     * The ids in the filter but not in the store.
+     */
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    /**
+     * The mapped region of the log.
+     */
+    private MappedByteBuffer buffer;
+
+    /**
+     * The position of the next record.
+     */
+    private int writePosition;
+
+    /**
+     * The Constructor: open (or create) the log and rebuild the indexes.
+     *
+     * @param theFile     where the news are stored.
+     * @param theExpected number of ids of the filter (it grows if needed).
+     * @param theFpp      false positive probability of the filter.
+     */
+    public ContractsImplStore(final File theFile, final long theExpected, final double theFpp) {
+        Validation.notNull(theFile, "file");
+        if (theExpected < 1 || !(theFpp > 0 && theFpp < 1)) {
+            throw new IllegalArgumentException("Error: expected need to be >0 and fpp in (0, 1)");
+        }
+        this.bloomFile = new File(theFile.getPath() + ".bloom");
+        this.bloomExpected = theExpected;
+        this.bloomFpp = theFpp;
+        try {
+            this.file = new RandomAccessFile(theFile, "rw");
+            this.channel = this.file.getChannel();
+            this.buffer = map(capacityFor(this.channel.size()));
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        this.rebuildIndex();
+        this.bloom = this.readBloom();
+        log.debug("Store {} opened with {} news.", theFile, this.byId.size());
+    }
+
+    /**
+     * The Constructor: the filter sized for 10.000 ids, 1% of false positives.
+     *
+     * @param theFile where the news are stored.
+     */
+    public ContractsImplStore(final File theFile) {
+        this(theFile, BLOOM_EXPECTED, BLOOM_FPP);
+    }
+
+    /**
+     * Get the list of News, newest first. Only the returned records are decoded, and their
+     * description and content stay in the mapped region until first accessed.
+     *
+     * @param size size of the list.
+     * @return the list of News.
+     */
+    @Override
+    public synchronized List<News> retrieveNews(final Integer size) {
+        Validation.notNull(size, "size");
+
+        final Metrics.Span span = RETRIEVE.start();
+        try {
+            final List<News> news = new ArrayList<>(Math.min(size, this.byPublishedAt.size()));
+            final Iterator<Entry> entries = this.byPublishedAt.iterator();
+            while (news.size() < size && entries.hasNext()) {
+                news.add(NewsCodec.readLazy(this.buffer, entries.next().offset + LENGTH_SIZE));
+            }
+            return news;
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * Get one page of News, newest first. The token is the position (publishedAt and id) of
+     * the last News of the previous page, so the next page starts with a seek in the index.
+     *
+     * @param pageToken of the page, null for the first one.
+     * @param pageSize  size of the page.
+     * @return the page.
+     */
+    @Override
+    public synchronized NewsPage retrievePage(final String pageToken, final Integer pageSize) {
+        Validation.notNull(pageSize, "pageSize");
+
+        final Iterator<Entry> entries;
+        if (pageToken == null) {
+            entries = this.byPublishedAt.iterator();
+        } else {
+            final int separator = pageToken.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Error: pageToken need to be publishedAt:id"
+                        + " -> " + pageToken);
+            }
+            entries = this.byPublishedAt.tailSet(new Entry(
+                    Validation.toLong(pageToken.substring(separator + 1), "pageToken"),
+                    Validation.toLong(pageToken.substring(0, separator), "pageToken"),
+                    -1), false).iterator();
+        }
+
+        final List<News> news = new ArrayList<>(pageSize);
+        Entry last = null;
+        while (news.size() < pageSize && entries.hasNext()) {
+            last = entries.next();
+            news.add(NewsCodec.readLazy(this.buffer, last.offset + LENGTH_SIZE));
+        }
+        return new NewsPage(news, last != null && entries.hasNext()
+                ? last.publishedAt + ":" + last.id
+                : null);
+    }
+
+    /**
+     * Save one News into the System. Duplicates (by id) are ignored.
+     *
+     * @param news to save.
+     */
+    @Override
+    public synchronized void saveNews(final News news) {
+        Validation.notNull(news, "news");
+
+        if (this.byId.containsKey(news.getId())) {
+            log.debug("News {} already stored.", news.getId());
+            return;
+        }
+
+        final int length = NewsCodec.sizeOf(news);
+
+        // Room for this record plus the (zero) length of the next one
+        this.ensureCapacity(this.writePosition + LENGTH_SIZE + length + LENGTH_SIZE);
+
+        final int offset = this.writePosition;
+        final ByteBuffer record = this.buffer.duplicate();
+        record.position(offset + LENGTH_SIZE);
+        NewsCodec.write(news, record);
+
+        // The length goes last: the record is visible only once complete
+        this.buffer.putInt(offset, length);
+        this.writePosition = offset + LENGTH_SIZE + length;
+
+        this.index(new Entry(news.getId(), news.getPublishedAt().toInstant().toEpochMilli(),
+                offset));
+
+        this.bloom.put(news.getId());
+        if (this.bloom.getExpectedFpp() > 2 * this.bloomFpp) {
+            this.bloom = this.newBloom();
+        }
+    }
+
+    /**
+     * Save many News into the System, holding the lock once. Duplicates (by id) are ignored.
+     *
+     * @param news to save.
+     */
+    @Override
+    public synchronized void saveAll(final Collection<News> news) {
+        Validation.notNull(news, "news");
+        final Metrics.Span span = SAVE.start();
+        try {
+            for (News n : news) {
+                this.saveNews(n);
+            }
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * @param id of the news.
+     * @return the News (description and content decoded on first access), null if not stored.
+     */
+    public synchronized News get(final long id) {
+        final Entry entry = this.byId.get(id);
+        return entry == null ? null : NewsCodec.readLazy(this.buffer, entry.offset + LENGTH_SIZE);
+    }
+
+    /**
+     * Index the news stored, in the order of the log: the title and description are read from
+     * the records only to split them in terms (no News is built).
+     *
+     * @param index where to add the news.
+     * @return the number of news indexed (not already indexed).
+     */
+    public synchronized int indexInto(final NewsIndex index) {
+        Validation.notNull(index, "index");
+        int added = 0;
+        int position = 0;
+        while (position < this.writePosition) {
+            final int record = position + LENGTH_SIZE;
+            if (index.add(NewsCodec.readId(this.buffer, record),
+                    NewsCodec.readPublishedAt(this.buffer, record),
+                    NewsCodec.readTitle(this.buffer, record),
+                    NewsCodec.readDescription(this.buffer, record))) {
+                added++;
+            }
+            position = record + this.buffer.getInt(position);
+        }
+        return added;
+    }
+
+    /**
+     * @return the number of news stored.
+     */
+    public synchronized int size() {
+        return this.byId.size();
+    }
+
+    /**
+     * @param id of the News.
+     * @return true if stored.
+     */
+    public synchronized boolean contains(final long id) {
+        return this.byId.containsKey(id);
+    }
+
+    /**
+     * The filter first, then the exact check for the ids it may contain (both without the lock).
+     *
+     * @param id of the News.
+     * @return true if stored.
+     */
+    public boolean isKnown(final long id) {
+        if (!this.bloom.mightContain(id)) {
+            return false;
+        }
+        if (this.byId.containsKey(id)) {
+            return true;
+        }
+        this.falsePositives.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * @return the number of ids in the filter but not stored.
+     */
+    public long getFalsePositives() {
+        return this.falsePositives.get();
+    }
+
+    /**
+     * @return the filter of the ids stored.
+     */
+    public BloomFilter getBloomFilter() {
+        return this.bloom;
+    }
+
+    /**
+     * Flush the mapped region to disk and write the filter.
+     *
+     * @throws IOException in case of error.
+     */
+    public synchronized void flush() throws IOException {
+        this.buffer.force();
+        this.writeBloom();
+    }
+
+    /**
+     * Flush the mapped region to disk, write the filter and close the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.writeBloom();
+        this.buffer.force();
+        this.channel.close();
+        this.file.close();
+    }
+
+    /**
+     * Scan the log reading only the headers of the records.
+     */
+    private void rebuildIndex() {
+        int position = 0;
+        while (position + LENGTH_SIZE <= this.buffer.capacity()) {
+            final int length = this.buffer.getInt(position);
+            if (length <= 0 || position + LENGTH_SIZE + length > this.buffer.capacity()) {
+                break;
+            }
+            this.index(new Entry(
+                    NewsCodec.readId(this.buffer, position + LENGTH_SIZE),
+                    NewsCodec.readPublishedAt(this.buffer, position + LENGTH_SIZE),
+                    position));
+            position += LENGTH_SIZE + length;
+        }
+        this.writePosition = position;
+    }
+
+    /**
+     * Read the filter written on close: the records appended after it are added to it. Without
+     * it (or if too full) a new one is built from the index.
+     *
+     * @return the filter of the ids stored.
+     */
+    private BloomFilter readBloom() {
+        if (this.bloomFile.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(this.bloomFile)))) {
+                final long position = in.readLong();
+                final BloomFilter filter = BloomFilter.readFrom(in);
+                if (position <= this.writePosition) {
+                    for (Entry entry : this.byId.values()) {
+                        if (entry.offset >= position) {
+                            filter.put(entry.id);
+                        }
+                    }
+                    if (filter.getExpectedFpp() <= 2 * this.bloomFpp) {
+                        return filter;
+                    }
+                }
+            } catch (IOException ex) {
+                log.warn("Can't read the filter {}: {}", this.bloomFile, ex.getMessage());
+            }
+        }
+        return this.newBloom();
+    }
+
+    /**
+     * @return a new filter (room for twice the ids stored) with the ids stored.
+     */
+    private BloomFilter newBloom() {
+        final BloomFilter filter = new BloomFilter(Math.max(this.bloomExpected,
+                2L * this.byId.size()), this.bloomFpp);
+        for (Long id : this.byId.keySet()) {
+            filter.put(id);
+        }
+        log.debug("Filter of {} ids: {} bits, {} hashes.", this.byId.size(),
+                filter.getBitCount(), filter.getHashCount());
+        return filter;
+    }
+
+    /**
+     * Write the filter (and the position of the log it covers), replacing the old one only
+     * once complete.
+     *
+     * @throws IOException in case of error.
+     */
+    private void writeBloom() throws IOException {
+        final File tmp = new File(this.bloomFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(tmp)))) {
+            out.writeLong(this.writePosition);
+            this.bloom.writeTo(out);
+        }
+        if (!tmp.renameTo(this.bloomFile)) {
+            throw new IOException("Can't write the filter " + this.bloomFile);
+        }
+    }
+
+    /**
+     * Add the entry to both indexes.
+     *
+     * @param entry to add.
+     */
+    private void index(final Entry entry) {
+        this.byId.put(entry.id, entry);
+        this.byPublishedAt.add(entry);
+    }
+
+    /**
+     * Grow (and remap) the log if needed.
+     *
+     * @param required bytes needed.
+     */
+    private void ensureCapacity(final long required) {
+        if (required <= this.buffer.capacity()) {
+            return;
+        }
+        try {
+            this.buffer.force();
+            this.buffer = map(capacityFor(required));
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Map the first bytes of the file.
+     *
+     * @param capacity of the region.
+     * @return the mapped region.
+     * @throws IOException in case of error.
+     */
+    private MappedByteBuffer map(final int capacity) throws IOException {
+        return this.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * @param required bytes needed.
+     * @return the power of two capacity that fits the required bytes.
+     */
+    private static int capacityFor(final long required) {
+        if (required > Integer.MAX_VALUE / 2) {
+            throw new IllegalStateException("Store too big: " + required);
+        }
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < required) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * The index entry of one record.
+     */
+    private static final class Entry {
+
+        /**
+         * The id of the News.
+         */
+        private final long id;
+
+        /**
+         * The publishedAt in epoch millis.
+         */
+        private final long publishedAt;
+
+        /**
+         * The offset of the record in the log.
+         */
+        private final int offset;
+
+        /**
+         * The Constructor.
+         *
+         * @param id          of the News.
+         * @param publishedAt of the News.
+         * @param offset      of the record.
+         */
+        private Entry(final long id, final long publishedAt, final int offset) {
+            this.id = id;
+            this.publishedAt = publishedAt;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Metrics;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+
+/**
+ * The quality of the articles of NewsAPI: the fixups of each field (ex: the author missing),
+ * counted in total and by source, and the last offending articles as samples. Nothing is
+ * logged per article: the counts are gauges and the whole report is written with the
+ * {@link Metrics}.
+ *
+ * Thread safe without locks (but the first time of each source).
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class DataQuality {
+
+    /**
+     * The fields fixed.
+     */
+    public enum Field {
+        AUTHOR,
+        DESCRIPTION
+    }
+
+    /**
+     * The max number of sources counted apart: the rest go to {@link #OTHER_SOURCES}.
+     */
+    public static final int MAX_SOURCES = 256;
+
+    /**
+     * The key of the sources over {@link #MAX_SOURCES}.
+     */
+    public static final String OTHER_SOURCES = "*Other sources*";
+
+    /**
+     * The key of the articles without source.
+     */
+    public static final String NO_SOURCE = "*No source*";
+
+    /**
+     * The articles checked.
+     */
+    private final LongAdder checked = new LongAdder();
+
+    /**
+     * The fixups, by field.
+     */
+    private final LongAdder[] fixed = newCounters();
+
+    /**
+     * The fixups, by source and field.
+     */
+    private final Map<String, LongAdder[]> bySource = new ConcurrentHashMap<>();
+
+    /**
+     * The last samples (a ring).
+     */
+    private final AtomicReferenceArray<Sample> samples;
+
+    /**
+     * The number of samples added.
+     */
+    private final AtomicLong sampled = new AtomicLong();
+
+    /**
+     * The Constructor: the counts are gauges (name.checked, name.author, ..) and the whole
+     * report is written as the report name of the {@link Metrics}.
+     *
+     * @param name          of the metrics.
+     * @param theMaxSamples to keep.
+     */
+    public DataQuality(final String name, final int theMaxSamples) {
+        Validation.notNull(name, "name");
+        if (theMaxSamples <= 0) {
+            throw new IllegalArgumentException("Error: maxSamples need to be positive");
+        }
+        this.samples = new AtomicReferenceArray<>(theMaxSamples);
+
+        Metrics.gauge(name + ".checked", this::getChecked);
+        for (Field field : Field.values()) {
+            Metrics.gauge(name + "." + key(field), () -> this.getFixed(field));
+        }
+        Metrics.report(name, this::write);
+    }
+
+    /**
+     * Count one article checked.
+     */
+    public void checked() {
+        this.checked.increment();
+    }
+
+    /**
+     * Count one fixup (and keep it as sample).
+     *
+     * @param field  fixed.
+     * @param source name of the article.
+     * @param title  of the article.
+     * @param url    of the article.
+     */
+    public void fixed(final Field field, final String source, final String title,
+                      final String url) {
+        this.fixed[field.ordinal()].increment();
+        this.countersOf(source)[field.ordinal()].increment();
+
+        final long n = this.sampled.getAndIncrement();
+        this.samples.set((int) (n % this.samples.length()),
+                new Sample(field, source, title, url));
+    }
+
+    /**
+     * @return the articles checked.
+     */
+    public long getChecked() {
+        return this.checked.sum();
+    }
+
+    /**
+     * @param field fixed.
+     * @return the fixups of the field.
+     */
+    public long getFixed(final Field field) {
+        return this.fixed[field.ordinal()].sum();
+    }
+
+    /**
+     * @param field  fixed.
+     * @param source name.
+     * @return the fixups of the field in the articles of the source.
+     */
+    public long getFixed(final Field field, final String source) {
+        final LongAdder[] counters = this.bySource.get(source == null ? NO_SOURCE : source);
+        return counters == null ? 0 : counters[field.ordinal()].sum();
+    }
+
+    /**
+     * @return the samples kept, the oldest first.
+     */
+    public List<Sample> getSamples() {
+        final int capacity = this.samples.length();
+        final long n = this.sampled.get();
+        final List<Sample> list = new ArrayList<>(capacity);
+        for (long i = Math.max(0, n - capacity); i < n; i++) {
+            final Sample sample = this.samples.get((int) (i % capacity));
+            if (sample != null) {
+                list.add(sample);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @param source name.
+     * @return the counters of the source (created the first time).
+     */
+    private LongAdder[] countersOf(final String source) {
+        final String key = source == null ? NO_SOURCE : source;
+        final LongAdder[] counters = this.bySource.get(key);
+        if (counters != null) {
+            return counters;
+        }
+        if (this.bySource.size() >= MAX_SOURCES) {
+            return this.bySource.computeIfAbsent(OTHER_SOURCES, k -> newCounters());
+        }
+        return this.bySource.computeIfAbsent(key, k -> newCounters());
+    }
+
+    /**
+     * Write the report: {"checked": n, "fixed": {field: n}, "sources": {source: {field: n}},
+     * "samples": [{field, source, title, url}]}.
+     *
+     * @param json where to write.
+     * @throws IOException in case of error.
+     */
+    private void write(final JsonWriter json) throws IOException {
+        json.beginObject();
+        json.name("checked").value(this.getChecked());
+
+        json.name("fixed").beginObject();
+        for (Field field : Field.values()) {
+            json.name(key(field)).value(this.getFixed(field));
+        }
+        json.endObject();
+
+        json.name("sources").beginObject();
+        for (Map.Entry<String, LongAdder[]> entry : new TreeMap<>(this.bySource).entrySet()) {
+            json.name(entry.getKey()).beginObject();
+            for (Field field : Field.values()) {
+                json.name(key(field)).value(entry.getValue()[field.ordinal()].sum());
+            }
+            json.endObject();
+        }
+        json.endObject();
+
+        json.name("samples").beginArray();
+        for (Sample sample : this.getSamples()) {
+            json.beginObject();
+            json.name("field").value(key(sample.getField()));
+            json.name("source").value(sample.getSource());
+            json.name("title").value(sample.getTitle());
+            json.name("url").value(sample.getUrl());
+            json.endObject();
+        }
+        json.endArray();
+
+        json.endObject();
+    }
+
+    /**
+     * @param field to name.
+     * @return the name of the field in the metrics.
+     */
+    private static String key(final Field field) {
+        return field.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return one counter by field.
+     */
+    private static LongAdder[] newCounters() {
+        final LongAdder[] counters = new LongAdder[Field.values().length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    /**
+     * One article fixed.
+     */
+    public static final class Sample {
+
+        /**
+         * The field fixed.
+         */
+        private final Field field;
+
+        /**
+         * The source of the article.
+         */
+        private final String source;
+
+        /**
+         * The title of the article.
+         */
+        private final String title;
+
+        /**
+         * The url of the article.
+         */
+        private final String url;
+
+        /**
+         * The Constructor.
+         *
+         * @param theField  fixed.
+         * @param theSource of the article.
+         * @param theTitle  of the article.
+         * @param theUrl    of the article.
+         */
+        private Sample(final Field theField, final String theSource, final String theTitle,
+                       final String theUrl) {
+            this.field = theField;
+            this.source = theSource;
+            this.title = theTitle;
+            this.url = theUrl;
+        }
+
+        /**
+         * @return the field fixed.
+         */
+        public Field getField() {
+            return this.field;
+        }
+
+        /**
+         * @return the source.
+         */
+        public String getSource() {
+            return this.source;
+        }
+
+        /**
+         * @return the title.
+         */
+        public String getTitle() {
+            return this.title;
+        }
+
+        /**
+         * @return the url.
+         */
+        public String getUrl() {
+            return this.url;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * The download of the images of the News (urlImage), through the disk cache of the http
+ * client. Concurrent callers of the same url share one request, which is cancelled when all
+ * of them cancel. The bitmaps (and their memory cache) are built by the Android side.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class ImageFetcher {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(ImageFetcher.class);
+
+    /**
+     * The time the images are fresh in the disk cache (one day).
+     */
+    static final int DISK_MAX_AGE = 24 * 60 * 60;
+
+    /**
+     * The http client.
+     */
+    private final OkHttpClient client;
+
+    /**
+     * The requests in flight, by url.
+     */
+    private final Map<String, Download> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * The number of images requested.
+     */
+    private final AtomicLong requests = new AtomicLong();
+
+    /**
+     * The number of requests that joined a download in flight.
+     */
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * The number of downloads served by the disk cache.
+     */
+    private final AtomicLong diskHits = new AtomicLong();
+
+    /**
+     * The number of downloads served by the disk cache after a 304.
+     */
+    private final AtomicLong revalidations = new AtomicLong();
+
+    /**
+     * The number of downloads from the network.
+     */
+    private final AtomicLong networkLoads = new AtomicLong();
+
+    /**
+     * The number of requests cancelled.
+     */
+    private final AtomicLong cancels = new AtomicLong();
+
+    /**
+     * The number of downloads failed.
+     */
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * The Constructor.
+     *
+     * @param theClient to use (with a disk cache).
+     */
+    public ImageFetcher(final OkHttpClient theClient) {
+        Validation.notNull(theClient, "client");
+        this.client = theClient;
+    }
+
+    /**
+     * The Constructor: the shared client with a disk cache where the images are fresh one day.
+     *
+     * @param directory of the disk cache.
+     * @param maxSize   of the disk cache (bytes).
+     */
+    public ImageFetcher(final File directory, final long maxSize) {
+        this(NewsApiClient.withCache(directory, maxSize, DISK_MAX_AGE));
+    }
+
+    /**
+     * Get the bytes of one image. Cancelling the returned future leaves the request, and
+     * cancels it if nobody else is waiting.
+     *
+     * @param url of the image.
+     * @return the future bytes.
+     */
+    public CompletableFuture<byte[]> fetch(final String url) {
+        Validation.notNull(url, "url");
+        this.requests.incrementAndGet();
+
+        // Join the download in flight or start a new one
+        Download download;
+        while (true) {
+            download = this.inFlight.get(url);
+            if (download == null) {
+                final Download created = new Download();
+                download = this.inFlight.putIfAbsent(url, created);
+                if (download == null) {
+                    download = created;
+                    this.start(url, created);
+                    break;
+                }
+            }
+            if (download.join()) {
+                this.coalesced.incrementAndGet();
+                break;
+            }
+            // Cancelled by the last waiter, start again
+            this.inFlight.remove(url, download);
+        }
+
+        final Download theDownload = download;
+        final CompletableFuture<byte[]> future = new CompletableFuture<>();
+        theDownload.bytes.whenComplete((bytes, ex) -> {
+            if (ex == null) {
+                future.complete(bytes);
+            } else {
+                future.completeExceptionally(ex);
+            }
+        });
+        future.whenComplete((bytes, ex) -> {
+            if (future.isCancelled()) {
+                this.cancels.incrementAndGet();
+                if (theDownload.leave()) {
+                    this.inFlight.remove(url, theDownload);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Download the image into the disk cache, without waiting for it.
+     *
+     * @param url of the image.
+     */
+    public void prefetch(final String url) {
+        this.fetch(url);
+    }
+
+    /**
+     * @param url      of the image.
+     * @param download to start.
+     */
+    private void start(final String url, final Download download) {
+        final Request request;
+        try {
+            request = new Request.Builder().url(url).build();
+        } catch (IllegalArgumentException ex) {
+            this.inFlight.remove(url, download);
+            this.errors.incrementAndGet();
+            download.bytes.completeExceptionally(ex);
+            return;
+        }
+        download.call = this.client.newCall(request);
+        download.call.enqueue(new Callback() {
+            @Override
+            public void onFailure(final Call call, final IOException ex) {
+                inFlight.remove(url, download);
+                if (!call.isCanceled()) {
+                    errors.incrementAndGet();
+                    log.debug("Can't download {}: {}", url, ex.toString());
+                }
+                download.bytes.completeExceptionally(ex);
+            }
+
+            @Override
+            public void onResponse(final Call call, final Response response) {
+                // Still in flight while the body is read
+                try (ResponseBody body = response.body()) {
+                    if (!response.isSuccessful()) {
+                        errors.incrementAndGet();
+                        inFlight.remove(url, download);
+                        download.bytes.completeExceptionally(
+                                new IOException("Error: " + response.code() + " " + url));
+                        return;
+                    }
+                    final byte[] bytes = body.bytes();
+                    count(response);
+                    inFlight.remove(url, download);
+                    download.bytes.complete(bytes);
+                } catch (IOException ex) {
+                    if (!call.isCanceled()) {
+                        errors.incrementAndGet();
+                    }
+                    inFlight.remove(url, download);
+                    download.bytes.completeExceptionally(ex);
+                }
+            }
+        });
+    }
+
+    /**
+     * Count where the response came from.
+     *
+     * @param response to count.
+     */
+    private void count(final Response response) {
+        if (response.networkResponse() == null) {
+            this.diskHits.incrementAndGet();
+        } else if (response.cacheResponse() != null) {
+            this.revalidations.incrementAndGet();
+        } else {
+            this.networkLoads.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of images requested.
+     */
+    public long getRequests() {
+        return this.requests.get();
+    }
+
+    /**
+     * @return the number of requests that joined a download in flight.
+     */
+    public long getCoalesced() {
+        return this.coalesced.get();
+    }
+
+    /**
+     * @return the number of downloads served by the disk cache.
+     */
+    public long getDiskHits() {
+        return this.diskHits.get();
+    }
+
+    /**
+     * @return the number of downloads served by the disk cache after a 304.
+     */
+    public long getRevalidations() {
+        return this.revalidations.get();
+    }
+
+    /**
+     * @return the number of downloads from the network.
+     */
+    public long getNetworkLoads() {
+        return this.networkLoads.get();
+    }
+
+    /**
+     * @return the number of requests cancelled.
+     */
+    public long getCancels() {
+        return this.cancels.get();
+    }
+
+    /**
+     * @return the number of downloads failed.
+     */
+    public long getErrors() {
+        return this.errors.get();
+    }
+
+    /**
+     * @return the fraction of the downloads served by the disk cache (0 - 1).
+     */
+    public double getDiskHitRate() {
+        final long hits = this.diskHits.get() + this.revalidations.get();
+        final long total = hits + this.networkLoads.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * The largest power of two to divide the image keeping it as big as the target (the
+     * inSampleSize of the Android decoder).
+     *
+     * @param width        of the image.
+     * @param height       of the image.
+     * @param targetWidth  of the view.
+     * @param targetHeight of the view.
+     * @return the sample size (1 if the target is unknown).
+     */
+    public static int sampleSize(final int width, final int height, final int targetWidth,
+                                 final int targetHeight) {
+        if (targetWidth <= 0 || targetHeight <= 0) {
+            return 1;
+        }
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= targetWidth
+                && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * One download and its waiters.
+     */
+    private static final class Download {
+
+        /**
+         * The bytes of the image.
+         */
+        private final CompletableFuture<byte[]> bytes = new CompletableFuture<>();
+
+        /**
+         * The http call.
+         */
+        private volatile Call call;
+
+        /**
+         * The number of waiters (-1 once cancelled).
+         */
+        private int waiters = 1;
+
+        /**
+         * @return true if joined, false if already cancelled.
+         */
+        private synchronized boolean join() {
+            if (this.waiters < 0) {
+                return false;
+            }
+            this.waiters++;
+            return true;
+        }
+
+        /**
+         * Leave the download, cancelling it if it was the last waiter.
+         *
+         * @return true if cancelled.
+         */
+        private synchronized boolean leave() {
+            if (this.waiters <= 0 || --this.waiters > 0 || this.bytes.isDone()) {
+                return false;
+            }
+            this.waiters = -1;
+            if (this.call != null) {
+                this.call.cancel();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.Clock;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Metrics;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.brotli.BrotliInterceptor;
+
+/**
+ * The OkHttp clients of {@link NewsApiService}.
+ *
+ * All the clients share one connection pool and one dispatcher (so the connections to NewsAPI
+ * are reused across ContractsImplNewsApi instances) and negotiate brotli / gzip. The clients
+ * with cache store the responses on disk and revalidate them with NewsAPI (If-None-Match /
+ * If-Modified-Since): an unchanged page costs a 304 instead of the whole json.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class NewsApiClient {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(NewsApiClient.class);
+
+    /**
+     * The url of NewsAPI.
+     */
+    public static final String BASE_URL = "https://newsapi.org/v2/";
+
+    /**
+     * The client without cache, base of all the clients.
+     */
+    private static final OkHttpClient SHARED = new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(5, 5, TimeUnit.MINUTES))
+            .connectTimeout(10, TimeUnit.SECONDS)
+            .readTimeout(20, TimeUnit.SECONDS)
+            .addInterceptor(BrotliInterceptor.INSTANCE)
+            .build();
+
+    /**
+     * The caches, by directory (OkHttp allows only one cache per directory).
+     */
+    private static final Map<File, Cache> CACHES = new ConcurrentHashMap<>();
+
+    /**
+     * The circuit breaker of NewsAPI (one host, shared by all the clients).
+     */
+    private static final CircuitBreaker BREAKER = new CircuitBreaker();
+
+    /**
+     * The rate limit of each API key (shared by all the clients): burst of 5, one request
+     * every 2 seconds.
+     */
+    private static final RateLimitInterceptor RATE_LIMIT = new RateLimitInterceptor(5, 0.5,
+            Clock.systemUTC());
+
+    static {
+        Metrics.gauge("newsapi.breaker.rejected", BREAKER::getRejected);
+        Metrics.gauge("newsapi.breaker.stale", BREAKER::getStaleHits);
+        Metrics.gauge("newsapi.ratelimit.waited", RATE_LIMIT::getWaited);
+    }
+
+    /**
+     * Utility class.
+     */
+    private NewsApiClient() {
+        // Nothing here
+    }
+
+    /**
+     * @return the client without cache.
+     */
+    public static OkHttpClient shared() {
+        return SHARED;
+    }
+
+    /**
+     * A client with an on-disk cache. The responses are stored for maxAgeSeconds and then
+     * revalidated (0: revalidated in each request). The Cache-Control of NewsAPI is replaced.
+     *
+     * @param directory     of the cache.
+     * @param maxSize       of the cache (bytes).
+     * @param maxAgeSeconds of the responses.
+     * @return the client.
+     */
+    public static OkHttpClient withCache(final File directory, final long maxSize,
+                                         final int maxAgeSeconds) {
+        Validation.notNull(directory, "directory");
+        if (maxSize < 1 || maxAgeSeconds < 0) {
+            throw new IllegalArgumentException("Error: maxSize need to be >0 and maxAge >=0");
+        }
+        final Cache cache = CACHES.computeIfAbsent(directory.getAbsoluteFile(),
+                dir -> new Cache(dir, maxSize));
+        return SHARED.newBuilder()
+                .cache(cache)
+                .addNetworkInterceptor(cacheControl(maxAgeSeconds))
+                .build();
+    }
+
+    /**
+     * A client with an on-disk cache, revalidated in each request.
+     *
+     * @param directory of the cache.
+     * @param maxSize   of the cache (bytes).
+     * @return the client.
+     */
+    public static OkHttpClient withCache(final File directory, final long maxSize) {
+        return withCache(directory, maxSize, 0);
+    }
+
+    /**
+     * The client with the shared circuit breaker (outermost, it serves the stale cache while
+     * open), the retries of the transient errors and the shared rate limit (each request that
+     * reaches the network takes a token, the cache hits don't).
+     *
+     * @param client to decorate (with cache to serve stale responses).
+     * @return the client.
+     */
+    public static OkHttpClient resilient(final OkHttpClient client) {
+        return resilient(client, BREAKER, new RetryInterceptor(), RATE_LIMIT);
+    }
+
+    /**
+     * @param client    to decorate.
+     * @param breaker   to use.
+     * @param retry     to use.
+     * @param rateLimit to use.
+     * @return the client with the interceptors (the rate limit on the network).
+     */
+    public static OkHttpClient resilient(final OkHttpClient client, final CircuitBreaker breaker,
+                                         final RetryInterceptor retry,
+                                         final RateLimitInterceptor rateLimit) {
+        Validation.notNull(client, "client");
+        Validation.notNull(breaker, "breaker");
+        Validation.notNull(retry, "retry");
+        Validation.notNull(rateLimit, "rateLimit");
+        return client.newBuilder()
+                .addInterceptor(breaker)
+                .addInterceptor(retry)
+                .addNetworkInterceptor(rateLimit)
+                .build();
+    }
+
+    /**
+     * @param maxAgeSeconds of the responses.
+     * @return the interceptor that writes the Cache-Control of the successful responses.
+     */
+    private static Interceptor cacheControl(final int maxAgeSeconds) {
+        // max-age=0 (not no-cache): revalidated each time, but still usable stale (see
+        // CircuitBreaker)
+        final String value = "max-age=" + maxAgeSeconds;
+        return chain -> {
+            final Response response = chain.proceed(chain.request());
+            if (!response.isSuccessful() || !"GET".equals(chain.request().method())) {
+                return response;
+            }
+            log.debug("{} {}: ETag {}, Last-Modified {}.", response.code(),
+                    chain.request().url().encodedPath(), response.header("ETag"),
+                    response.header("Last-Modified"));
+            return response.newBuilder()
+                    .removeHeader("Pragma")
+                    .header("Cache-Control", value)
+                    .build();
+        };
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+/**
+ * The error response of NewsAPI (non 2xx), with its http code.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class NewsApiException extends RuntimeException {
+
+    /**
+     * The version of the serialized form.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The http code.
+     */
+    private final int code;
+
+    /**
+     * The Constructor.
+     *
+     * @param theCode http code of the response.
+     * @param body    of the response.
+     */
+    public NewsApiException(final int theCode, final String body) {
+        super("Error: " + theCode + "-->" + body);
+        this.code = theCode;
+    }
+
+    /**
+     * @return the http code.
+     */
+    public int getCode() {
+        return this.code;
+    }
+
+    /**
+     * @return true if the same request may work later (429 or 5xx).
+     */
+    public boolean isTransient() {
+        return isTransient(this.code);
+    }
+
+    /**
+     * @param code http code.
+     * @return true if the same request may work later (429 or 5xx).
+     */
+    static boolean isTransient(final int code) {
+        return code == 429 || code >= 500;
+    }
+}
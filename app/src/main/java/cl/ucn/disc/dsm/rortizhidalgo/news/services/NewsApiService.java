@@ -13,16 +13,33 @@ package cl.ucn.disc.dsm.rortizhidalgo.news.services;
 
 import com.kwabenaberko.newsapilib.models.Article;
 import com.kwabenaberko.newsapilib.models.response.ArticleResponse;
-import com.kwabenaberko.newsapilib.network.APIClient;
 import com.kwabenaberko.newsapilib.network.APIService;
 
+import org.threeten.bp.ZoneId;
+
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Metrics;
 import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
 import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import retrofit2.http.GET;
+import retrofit2.http.QueryMap;
+import retrofit2.http.Streaming;
 
 /**
  * The Contracts from CU/UH.
@@ -31,6 +48,28 @@ import retrofit2.Response;
  */
 public class NewsApiService {
 
+    /**
+     * The timer of the requests (until the headers of the response).
+     */
+    private static final Metrics.Timer HTTP = Metrics.timer("newsapi.http");
+
+    /**
+     * The timer of the requests decoded by Gson (http and decode, in Retrofit).
+     */
+    private static final Metrics.Timer GSON = Metrics.timer("newsapi.gson");
+
+    /**
+     * The timer of the streamed decode of the responses (and the map to News).
+     */
+    private static final Metrics.Timer DECODE = Metrics.timer("newsapi.decode");
+
+    /**
+     * The executor of the callbacks of the asynchronic calls: the OkHttp thread of the call
+     * itself, so the bodies are read (and decoded) as they arrive, never in the main thread
+     * (the default of Retrofit in Android) nor queued behind other calls.
+     */
+    private static final Executor CALLBACKS = Runnable::run;
+
     /**
      * The Key.
      */
@@ -42,14 +81,77 @@ public class NewsApiService {
     private final APIService apiService;
 
     /**
-     * The Constructor
+     * The sub-service of the raw (streamed) responses.
+     */
+    private final StreamingService streamingService;
+
+    /**
+     * The transformer of the articles (with the display zone).
+     */
+    private final NewsMapper mapper;
+
+    /**
+     * The Constructor: NewsAPI with the shared client (without cache).
      *
      * @param apiKey to use.
      */
     public NewsApiService(String apiKey) {
+        this(apiKey, NewsApiClient.BASE_URL, NewsApiClient.shared());
+    }
+
+    /**
+     * The Constructor: the News in the default zone (-3).
+     *
+     * @param apiKey  to use.
+     * @param baseUrl of NewsAPI (ending with /).
+     * @param client  to use, see {@link NewsApiClient}.
+     */
+    public NewsApiService(final String apiKey, final String baseUrl, final OkHttpClient client) {
+        this(apiKey, baseUrl, client, NewsMapper.DEFAULT_ZONE);
+    }
+
+    /**
+     * The Constructor.
+     *
+     * @param apiKey  to use.
+     * @param baseUrl of NewsAPI (ending with /).
+     * @param client  to use, see {@link NewsApiClient}.
+     * @param zone    of the dates of the News.
+     */
+    public NewsApiService(final String apiKey, final String baseUrl, final OkHttpClient client,
+                          final ZoneId zone) {
+        this(apiKey, baseUrl, client, zone, CALLBACKS);
+    }
+
+    /**
+     * The Constructor.
+     *
+     * @param apiKey    to use.
+     * @param baseUrl   of NewsAPI (ending with /).
+     * @param client    to use, see {@link NewsApiClient}.
+     * @param zone      of the dates of the News.
+     * @param callbacks where the responses of the asynchronic calls are read (not the main
+     *                  thread: the bodies are read from the network).
+     */
+    public NewsApiService(final String apiKey, final String baseUrl, final OkHttpClient client,
+                          final ZoneId zone, final Executor callbacks) {
         Validation.notNull(apiKey, "apiKey");
+        Validation.notNull(baseUrl, "baseUrl");
+        Validation.notNull(client, "client");
+        Validation.notNull(zone, "zone");
+        Validation.notNull(callbacks, "callbacks");
         this.apiKey = apiKey;
-        this.apiService = APIClient.getAPIService();
+        this.mapper = zone.equals(NewsMapper.DEFAULT_ZONE)
+                ? NewsMapper.DEFAULT
+                : new NewsMapper(zone);
+        final Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl(baseUrl)
+                .client(client)
+                .callbackExecutor(callbacks)
+                .addConverterFactory(GsonConverterFactory.create())
+                .build();
+        this.apiService = retrofit.create(APIService.class);
+        this.streamingService = retrofit.create(StreamingService.class);
     }
 
     /**
@@ -61,13 +163,248 @@ public class NewsApiService {
      */
     public List<Article> getTopHeadlines(final String category, final Integer pageSize)
             throws IOException {
+        return this.getTopHeadlines(category, pageSize, 1);
+    }
+
+    /**
+     * The getTopHeadLines adaptor, one page.
+     *
+     * @param category to search.
+     * @param pageSize number of articles.
+     * @param page     number of the page (starting at 1).
+     * @return the List of Article.
+     * @throws IOException in case of error.
+     */
+    public List<Article> getTopHeadlines(final String category, final Integer pageSize,
+                                         final Integer page) throws IOException {
+
+        // The response (sincronic!)
+        final Response<ArticleResponse> response;
+        final Metrics.Span span = GSON.start();
+        try {
+            response = apiService.getTopHeadlines(this.query(category, pageSize, page))
+                    .execute();
+        } finally {
+            span.close();
+        }
+
+        return articles(response);
+    }
+
+    /**
+     * The getTopHeadLines adaptor, asynchronic: the request runs in the OkHttp dispatcher and
+     * no thread of the caller waits for it. Cancelling (or failing) the future cancels the
+     * request.
+     *
+     * @param category to search.
+     * @param pageSize number of articles.
+     * @return the future List of Article.
+     */
+    public CompletableFuture<List<Article>> getTopHeadlinesAsync(final String category,
+                                                                 final Integer pageSize) {
+        return this.getTopHeadlinesAsync(category, pageSize, 1);
+    }
+
+    /**
+     * The getTopHeadLines adaptor, one page, asynchronic.
+     *
+     * @param category to search.
+     * @param pageSize number of articles.
+     * @param page     number of the page (starting at 1).
+     * @return the future List of Article.
+     */
+    public CompletableFuture<List<Article>> getTopHeadlinesAsync(final String category,
+                                                                 final Integer pageSize,
+                                                                 final Integer page) {
+
+        return enqueue(apiService.getTopHeadlines(this.query(category, pageSize, page)),
+                NewsApiService::articles);
+    }
+
+    /**
+     * The getTopHeadLines adaptor, streamed: the News are decoded from the body one at a time
+     * and given to the consumer while the response is read (no List of Article is built).
+     *
+     * @param category to search.
+     * @param pageSize number of articles.
+     * @param page     number of the page (starting at 1).
+     * @param consumer of each News.
+     * @return the number of News read.
+     * @throws IOException in case of error.
+     */
+    public int streamTopHeadlines(final String category, final Integer pageSize,
+                                  final Integer page, final Consumer<News> consumer)
+            throws IOException {
+        return this.streamTopHeadlines(category, pageSize, page, null, consumer);
+    }
+
+    /**
+     * The getTopHeadLines adaptor, streamed, only the new articles: the known ones are skipped
+     * before building their News (see {@link NewsJsonReader}).
+     *
+     * @param category to search.
+     * @param pageSize number of articles.
+     * @param page     number of the page (starting at 1).
+     * @param known    ids to skip, null to read all the articles.
+     * @param consumer of each News.
+     * @return the number of News read (not skipped).
+     * @throws IOException in case of error.
+     */
+    public int streamTopHeadlines(final String category, final Integer pageSize,
+                                  final Integer page, final LongPredicate known,
+                                  final Consumer<News> consumer) throws IOException {
+        Validation.notNull(consumer, "consumer");
+
+        // The response (sincronic!), the body is not read yet
+        final Response<ResponseBody> response;
+        final Metrics.Span span = HTTP.start();
+        try {
+            response = streamingService.getTopHeadlines(this.query(category, pageSize, page))
+                    .execute();
+        } finally {
+            span.close();
+        }
+
+        return this.stream(response, known, consumer);
+    }
+
+    /**
+     * The getTopHeadLines adaptor, streamed into a List of News.
+     *
+     * @param category to search.
+     * @param pageSize number of articles.
+     * @param page     number of the page (starting at 1).
+     * @return the List of News.
+     * @throws IOException in case of error.
+     */
+    public List<News> getTopHeadlinesNews(final String category, final Integer pageSize,
+                                          final Integer page) throws IOException {
+        return this.getTopHeadlinesNews(category, pageSize, page, null);
+    }
+
+    /**
+     * The getTopHeadLines adaptor, streamed into a List of the new News.
+     *
+     * @param category to search.
+     * @param pageSize number of articles.
+     * @param page     number of the page (starting at 1).
+     * @param known    ids to skip, null to read all the articles.
+     * @return the List of News (not known).
+     * @throws IOException in case of error.
+     */
+    public List<News> getTopHeadlinesNews(final String category, final Integer pageSize,
+                                          final Integer page, final LongPredicate known)
+            throws IOException {
+        final List<News> news = new ArrayList<>();
+        this.streamTopHeadlines(category, pageSize, page, known, news::add);
+        return news;
+    }
+
+    /**
+     * The getTopHeadLines adaptor, streamed into a List of News, asynchronic.
+     *
+     * @param category to search.
+     * @param pageSize number of articles.
+     * @param page     number of the page (starting at 1).
+     * @return the future List of News.
+     */
+    public CompletableFuture<List<News>> getTopHeadlinesNewsAsync(final String category,
+                                                                  final Integer pageSize,
+                                                                  final Integer page) {
+        return this.getTopHeadlinesNewsAsync(category, pageSize, page, null);
+    }
+
+    /**
+     * The getTopHeadLines adaptor, streamed into a List of the new News, asynchronic.
+     *
+     * @param category to search.
+     * @param pageSize number of articles.
+     * @param page     number of the page (starting at 1).
+     * @param known    ids to skip, null to read all the articles.
+     * @return the future List of News (not known).
+     */
+    public CompletableFuture<List<News>> getTopHeadlinesNewsAsync(final String category,
+                                                                  final Integer pageSize,
+                                                                  final Integer page,
+                                                                  final LongPredicate known) {
+        return enqueue(streamingService.getTopHeadlines(this.query(category, pageSize, page)),
+                response -> {
+                    final List<News> news = new ArrayList<>();
+                    this.stream(response, known, news::add);
+                    return news;
+                });
+    }
+
+    /**
+     * @return the transformer of the articles.
+     */
+    NewsMapper getMapper() {
+        return this.mapper;
+    }
+
+    /**
+     * Run the call in the OkHttp dispatcher, the response is decoded in the callback executor
+     * (by default, the OkHttp thread of the call). Cancelling (or failing) the future cancels
+     * the call.
+     *
+     * @param call    to run.
+     * @param decoder of the response.
+     * @param <T>     type of the body.
+     * @param <R>     type of the result.
+     * @return the future result.
+     */
+    private static <T, R> CompletableFuture<R> enqueue(final Call<T> call,
+                                                       final Decoder<T, R> decoder) {
+
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                call.cancel();
+            }
+        });
+
+        final Metrics.Span http = HTTP.start();
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(final Call<T> theCall, final Response<T> response) {
+                http.close();
+                try {
+                    future.complete(decoder.decode(response));
+                } catch (IOException | RuntimeException ex) {
+                    future.completeExceptionally(ex);
+                }
+            }
+
+            @Override
+            public void onFailure(final Call<T> theCall, final Throwable ex) {
+                http.close();
+                future.completeExceptionally(ex);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Build the request parameters.
+     *
+     * @param category to search.
+     * @param pageSize number of articles.
+     * @param page     number of the page.
+     * @return the map of parameters.
+     */
+    private Map<String, String> query(final String category, final Integer pageSize,
+                                      final Integer page) {
 
         Validation.notNull(category, "category");
         Validation.notNull(pageSize, "pageSize");
+        Validation.notNull(page, "page");
 
         if (pageSize < 1) {
             throw new IllegalArgumentException("Error: pageSize need to be >0");
         }
+        if (page < 1) {
+            throw new IllegalArgumentException("Error: page need to be >0");
+        }
 
         // TODO: Implements the correct map to request parameters.
         // https://newsapi.org/docs/endpoints/top-headlines
@@ -82,17 +419,86 @@ public class NewsApiService {
         // query.put("sources", topHeadlineRequest.getSources());
         // query.put("q", topHeadlineRequest.getQ());
         query.put("pageSize", pageSize.toString());
+        query.put("page", page.toString());
 
-        // The response (sincronic!)
-        Response<ArticleResponse> response = apiService.getTopHeadlines(query).execute();
+        return query;
+    }
+
+    /**
+     * @param response from NewsAPI.
+     * @return the List of Article.
+     * @throws IOException in case of error reading the error body.
+     * @throws NewsApiException if the response is an error.
+     */
+    private static List<Article> articles(final Response<ArticleResponse> response)
+            throws IOException {
 
         // All ok, return the data
         if (response.isSuccessful()) {
             return response.body().getArticles();
         }
 
-        throw new RuntimeException("Error: " + response.code() + "-->" +
-                response.errorBody().string());
+        throw new NewsApiException(response.code(), response.errorBody().string());
+    }
+
+    /**
+     * @param response from NewsAPI (not read yet).
+     * @param known    ids to skip, null to read all the articles.
+     * @param consumer of each News.
+     * @return the number of News read.
+     * @throws IOException in case of error reading the body.
+     * @throws NewsApiException if the response is an error.
+     */
+    private int stream(final Response<ResponseBody> response, final LongPredicate known,
+                       final Consumer<News> consumer) throws IOException {
+
+        if (!response.isSuccessful()) {
+            throw new NewsApiException(response.code(), response.errorBody().string());
+        }
+
+        int count = 0;
+        final Metrics.Span span = DECODE.start();
+        try (ResponseBody body = response.body();
+             NewsJsonReader reader = new NewsJsonReader(body.charStream(), this.mapper,
+                     known)) {
+            while (reader.hasNext()) {
+                consumer.accept(reader.next());
+                count++;
+            }
+        } finally {
+            span.close();
+        }
+        return count;
+    }
+
+    /**
+     * The decoder of a response.
+     *
+     * @param <T> type of the body.
+     * @param <R> type of the result.
+     */
+    private interface Decoder<T, R> {
+
+        /**
+         * @param response to decode.
+         * @return the result.
+         * @throws IOException in case of error reading the body.
+         */
+        R decode(Response<T> response) throws IOException;
+    }
+
+    /**
+     * The NewsAPI endpoints with the raw body, read while it arrives.
+     */
+    interface StreamingService {
+
+        /**
+         * @param query parameters.
+         * @return the call of the top headlines.
+         */
+        @Streaming
+        @GET("top-headlines")
+        Call<ResponseBody> getTopHeadlines(@QueryMap Map<String, String> query);
     }
 
 }
@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.LongPredicate;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Metrics;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+
+/**
+ * The streaming decoder of a NewsAPI response: the articles are read one at a time from the
+ * json and turned into {@link News} (with the fixes of {@link NewsMapper}), without building
+ * the ArticleResponse nor the list of Article.
+ *
+ * With the known ids, the articles already seen are skipped once their title, source and author
+ * are read: the rest of their fields are not decoded and no News is built.
+ *
+ * An error response ("status": "error") throws a RuntimeException with its code and message.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+final class NewsJsonReader implements Iterator<News>, Closeable {
+
+    /**
+     * The counter of the articles skipped (already known).
+     */
+    private static final Metrics.Counter SKIPPED = Metrics.counter("news.skipped");
+
+    /**
+     * The json.
+     */
+    private final JsonReader reader;
+
+    /**
+     * The transformer of the articles.
+     */
+    private final NewsMapper mapper;
+
+    /**
+     * The ids already seen (null: none).
+     */
+    private final LongPredicate known;
+
+    /**
+     * The next News (read by hasNext).
+     */
+    private News pending;
+
+    /**
+     * The number of articles skipped.
+     */
+    private int skipped;
+
+    /**
+     * The total of results of the query (-1 if not read yet).
+     */
+    private int totalResults = -1;
+
+    /**
+     * True while inside the array of articles.
+     */
+    private boolean inArticles;
+
+    /**
+     * True once the response is read.
+     */
+    private boolean done;
+
+    /**
+     * The Constructor.
+     *
+     * @param theReader of the body of the response.
+     * @param theMapper of the articles.
+     * @param theKnown  ids to skip, null to read all the articles.
+     */
+    NewsJsonReader(final Reader theReader, final NewsMapper theMapper,
+                   final LongPredicate theKnown) {
+        Validation.notNull(theReader, "reader");
+        Validation.notNull(theMapper, "mapper");
+        this.reader = new JsonReader(theReader);
+        this.mapper = theMapper;
+        this.known = theKnown;
+    }
+
+    /**
+     * The Constructor.
+     *
+     * @param theReader of the body of the response.
+     * @param theMapper of the articles.
+     */
+    NewsJsonReader(final Reader theReader, final NewsMapper theMapper) {
+        this(theReader, theMapper, null);
+    }
+
+    /**
+     * The Constructor: the News in the default zone.
+     *
+     * @param theReader of the body of the response.
+     */
+    NewsJsonReader(final Reader theReader) {
+        this(theReader, NewsMapper.DEFAULT);
+    }
+
+    /**
+     * @return true if there is another News.
+     */
+    @Override
+    public boolean hasNext() {
+        try {
+            while (this.pending == null && this.advance()) {
+                this.pending = this.readArticle();
+            }
+            return this.pending != null;
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * @return the next News.
+     */
+    @Override
+    public News next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final News news = this.pending;
+        this.pending = null;
+        return news;
+    }
+
+    /**
+     * @return the total of results of the query, -1 if unknown (read after the articles).
+     */
+    public int getTotalResults() {
+        return this.totalResults;
+    }
+
+    /**
+     * @return the number of articles skipped (already known).
+     */
+    public int getSkipped() {
+        return this.skipped;
+    }
+
+    /**
+     * Close the reader.
+     */
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    /**
+     * Move to the next article (reading the fields of the response on the way).
+     *
+     * @return true if positioned before an article.
+     */
+    private boolean advance() throws IOException {
+        if (this.done) {
+            return false;
+        }
+        if (this.inArticles) {
+            if (this.reader.hasNext()) {
+                return true;
+            }
+            this.reader.endArray();
+            this.inArticles = false;
+        } else if (this.reader.peek() == JsonToken.BEGIN_OBJECT) {
+            this.reader.beginObject();
+        }
+
+        String status = null;
+        String code = null;
+        String message = null;
+        while (this.reader.hasNext()) {
+            switch (this.reader.nextName()) {
+                case "status":
+                    status = this.nextString();
+                    break;
+                case "code":
+                    code = this.nextString();
+                    break;
+                case "message":
+                    message = this.nextString();
+                    break;
+                case "totalResults":
+                    this.totalResults = this.reader.nextInt();
+                    break;
+                case "articles":
+                    if (this.reader.peek() == JsonToken.NULL) {
+                        this.reader.nextNull();
+                        break;
+                    }
+                    this.reader.beginArray();
+                    if (this.reader.hasNext()) {
+                        this.inArticles = true;
+                        return true;
+                    }
+                    this.reader.endArray();
+                    break;
+                default:
+                    this.reader.skipValue();
+            }
+        }
+        this.reader.endObject();
+        this.done = true;
+
+        if ("error".equals(status)) {
+            throw new RuntimeException("Error: " + code + "-->" + message);
+        }
+        return false;
+    }
+
+    /**
+     * @return the News of the article at the current position, null if known.
+     */
+    private News readArticle() throws IOException {
+        String title = null;
+        String source = null;
+        String author = null;
+        String url = null;
+        String urlToImage = null;
+        String description = null;
+        String publishedAt = null;
+
+        // The fields of the id still to read (title, source and author)
+        int idFields = this.known == null ? -1 : 3;
+
+        this.reader.beginObject();
+        while (this.reader.hasNext()) {
+            switch (this.reader.nextName()) {
+                case "source":
+                    source = this.readSourceName();
+                    idFields--;
+                    break;
+                case "author":
+                    author = this.nextString();
+                    idFields--;
+                    break;
+                case "title":
+                    title = this.nextString();
+                    idFields--;
+                    break;
+                case "description":
+                    description = this.nextString();
+                    break;
+                case "url":
+                    url = this.nextString();
+                    break;
+                case "urlToImage":
+                    urlToImage = this.nextString();
+                    break;
+                case "publishedAt":
+                    publishedAt = this.nextString();
+                    break;
+                default:
+                    // The content is replaced by the description
+                    this.reader.skipValue();
+            }
+            if (idFields == 0) {
+                idFields = -1;
+                if (this.skipKnown(title, source, author)) {
+                    return null;
+                }
+            }
+        }
+
+        // Without some of the fields of the id
+        if (idFields > 0 && this.skipKnown(title, source, author)) {
+            return null;
+        }
+        this.reader.endObject();
+
+        Validation.notNull(source, "source");
+        return this.mapper.toNews(title, source, author, url, urlToImage, description,
+                publishedAt);
+    }
+
+    /**
+     * Skip the rest of the article if already known.
+     *
+     * @param title  of the article.
+     * @param source name of the source.
+     * @param author of the article.
+     * @return true if known (and skipped).
+     */
+    private boolean skipKnown(final String title, final String source, final String author)
+            throws IOException {
+        if (!this.known.test(NewsMapper.idOf(title, source, author))) {
+            return false;
+        }
+        while (this.reader.hasNext()) {
+            this.reader.nextName();
+            this.reader.skipValue();
+        }
+        this.reader.endObject();
+        this.skipped++;
+        SKIPPED.increment();
+        return true;
+    }
+
+    /**
+     * @return the name of the source object.
+     */
+    private String readSourceName() throws IOException {
+        if (this.reader.peek() == JsonToken.NULL) {
+            this.reader.nextNull();
+            return null;
+        }
+        String name = null;
+        this.reader.beginObject();
+        while (this.reader.hasNext()) {
+            if ("name".equals(this.reader.nextName())) {
+                name = this.nextString();
+            } else {
+                this.reader.skipValue();
+            }
+        }
+        this.reader.endObject();
+        return name;
+    }
+
+    /**
+     * @return the string (or null) at the current position.
+     */
+    private String nextString() throws IOException {
+        if (this.reader.peek() == JsonToken.NULL) {
+            this.reader.nextNull();
+            return null;
+        }
+        return this.reader.nextString();
+    }
+}
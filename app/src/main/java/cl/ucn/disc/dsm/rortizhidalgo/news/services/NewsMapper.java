@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import com.kwabenaberko.newsapilib.models.Article;
+
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZoneOffset;
+import org.threeten.bp.ZonedDateTime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.NewsId;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.InstantParser;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Metrics;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.StringPool;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+
+/**
+ * The NewsAPI article to {@link News} transformer, used by both the Gson ({@link Article}) and
+ * the streaming ({@link NewsJsonReader}) decoders: the missing author and description are fixed
+ * the date is moved to the display zone and the names of the source and the author are pooled
+ * ({@link StringPool#NAMES}).
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+final class NewsMapper {
+
+    /**
+     * The timer of the map of one article.
+     */
+    private static final Metrics.Timer MAP = Metrics.timer("news.map");
+
+    /**
+     * The author of the articles without one.
+     */
+    static final String NO_AUTHOR = "*No author*";
+
+    /**
+     * The description of the articles without one.
+     */
+    static final String NO_DESCRIPTION = "*No description*";
+
+    /**
+     * The default display zone.
+     */
+    static final ZoneId DEFAULT_ZONE = ZoneOffset.ofHours(-3);
+
+    /**
+     * The quality of the articles mapped (shared by the mappers).
+     */
+    static final DataQuality QUALITY = new DataQuality("news.quality", 32);
+
+    /**
+     * The mapper to the default zone.
+     */
+    static final NewsMapper DEFAULT = new NewsMapper(DEFAULT_ZONE);
+
+    /**
+     * The display zone.
+     */
+    private final ZoneId zone;
+
+    /**
+     * The counts of the fixups.
+     */
+    private final DataQuality quality;
+
+    /**
+     * The Constructor.
+     *
+     * @param theZone of the dates of the News.
+     */
+    NewsMapper(final ZoneId theZone) {
+        this(theZone, QUALITY);
+    }
+
+    /**
+     * The Constructor.
+     *
+     * @param theZone    of the dates of the News.
+     * @param theQuality where to count the fixups.
+     */
+    NewsMapper(final ZoneId theZone, final DataQuality theQuality) {
+        Validation.notNull(theZone, "zone");
+        Validation.notNull(theQuality, "quality");
+        this.zone = theZone;
+        this.quality = theQuality;
+    }
+
+    /**
+     * @return the display zone.
+     */
+    ZoneId getZone() {
+        return this.zone;
+    }
+
+    /**
+     * @return the counts of the fixups.
+     */
+    DataQuality getQuality() {
+        return this.quality;
+    }
+
+    /**
+     * Article to News (the article is not modified).
+     *
+     * @param article used to convert.
+     * @return the News.
+     */
+    News toNews(final Article article) {
+        //validation null news
+        Validation.notNull(article, "Article null??");
+        Validation.notNull(article.getSource(), "source");
+
+        return this.toNews(article.getTitle(),
+                article.getSource().getName(),
+                article.getAuthor(),
+                article.getUrl(),
+                article.getUrlToImage(),
+                article.getDescription(),
+                article.getPublishedAt());
+    }
+
+    /**
+     * The new articles to News: the ids are computed first (in one batch) and the known
+     * articles are not mapped.
+     *
+     * @param articles to convert.
+     * @param known    ids (the articles already seen), null to map all.
+     * @return the News of the articles not known, in order.
+     */
+    List<News> toNews(final List<Article> articles, final LongPredicate known) {
+        Validation.notNull(articles, "articles");
+        if (known == null) {
+            final List<News> news = new ArrayList<>(articles.size());
+            for (Article article : articles) {
+                news.add(this.toNews(article));
+            }
+            return news;
+        }
+
+        final long[] ids = NewsId.of(articles, Article::getTitle,
+                a -> a.getSource() == null ? null : a.getSource().getName(),
+                a -> fixAuthor(a.getAuthor()));
+        final List<News> news = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (!known.test(ids[i])) {
+                news.add(this.toNews(articles.get(i)));
+            }
+        }
+        return news;
+    }
+
+    /**
+     * The id of the News of one article, without building it.
+     *
+     * @param title  of the article.
+     * @param source name of the source.
+     * @param author of the article (fixed if empty).
+     * @return the id.
+     */
+    static long idOf(final String title, final String source, final String author) {
+        return NewsId.of(title, source, fixAuthor(author));
+    }
+
+    /**
+     * @param author of the article.
+     * @return the author, {@link #NO_AUTHOR} if empty.
+     */
+    private static String fixAuthor(final String author) {
+        return author == null || author.length() == 0 ? NO_AUTHOR : author;
+    }
+
+    /**
+     * The fields of one article to News.
+     *
+     * @param title       of the article.
+     * @param source      name of the source.
+     * @param author      of the article (fixed if empty).
+     * @param url         of the article.
+     * @param urlToImage  of the article.
+     * @param description of the article (fixed if empty), also the content.
+     * @param publishedAt in ISO-8601.
+     * @return the News.
+     */
+    News toNews(final String title, final String source, final String author,
+                final String url, final String urlToImage, final String description,
+                final String publishedAt) {
+        final Metrics.Span span = MAP.start();
+        try {
+            return this.map(title, source, author, url, urlToImage, description, publishedAt);
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * The fields of one article to News, timed by {@link #toNews(String, String, String,
+     * String, String, String, String)}.
+     *
+     * @param title       of the article.
+     * @param source      name of the source.
+     * @param author      of the article (fixed if empty).
+     * @param url         of the article.
+     * @param urlToImage  of the article.
+     * @param description of the article (fixed if empty), also the content.
+     * @param publishedAt in ISO-8601.
+     * @return the News.
+     */
+    private News map(final String title, final String source, final String author,
+                     final String url, final String urlToImage, final String description,
+                     final String publishedAt) {
+
+        //Fix the author is null
+        final boolean noAuthor = author == null || author.length() == 0;
+        //more restriction
+        final boolean noDescription = description == null || description.length() == 0;
+
+        //count the fixups (no log per article)
+        this.quality.checked();
+        if (noAuthor) {
+            this.quality.fixed(DataQuality.Field.AUTHOR, source, title, url);
+        }
+        if (noDescription) {
+            this.quality.fixed(DataQuality.Field.DESCRIPTION, source, title, url);
+        }
+
+        //the date
+        Validation.notNull(publishedAt, "publishedAt");
+        final ZonedDateTime date = InstantParser.parse(publishedAt, this.zone);
+
+        //the news
+        final String theDescription = noDescription ? NO_DESCRIPTION : description;
+        return new News(title,
+                StringPool.NAMES.intern(source),
+                noAuthor ? NO_AUTHOR : StringPool.NAMES.intern(author),
+                url,
+                urlToImage,
+                theDescription,
+                theDescription, //Fix content
+                date);
+    }
+}
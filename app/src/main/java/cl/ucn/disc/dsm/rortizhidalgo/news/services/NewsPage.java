@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import java.util.Collections;
+import java.util.List;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+
+/**
+ * One page of {@link News} and the token to request the next one.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class NewsPage {
+
+    /**
+     * The news of the page.
+     */
+    private final List<News> news;
+
+    /**
+     * The token of the next page (null if this is the last one).
+     */
+    private final String nextToken;
+
+    /**
+     * The Constructor.
+     *
+     * @param theNews      of the page.
+     * @param theNextToken of the next page, null if last.
+     */
+    public NewsPage(final List<News> theNews, final String theNextToken) {
+        Validation.notNull(theNews, "news");
+        this.news = Collections.unmodifiableList(theNews);
+        this.nextToken = theNextToken;
+    }
+
+    /**
+     * @return the news of the page.
+     */
+    public List<News> getNews() {
+        return this.news;
+    }
+
+    /**
+     * @return the token of the next page, null if this is the last one.
+     */
+    public String getNextToken() {
+        return this.nextToken;
+    }
+
+    /**
+     * @return true if there is a next page.
+     */
+    public boolean hasNext() {
+        return this.nextToken != null;
+    }
+}
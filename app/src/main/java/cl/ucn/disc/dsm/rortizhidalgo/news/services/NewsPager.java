@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+
+/**
+ * The lazy iterator of the pages of a {@link Contracts}: when one page is returned the next one
+ * is already requested, so it downloads while the current one is shown. Only the current page
+ * and the one in flight are referenced.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class NewsPager implements Iterator<NewsPage> {
+
+    /**
+     * The contracts.
+     */
+    private final Contracts contracts;
+
+    /**
+     * The size of the pages.
+     */
+    private final Integer pageSize;
+
+    /**
+     * The next page (in flight), null when done.
+     */
+    private CompletableFuture<NewsPage> nextPage;
+
+    /**
+     * The Constructor: the first page is requested right away.
+     *
+     * @param theContracts to iterate.
+     * @param thePageSize  size of the pages.
+     */
+    public NewsPager(final Contracts theContracts, final Integer thePageSize) {
+        Validation.notNull(theContracts, "contracts");
+        Validation.notNull(thePageSize, "pageSize");
+        if (thePageSize < 1) {
+            throw new IllegalArgumentException("Error: pageSize need to be >0");
+        }
+        this.contracts = theContracts;
+        this.pageSize = thePageSize;
+        this.nextPage = theContracts.retrievePageAsync(null, thePageSize);
+    }
+
+    /**
+     * @return true if there is another page.
+     */
+    @Override
+    public synchronized boolean hasNext() {
+        return this.nextPage != null;
+    }
+
+    /**
+     * @return the next page, waiting for it if still in flight. The following page is requested
+     * before returning.
+     */
+    @Override
+    public synchronized NewsPage next() {
+        if (this.nextPage == null) {
+            throw new NoSuchElementException("No more pages");
+        }
+        final NewsPage page = join(this.nextPage);
+        this.nextPage = page.hasNext()
+                ? this.contracts.retrievePageAsync(page.getNextToken(), this.pageSize)
+                : null;
+        return page;
+    }
+
+    /**
+     * Cancel the page in flight.
+     */
+    public synchronized void cancel() {
+        if (this.nextPage != null) {
+            this.nextPage.cancel(true);
+            this.nextPage = null;
+        }
+    }
+
+    /**
+     * @param future to wait.
+     * @return the page, rethrowing the cause of the failure.
+     */
+    private static NewsPage join(final CompletableFuture<NewsPage> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+}
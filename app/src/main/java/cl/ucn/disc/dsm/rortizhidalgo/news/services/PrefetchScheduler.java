@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.Clock;
+
+import java.io.Closeable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Metrics;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+
+/**
+ * The background refresh of the headlines: each category is requested to NewsAPI every
+ * interval (with jitter, so the categories and the devices don't request at the same time) and
+ * the news are saved into the local store, where the UI reads them without waiting for the
+ * network. After an error the category is retried with exponential backoff.
+ *
+ * The scheduler doesn't sleep: {@link #runDue()} starts the refreshes due by the clock, and
+ * {@link #start(long)} calls it periodically. With a fake clock the tests call it directly.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class PrefetchScheduler implements Closeable {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(PrefetchScheduler.class);
+
+    /**
+     * The timer of the refreshes (request, decode, merge and save).
+     */
+    private static final Metrics.Timer REFRESH = Metrics.timer("refresh");
+
+    /**
+     * The delay of the first retry after an error (doubled on each error).
+     */
+    static final long FIRST_BACKOFF_MILLIS = 30 * 1000L;
+
+    /**
+     * The source of the news.
+     */
+    private final ContractsImplNewsApi source;
+
+    /**
+     * The local store (the duplicates must be ignored, like {@link ContractsImplStore}).
+     */
+    private final Contracts store;
+
+    /**
+     * The number of news of each refresh.
+     */
+    private final int size;
+
+    /**
+     * The time between refreshes (millis).
+     */
+    private final long intervalMillis;
+
+    /**
+     * The max time between retries (millis).
+     */
+    private final long maxBackoffMillis;
+
+    /**
+     * The jitter, fraction of each delay (0 - 1).
+     */
+    private final double jitter;
+
+    /**
+     * The clock.
+     */
+    private final Clock clock;
+
+    /**
+     * The random of the jitter.
+     */
+    private final Random random;
+
+    /**
+     * The state of each category.
+     */
+    private final Map<String, Category> categories = new LinkedHashMap<>();
+
+    /**
+     * The number of refreshes saved.
+     */
+    private final AtomicLong refreshes = new AtomicLong();
+
+    /**
+     * The number of refreshes failed.
+     */
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * Who is told about each refresh (the UI).
+     */
+    private volatile Consumer<String> listener;
+
+    /**
+     * The thread of the scheduler: the ticks of {@link #start(long)} and the end of each
+     * refresh (save and listener), never the thread that completed the request (the main
+     * thread in Android). Idle, the thread ends.
+     */
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * The ticks of {@link #start(long)}.
+     */
+    private ScheduledFuture<?> ticks;
+
+    /**
+     * The Constructor.
+     *
+     * @param theSource           of the news.
+     * @param theStore            where the news are saved.
+     * @param theCategories       to refresh.
+     * @param theSize             number of news of each refresh.
+     * @param theIntervalMillis   time between refreshes.
+     * @param theMaxBackoffMillis max time between retries.
+     * @param theJitter           fraction of each delay (0 - 1).
+     * @param theClock            to use.
+     * @param theRandom           of the jitter.
+     */
+    public PrefetchScheduler(final ContractsImplNewsApi theSource, final Contracts theStore,
+                             final List<String> theCategories, final int theSize,
+                             final long theIntervalMillis, final long theMaxBackoffMillis,
+                             final double theJitter, final Clock theClock,
+                             final Random theRandom) {
+        Validation.notNull(theSource, "source");
+        Validation.notNull(theStore, "store");
+        Validation.notNull(theCategories, "categories");
+        Validation.notNull(theClock, "clock");
+        Validation.notNull(theRandom, "random");
+        if (theCategories.isEmpty() || theSize < 1 || theIntervalMillis < 1
+                || theMaxBackoffMillis < FIRST_BACKOFF_MILLIS || theJitter < 0 || theJitter > 1) {
+            throw new IllegalArgumentException("Error: categories, size, interval, maxBackoff "
+                    + "or jitter out of range");
+        }
+        this.source = theSource;
+        this.store = theStore;
+        this.size = theSize;
+        this.intervalMillis = theIntervalMillis;
+        this.maxBackoffMillis = theMaxBackoffMillis;
+        this.jitter = theJitter;
+        this.clock = theClock;
+        this.random = theRandom;
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "news-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setKeepAliveTime(1, TimeUnit.SECONDS);
+        this.executor.allowCoreThreadTimeOut(true);
+        this.executor.setRemoveOnCancelPolicy(true);
+
+        // All due now
+        for (String category : theCategories) {
+            Validation.notNull(category, "category");
+            this.categories.put(category, new Category(theClock.millis()));
+        }
+    }
+
+    /**
+     * The Constructor: 30 news every 15 minutes (10% of jitter), retried up to every hour.
+     *
+     * @param theSource     of the news.
+     * @param theStore      where the news are saved.
+     * @param theCategories to refresh.
+     */
+    public PrefetchScheduler(final ContractsImplNewsApi theSource, final Contracts theStore,
+                             final List<String> theCategories) {
+        this(theSource, theStore, theCategories, 30, 15 * 60 * 1000L, 60 * 60 * 1000L, 0.1,
+                Clock.systemUTC(), new Random());
+    }
+
+    /**
+     * @param theListener told (with the category) after each refresh saved into the store.
+     */
+    public void setListener(final Consumer<String> theListener) {
+        this.listener = theListener;
+    }
+
+    /**
+     * Start the refreshes due (and not running) by the clock.
+     *
+     * @return the number of refreshes started.
+     */
+    public synchronized int runDue() {
+        final long now = this.clock.millis();
+        int started = 0;
+        for (Map.Entry<String, Category> entry : this.categories.entrySet()) {
+            final Category state = entry.getValue();
+            if (state.running == null && state.nextAt <= now) {
+                this.refresh(entry.getKey(), state);
+                started++;
+            }
+        }
+        return started;
+    }
+
+    /**
+     * Make all the categories due and start them (ex: pull to refresh).
+     *
+     * @return the number of refreshes started.
+     */
+    public synchronized int refreshNow() {
+        final long now = this.clock.millis();
+        for (Category state : this.categories.values()) {
+            state.nextAt = Math.min(state.nextAt, now);
+        }
+        return this.runDue();
+    }
+
+    /**
+     * Call {@link #runDue()} periodically, in a background thread.
+     *
+     * @param tickMillis time between calls.
+     */
+    public synchronized void start(final long tickMillis) {
+        if (this.ticks != null) {
+            return;
+        }
+        this.ticks = this.executor.scheduleWithFixedDelay(() -> {
+            try {
+                this.runDue();
+            } catch (RuntimeException ex) {
+                log.error("Can't run the refreshes", ex);
+            }
+        }, 0, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the ticks and cancel the refreshes running.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.ticks != null) {
+            this.ticks.cancel(false);
+            this.ticks = null;
+        }
+        for (Category state : this.categories.values()) {
+            if (state.running != null) {
+                state.running.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * @param category to check.
+     * @return when the next refresh of the category is due (epoch millis).
+     */
+    public synchronized long getNextRefresh(final String category) {
+        return this.state(category).nextAt;
+    }
+
+    /**
+     * @param category to check.
+     * @return the number of consecutive errors of the category.
+     */
+    public synchronized int getFailures(final String category) {
+        return this.state(category).failures;
+    }
+
+    /**
+     * @return the number of refreshes saved.
+     */
+    public long getRefreshes() {
+        return this.refreshes.get();
+    }
+
+    /**
+     * @return the number of refreshes failed.
+     */
+    public long getErrors() {
+        return this.errors.get();
+    }
+
+    /**
+     * @param category to find.
+     * @return the state of the category.
+     */
+    private Category state(final String category) {
+        final Category state = this.categories.get(category);
+        if (state == null) {
+            throw new IllegalArgumentException("Unknown category: " + category);
+        }
+        return state;
+    }
+
+    /**
+     * Start the refresh of one category.
+     *
+     * @param category to refresh.
+     * @param state    of the category.
+     */
+    private void refresh(final String category, final Category state) {
+        final Metrics.Span span = REFRESH.start();
+        final CompletableFuture<List<News>> running;
+        try {
+            running = this.source.retrieveNewsAsync(category, this.size);
+        } catch (RuntimeException ex) {
+            this.done(category, state, null, ex);
+            span.close();
+            return;
+        }
+        state.running = running;
+        running.whenCompleteAsync((news, ex) -> {
+            this.done(category, state, news, ex);
+            span.close();
+        }, this.executor);
+    }
+
+    /**
+     * Save the news (or count the error) and schedule the next refresh, in the thread of the
+     * scheduler.
+     *
+     * @param category refreshed.
+     * @param state    of the category.
+     * @param news     retrieved (null if error).
+     * @param error    of the refresh (null if ok).
+     */
+    private void done(final String category, final Category state, final List<News> news,
+                      final Throwable error) {
+        Throwable ex = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+        if (ex == null) {
+            try {
+                this.store.saveAll(news);
+            } catch (RuntimeException saveEx) {
+                ex = saveEx;
+            }
+        }
+
+        synchronized (this) {
+            state.running = null;
+            final long now = this.clock.millis();
+            if (ex == null) {
+                state.failures = 0;
+                state.nextAt = now + this.jittered(this.intervalMillis);
+                this.refreshes.incrementAndGet();
+            } else {
+                state.failures++;
+                final long backoff = Math.min(this.maxBackoffMillis,
+                        FIRST_BACKOFF_MILLIS << Math.min(state.failures - 1, 20));
+                state.nextAt = now + this.jittered(backoff);
+                this.errors.incrementAndGet();
+                log.warn("Refresh of {} failed ({} in a row), next in {} ms: {}", category,
+                        state.failures, state.nextAt - now, ex.toString());
+            }
+        }
+
+        final Consumer<String> theListener = this.listener;
+        if (ex == null && theListener != null) {
+            theListener.accept(category);
+        }
+    }
+
+    /**
+     * @param delay to change.
+     * @return the delay +- jitter.
+     */
+    private long jittered(final long delay) {
+        final double factor = 1 + this.jitter * (2 * this.random.nextDouble() - 1);
+        return Math.max(1, Math.round(delay * factor));
+    }
+
+    /**
+     * The state of one category.
+     */
+    private static final class Category {
+
+        /**
+         * When the next refresh is due (epoch millis).
+         */
+        private long nextAt;
+
+        /**
+         * The consecutive errors.
+         */
+        private int failures;
+
+        /**
+         * The refresh running (null if none).
+         */
+        private CompletableFuture<List<News>> running;
+
+        /**
+         * The Constructor.
+         *
+         * @param theNextAt when the first refresh is due.
+         */
+        private Category(final long theNextAt) {
+            this.nextAt = theNextAt;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.Clock;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.TokenBucket;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * The client side rate limit of NewsAPI: one {@link TokenBucket} per API key (the apiKey
+ * parameter), so the requests wait here instead of being rejected by the server. A 429 pauses
+ * the bucket of its key during the Retry-After (one second if none).
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class RateLimitInterceptor implements Interceptor {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(RateLimitInterceptor.class);
+
+    /**
+     * The pause after a 429 without Retry-After (millis).
+     */
+    private static final long DEFAULT_PAUSE = 1000;
+
+    /**
+     * The burst of each key.
+     */
+    private final int capacity;
+
+    /**
+     * The requests per second of each key.
+     */
+    private final double requestsPerSecond;
+
+    /**
+     * The clock.
+     */
+    private final Clock clock;
+
+    /**
+     * The buckets, by API key.
+     */
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * The total time waited (millis).
+     */
+    private final AtomicLong waited = new AtomicLong();
+
+    /**
+     * The Constructor.
+     *
+     * @param theCapacity          burst of each key.
+     * @param theRequestsPerSecond of each key.
+     * @param theClock             to use.
+     */
+    public RateLimitInterceptor(final int theCapacity, final double theRequestsPerSecond,
+                                final Clock theClock) {
+        Validation.notNull(theClock, "clock");
+        if (theCapacity < 1 || !(theRequestsPerSecond > 0)) {
+            throw new IllegalArgumentException("Error: capacity and rate need to be >0");
+        }
+        this.capacity = theCapacity;
+        this.requestsPerSecond = theRequestsPerSecond;
+        this.clock = theClock;
+    }
+
+    /**
+     * @param chain of the request.
+     * @return the response.
+     * @throws IOException of the network, or if interrupted while waiting.
+     */
+    @Override
+    public Response intercept(final Chain chain) throws IOException {
+        final String apiKey = chain.request().url().queryParameter("apiKey");
+        final TokenBucket bucket = this.bucket(apiKey == null ? "" : apiKey);
+
+        // Wait for a token
+        long wait;
+        while ((wait = bucket.tryAcquire()) > 0) {
+            if (chain.call().isCanceled()) {
+                throw new IOException("Canceled");
+            }
+            this.waited.addAndGet(wait);
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Rate limit wait interrupted");
+            }
+        }
+
+        final Response response = chain.proceed(chain.request());
+        if (response.code() == 429) {
+            long pause = DEFAULT_PAUSE;
+            final String retryAfter = response.header("Retry-After");
+            if (retryAfter != null) {
+                try {
+                    pause = Long.parseLong(retryAfter.trim()) * 1000;
+                } catch (NumberFormatException ex) {
+                    log.debug("Retry-After not in seconds: {}", retryAfter);
+                }
+            }
+            log.warn("Rate limited by the server, pausing the key {} ms.", pause);
+            bucket.pauseUntil(this.clock.millis() + pause);
+        }
+        return response;
+    }
+
+    /**
+     * @param apiKey of the requests.
+     * @return the bucket of the key.
+     */
+    TokenBucket bucket(final String apiKey) {
+        return this.buckets.computeIfAbsent(apiKey,
+                key -> new TokenBucket(this.capacity, this.requestsPerSecond, this.clock));
+    }
+
+    /**
+     * @return the total time waited for tokens (millis).
+     */
+    public long getWaited() {
+        return this.waited.get();
+    }
+}
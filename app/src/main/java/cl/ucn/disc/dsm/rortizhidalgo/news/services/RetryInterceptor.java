@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * The retry of the transient errors of NewsAPI (timeouts, 429 and 5xx) with exponential
+ * backoff and full jitter. A Retry-After of the server is honored as the delay; if it is longer
+ * than the max delay the response is returned without retry.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class RetryInterceptor implements Interceptor {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(RetryInterceptor.class);
+
+    /**
+     * The max number of attempts (the first included).
+     */
+    private final int maxAttempts;
+
+    /**
+     * The delay before the first retry (millis).
+     */
+    private final long baseDelayMillis;
+
+    /**
+     * The max delay between attempts (millis).
+     */
+    private final long maxDelayMillis;
+
+    /**
+     * The random of the jitter.
+     */
+    private final Random random;
+
+    /**
+     * The number of retries.
+     */
+    private final AtomicLong retries = new AtomicLong();
+
+    /**
+     * The Constructor.
+     *
+     * @param theMaxAttempts     max number of attempts (the first included).
+     * @param theBaseDelayMillis delay before the first retry.
+     * @param theMaxDelayMillis  max delay between attempts.
+     * @param theRandom          of the jitter.
+     */
+    public RetryInterceptor(final int theMaxAttempts, final long theBaseDelayMillis,
+                            final long theMaxDelayMillis, final Random theRandom) {
+        if (theMaxAttempts < 1 || theBaseDelayMillis < 1 || theMaxDelayMillis < theBaseDelayMillis
+                || theRandom == null) {
+            throw new IllegalArgumentException("Error: attempts, delays or random out of range");
+        }
+        this.maxAttempts = theMaxAttempts;
+        this.baseDelayMillis = theBaseDelayMillis;
+        this.maxDelayMillis = theMaxDelayMillis;
+        this.random = theRandom;
+    }
+
+    /**
+     * The Constructor: 3 attempts, 500 ms doubling up to 10 s.
+     */
+    public RetryInterceptor() {
+        this(3, 500, 10_000, new Random());
+    }
+
+    /**
+     * @param chain of the request.
+     * @return the response (the last one if all the attempts failed).
+     * @throws IOException of the last attempt.
+     */
+    @Override
+    public Response intercept(final Chain chain) throws IOException {
+        // Only the idempotent requests that reach the network: the 504 of a lookup of the
+        // cache (ex: the stale cache of the open CircuitBreaker) is not transient
+        if (!"GET".equals(chain.request().method())
+                || chain.request().cacheControl().onlyIfCached()) {
+            return chain.proceed(chain.request());
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            long delay;
+            try {
+                final Response response = chain.proceed(chain.request());
+                if (!NewsApiException.isTransient(response.code()) || attempt == this.maxAttempts) {
+                    return response;
+                }
+                delay = this.retryAfter(response);
+                if (delay > this.maxDelayMillis) {
+                    log.debug("Retry-After {} ms too long, giving up.", delay);
+                    return response;
+                }
+                if (delay < 0) {
+                    delay = this.backoff(attempt);
+                }
+                log.debug("{} from {}, retry {} in {} ms.", response.code(),
+                        chain.request().url().encodedPath(), attempt, delay);
+                response.close();
+            } catch (IOException ex) {
+                if (chain.call().isCanceled() || attempt == this.maxAttempts) {
+                    throw ex;
+                }
+                delay = this.backoff(attempt);
+                log.debug("{} from {}, retry {} in {} ms.", ex.toString(),
+                        chain.request().url().encodedPath(), attempt, delay);
+            }
+
+            this.retries.incrementAndGet();
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Retry interrupted");
+            }
+            if (chain.call().isCanceled()) {
+                throw new IOException("Canceled");
+            }
+        }
+    }
+
+    /**
+     * @return the number of retries.
+     */
+    public long getRetries() {
+        return this.retries.get();
+    }
+
+    /**
+     * @param attempt number of the attempt failed (from 1).
+     * @return the delay before the next one: random up to base * 2^(attempt - 1), capped.
+     */
+    long backoff(final int attempt) {
+        final long cap = Math.min(this.maxDelayMillis,
+                this.baseDelayMillis << Math.min(attempt - 1, 30));
+        synchronized (this.random) {
+            return 1 + (long) (this.random.nextDouble() * cap);
+        }
+    }
+
+    /**
+     * @param response with error.
+     * @return the Retry-After (seconds or http date) in millis, -1 if none.
+     */
+    private long retryAfter(final Response response) {
+        final String value = response.header("Retry-After");
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException ex) {
+            final Date date = response.headers().getDate("Retry-After");
+            return date == null ? -1 : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+}
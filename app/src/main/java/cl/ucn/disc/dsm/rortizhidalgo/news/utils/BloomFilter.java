@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter of longs (already hashed, ex: the ids of News): "no" is exact, "yes" is wrong
+ * with the false positive probability the filter was sized for. The k positions of a key come
+ * from the two halves of the key (double hashing), so nothing is hashed again.
+ *
+ * Thread safe without locks (the bits are set with compare and swap). It can be written to a
+ * stream and read back.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class BloomFilter {
+
+    /**
+     * The version of the format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The bits.
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * The number of bits.
+     */
+    private final long bitCount;
+
+    /**
+     * The number of positions of each key.
+     */
+    private final int hashCount;
+
+    /**
+     * The number of keys added (the ones that changed some bit).
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * The Constructor.
+     *
+     * @param theExpected number of keys.
+     * @param theFpp      the false positive probability with the expected keys (0..1).
+     */
+    public BloomFilter(final long theExpected, final double theFpp) {
+        if (theExpected < 1) {
+            throw new IllegalArgumentException("Error: expected need to be >0");
+        }
+        if (!(theFpp > 0 && theFpp < 1)) {
+            throw new IllegalArgumentException("Error: fpp need to be in (0, 1)");
+        }
+        // m = -n ln(p) / ln(2)^2, k = m / n ln(2)
+        final long bitsNeeded = (long) Math.ceil(-theExpected * Math.log(theFpp)
+                / (Math.log(2) * Math.log(2)));
+        final int words = Math.toIntExact((bitsNeeded + 63) >>> 6);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitsNeeded / theExpected
+                * Math.log(2)));
+    }
+
+    /**
+     * The Constructor of a read filter.
+     *
+     * @param theBits      the bits.
+     * @param theHashCount number of positions of each key.
+     * @param theCount     number of keys added.
+     */
+    private BloomFilter(final long[] theBits, final int theHashCount, final long theCount) {
+        this.bits = new AtomicLongArray(theBits);
+        this.bitCount = theBits.length * 64L;
+        this.hashCount = theHashCount;
+        this.count.set(theCount);
+    }
+
+    /**
+     * @param key to add.
+     * @return true if some bit changed (the key was not in the filter for sure).
+     */
+    public boolean put(final long key) {
+        final int h1 = (int) key;
+        final int h2 = (int) (key >>> 32);
+        boolean changed = false;
+        for (int i = 1; i <= this.hashCount; i++) {
+            final long bit = this.position(h1 + i * h2);
+            final int word = (int) (bit >>> 6);
+            final long mask = 1L << bit;
+            long current;
+            while (((current = this.bits.get(word)) & mask) == 0) {
+                if (this.bits.compareAndSet(word, current, current | mask)) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        if (changed) {
+            this.count.incrementAndGet();
+        }
+        return changed;
+    }
+
+    /**
+     * @param key to find.
+     * @return false if the key was never added, true if it may have been.
+     */
+    public boolean mightContain(final long key) {
+        final int h1 = (int) key;
+        final int h2 = (int) (key >>> 32);
+        for (int i = 1; i <= this.hashCount; i++) {
+            final long bit = this.position(h1 + i * h2);
+            if ((this.bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of keys added.
+     */
+    public long getCount() {
+        return this.count.get();
+    }
+
+    /**
+     * @return the number of bits.
+     */
+    public long getBitCount() {
+        return this.bitCount;
+    }
+
+    /**
+     * @return the number of positions of each key.
+     */
+    public int getHashCount() {
+        return this.hashCount;
+    }
+
+    /**
+     * @return the false positive probability with the keys added so far.
+     */
+    public double getExpectedFpp() {
+        return Math.pow(1 - Math.exp(-this.hashCount * (double) this.count.get()
+                / this.bitCount), this.hashCount);
+    }
+
+    /**
+     * Write the filter (the stream is not closed).
+     *
+     * @param out where to write.
+     * @throws IOException in case of error.
+     */
+    public void writeTo(final OutputStream out) throws IOException {
+        Validation.notNull(out, "out");
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(VERSION);
+        data.writeInt(this.hashCount);
+        data.writeLong(this.count.get());
+        data.writeInt(this.bits.length());
+        for (int i = 0; i < this.bits.length(); i++) {
+            data.writeLong(this.bits.get(i));
+        }
+        data.flush();
+    }
+
+    /**
+     * Read a filter written by {@link #writeTo(OutputStream)} (the stream is not closed).
+     *
+     * @param in where to read.
+     * @return the filter.
+     * @throws IOException in case of error or unknown format.
+     */
+    public static BloomFilter readFrom(final InputStream in) throws IOException {
+        Validation.notNull(in, "in");
+        final DataInputStream data = new DataInputStream(in);
+        final int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unknown version of BloomFilter: " + version);
+        }
+        final int hashCount = data.readInt();
+        final long count = data.readLong();
+        final int words = data.readInt();
+        if (hashCount < 1 || count < 0 || words < 1) {
+            throw new IOException("Invalid BloomFilter");
+        }
+        final long[] bits = new long[words];
+        for (int i = 0; i < words; i++) {
+            bits[i] = data.readLong();
+        }
+        return new BloomFilter(bits, hashCount, count);
+    }
+
+    /**
+     * @param hash combined.
+     * @return the position of the bit.
+     */
+    private long position(final int hash) {
+        // Flip the negative ones (like the Guava filter)
+        return (hash < 0 ? ~hash : hash) % this.bitCount;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import org.threeten.bp.Instant;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+/**
+ * The parser of the ISO-8601 timestamps of NewsAPI: yyyy-MM-ddTHH:mm:ss, an optional fraction
+ * (up to 9 digits) and Z or +-HH:mm. This format is read with plain arithmetic; anything else
+ * (zone names, missing seconds, ..) goes to {@link ZonedDateTime#parse(CharSequence)}.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class InstantParser {
+
+    /**
+     * Days from 0000-03-01 to 1970-01-01.
+     */
+    private static final long DAYS_0000_TO_1970 = 719_468L;
+
+    /**
+     * The cumulative days before each month (March first).
+     */
+    private static final int[] DAYS_BEFORE_MONTH = {0, 31, 61, 92, 122, 153, 184, 214, 245,
+            275, 306, 337};
+
+    /**
+     * Utility class.
+     */
+    private InstantParser() {
+        // Nothing here
+    }
+
+    /**
+     * @param text to parse.
+     * @param zone of the result.
+     * @return the date in the zone.
+     * @throws org.threeten.bp.format.DateTimeParseException if the text is not a date.
+     */
+    public static ZonedDateTime parse(final String text, final ZoneId zone) {
+        Validation.notNull(text, "text");
+        Validation.notNull(zone, "zone");
+        final Instant instant = parseFast(text);
+        if (instant != null) {
+            return ZonedDateTime.ofInstant(instant, zone);
+        }
+        return ZonedDateTime.parse(text).withZoneSameInstant(zone);
+    }
+
+    /**
+     * @param text to parse.
+     * @return the instant.
+     * @throws org.threeten.bp.format.DateTimeParseException if the text is not a date.
+     */
+    public static Instant parseInstant(final String text) {
+        Validation.notNull(text, "text");
+        final Instant instant = parseFast(text);
+        return instant != null ? instant : ZonedDateTime.parse(text).toInstant();
+    }
+
+    /**
+     * @param text to parse.
+     * @return the instant, or null if the text is not in the format of NewsAPI.
+     */
+    static Instant parseFast(final String text) {
+        final int length = text.length();
+        if (length < 20 || text.charAt(4) != '-' || text.charAt(7) != '-'
+                || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return null;
+        }
+
+        final int year = digits(text, 0, 4);
+        final int month = digits(text, 5, 2);
+        final int day = digits(text, 8, 2);
+        final int hour = digits(text, 11, 2);
+        final int minute = digits(text, 14, 2);
+        final int second = digits(text, 17, 2);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59
+                || second < 0 || second > 59) {
+            return null;
+        }
+
+        // The fraction
+        int position = 19;
+        int nanos = 0;
+        if (text.charAt(position) == '.') {
+            int scale = 100_000_000;
+            position++;
+            final int start = position;
+            while (position < length && isDigit(text.charAt(position))) {
+                if (position - start == 9) {
+                    return null;
+                }
+                nanos += (text.charAt(position) - '0') * scale;
+                scale /= 10;
+                position++;
+            }
+            if (position == start) {
+                return null;
+            }
+        }
+
+        // The offset
+        if (position >= length) {
+            return null;
+        }
+        int offsetSeconds;
+        final char sign = text.charAt(position);
+        if (sign == 'Z' && position + 1 == length) {
+            offsetSeconds = 0;
+        } else if ((sign == '+' || sign == '-') && position + 6 == length
+                && text.charAt(position + 3) == ':') {
+            final int offsetHours = digits(text, position + 1, 2);
+            final int offsetMinutes = digits(text, position + 4, 2);
+            if (offsetHours < 0 || offsetMinutes < 0 || offsetMinutes > 59) {
+                return null;
+            }
+            offsetSeconds = offsetHours * 3600 + offsetMinutes * 60;
+            if (offsetSeconds > 18 * 3600) {
+                return null;
+            }
+            if (sign == '-') {
+                offsetSeconds = -offsetSeconds;
+            }
+        } else {
+            return null;
+        }
+
+        final long epochSecond = epochDay(year, month, day) * 86_400L
+                + hour * 3600 + minute * 60 + second - offsetSeconds;
+        return Instant.ofEpochSecond(epochSecond, nanos);
+    }
+
+    /**
+     * @param year  of the date.
+     * @param month of the date (1-12).
+     * @param day   of the date.
+     * @return the days since 1970-01-01 (the years start in March, so the leap day is last).
+     */
+    private static long epochDay(final int year, final int month, final int day) {
+        final int y = month <= 2 ? year - 1 : year;
+        final int m = month <= 2 ? month + 9 : month - 3;
+        return 365L * y + y / 4 - y / 100 + y / 400 + DAYS_BEFORE_MONTH[m] + day - 1
+                - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * @param year  of the date.
+     * @param month of the date (1-12).
+     * @return the number of days of the month.
+     */
+    private static int daysInMonth(final int year, final int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * @param text   to read.
+     * @param start  of the digits.
+     * @param length number of digits.
+     * @return the number, or -1 if not all digits.
+     */
+    private static int digits(final String text, final int start, final int length) {
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            final char c = text.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * @param c to check.
+     * @return true if ASCII digit.
+     */
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive longs: open addressing with linear probing, no boxing and no nodes. The
+ * zero key is kept apart (it is the mark of the empty slots). Not thread safe.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class LongHashSet {
+
+    /**
+     * The empty slot.
+     */
+    private static final long EMPTY = 0L;
+
+    /**
+     * The max load (out of 4): 3/4.
+     */
+    private static final int MAX_LOAD = 3;
+
+    /**
+     * The slots (the length is a power of two).
+     */
+    private long[] keys;
+
+    /**
+     * The mask of the slots.
+     */
+    private int mask;
+
+    /**
+     * The number of non zero keys.
+     */
+    private int size;
+
+    /**
+     * True if the zero key is in the set.
+     */
+    private boolean hasZero;
+
+    /**
+     * The Constructor.
+     *
+     * @param expected number of keys.
+     */
+    public LongHashSet(final int expected) {
+        if (expected < 0) {
+            throw new IllegalArgumentException("Error: expected need to be >=0");
+        }
+        this.keys = new long[capacityFor(expected)];
+        this.mask = this.keys.length - 1;
+    }
+
+    /**
+     * The Constructor: 16 keys.
+     */
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * @param key to add.
+     * @return true if added, false if already in the set.
+     */
+    public boolean add(final long key) {
+        if (key == EMPTY) {
+            if (this.hasZero) {
+                return false;
+            }
+            this.hasZero = true;
+            return true;
+        }
+        int slot = slot(key, this.mask);
+        while (this.keys[slot] != EMPTY) {
+            if (this.keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        this.keys[slot] = key;
+        if (++this.size * 4 > this.keys.length * MAX_LOAD) {
+            this.rehash(this.keys.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * @param key to find.
+     * @return true if the key is in the set.
+     */
+    public boolean contains(final long key) {
+        if (key == EMPTY) {
+            return this.hasZero;
+        }
+        int slot = slot(key, this.mask);
+        while (this.keys[slot] != EMPTY) {
+            if (this.keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return false;
+    }
+
+    /**
+     * @param key to remove.
+     * @return true if removed, false if not in the set.
+     */
+    public boolean remove(final long key) {
+        if (key == EMPTY) {
+            final boolean had = this.hasZero;
+            this.hasZero = false;
+            return had;
+        }
+        int slot = slot(key, this.mask);
+        while (this.keys[slot] != key) {
+            if (this.keys[slot] == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        this.keys[slot] = EMPTY;
+        this.size--;
+
+        // Shift back the next keys of the run (no tombstones)
+        int next = (slot + 1) & this.mask;
+        while (this.keys[next] != EMPTY) {
+            final int home = slot(this.keys[next], this.mask);
+            if (((next - home) & this.mask) >= ((next - slot) & this.mask)) {
+                this.keys[slot] = this.keys[next];
+                this.keys[next] = EMPTY;
+                slot = next;
+            }
+            next = (next + 1) & this.mask;
+        }
+        return true;
+    }
+
+    /**
+     * Make room for more keys, to avoid rehashing during a bulk load.
+     *
+     * @param expected number of keys.
+     */
+    public void ensureCapacity(final int expected) {
+        final int capacity = capacityFor(expected);
+        if (capacity > this.keys.length) {
+            this.rehash(capacity);
+        }
+    }
+
+    /**
+     * @return the number of keys.
+     */
+    public int size() {
+        return this.size + (this.hasZero ? 1 : 0);
+    }
+
+    /**
+     * Remove all the keys.
+     */
+    public void clear() {
+        Arrays.fill(this.keys, EMPTY);
+        this.size = 0;
+        this.hasZero = false;
+    }
+
+    /**
+     * @param capacity the new number of slots.
+     */
+    private void rehash(final int capacity) {
+        final long[] old = this.keys;
+        this.keys = new long[capacity];
+        this.mask = capacity - 1;
+        for (long key : old) {
+            if (key != EMPTY) {
+                int slot = slot(key, this.mask);
+                while (this.keys[slot] != EMPTY) {
+                    slot = (slot + 1) & this.mask;
+                }
+                this.keys[slot] = key;
+            }
+        }
+    }
+
+    /**
+     * @param key  to place.
+     * @param mask of the slots.
+     * @return the home slot of the key (the bits are mixed: ids can share low bits).
+     */
+    private static int slot(final long key, final int mask) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * @param expected number of keys.
+     * @return the power of two number of slots to hold the keys under the max load.
+     */
+    private static int capacityFor(final int expected) {
+        final long required = Math.max(4L, (long) expected * 4 / MAX_LOAD + 1);
+        if (required > 1 << 30) {
+            throw new IllegalArgumentException("Too many keys: " + expected);
+        }
+        int capacity = 4;
+        while (capacity < required) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
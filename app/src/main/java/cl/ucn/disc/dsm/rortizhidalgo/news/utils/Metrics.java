@@ -0,0 +1,584 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import com.google.gson.stream.JsonWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * The metrics of the pipeline (fetch, decode, map, merge, store, bind): timers with the
+ * histograms of the latency (and the bytes allocated, if the runtime tells), counters and
+ * gauges, by name. Disabled by default: then a timer gives a shared no-op span and a counter
+ * returns at once (one volatile read).
+ *
+ * Each span of a timer is also kept (the last {@link #TRACE_CAPACITY} ones) to be written as a
+ * Chrome trace (chrome://tracing, Perfetto), next to the json snapshot of the metrics.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class Metrics {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(Metrics.class);
+
+    /**
+     * The max number of spans kept for the trace.
+     */
+    public static final int TRACE_CAPACITY = 10_000;
+
+    /**
+     * The timers, by name.
+     */
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+
+    /**
+     * The counters, by name.
+     */
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+
+    /**
+     * The gauges, by name.
+     */
+    private static final Map<String, DoubleSupplier> GAUGES = new ConcurrentHashMap<>();
+
+    /**
+     * The reports, by name.
+     */
+    private static final Map<String, Report> REPORTS = new ConcurrentHashMap<>();
+
+    /**
+     * The origin of the times of the trace.
+     */
+    private static final long ORIGIN = System.nanoTime();
+
+    /**
+     * The spans of the trace (a ring).
+     */
+    private static final Trace TRACE = new Trace(TRACE_CAPACITY);
+
+    /**
+     * True if enabled.
+     */
+    private static volatile boolean enabled;
+
+    /**
+     * The bytes allocated by the current thread so far (null if unknown).
+     */
+    private static volatile LongSupplier allocation = jvmAllocation();
+
+    /**
+     * Utility class.
+     */
+    private Metrics() {
+        // Nothing here
+    }
+
+    /**
+     * @param theEnabled true to record.
+     */
+    public static void setEnabled(final boolean theEnabled) {
+        enabled = theEnabled;
+    }
+
+    /**
+     * @return true if recording.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param theAllocation the bytes allocated by the current thread so far, null for none.
+     */
+    public static void setAllocation(final LongSupplier theAllocation) {
+        allocation = theAllocation;
+    }
+
+    /**
+     * @param name of the timer.
+     * @return the timer (created once).
+     */
+    public static Timer timer(final String name) {
+        Validation.notNull(name, "name");
+        return TIMERS.computeIfAbsent(name, Timer::new);
+    }
+
+    /**
+     * @param name of the counter.
+     * @return the counter (created once).
+     */
+    public static Counter counter(final String name) {
+        Validation.notNull(name, "name");
+        return COUNTERS.computeIfAbsent(name, n -> new Counter());
+    }
+
+    /**
+     * @param name  of the gauge.
+     * @param gauge the value, read on each snapshot (replaces the gauge with the same name).
+     */
+    public static void gauge(final String name, final DoubleSupplier gauge) {
+        Validation.notNull(name, "name");
+        Validation.notNull(gauge, "gauge");
+        GAUGES.put(name, gauge);
+    }
+
+    /**
+     * @param name   of the report.
+     * @param report written on each snapshot (replaces the report with the same name).
+     */
+    public static void report(final String name, final Report report) {
+        Validation.notNull(name, "name");
+        Validation.notNull(report, "report");
+        REPORTS.put(name, report);
+    }
+
+    /**
+     * Write the snapshot: {"timers": {name: {count, latency and allocated histograms}},
+     * "counters": {name: value}, "gauges": {name: value}, "reports": {name: report}}.
+     *
+     * @param writer where to write (not closed).
+     * @throws IOException in case of error.
+     */
+    public static void writeJson(final Writer writer) throws IOException {
+        Validation.notNull(writer, "writer");
+        final JsonWriter json = new JsonWriter(writer);
+        json.setIndent("  ");
+        json.beginObject();
+
+        json.name("timers").beginObject();
+        for (Map.Entry<String, Timer> entry : new TreeMap<>(TIMERS).entrySet()) {
+            json.name(entry.getKey()).beginObject();
+            json.name("count").value(entry.getValue().latency.getCount());
+            writeHistogram(json.name("nanos"), entry.getValue().latency);
+            if (entry.getValue().allocated.getCount() > 0) {
+                writeHistogram(json.name("bytes"), entry.getValue().allocated);
+            }
+            json.endObject();
+        }
+        json.endObject();
+
+        json.name("counters").beginObject();
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(COUNTERS).entrySet()) {
+            json.name(entry.getKey()).value(entry.getValue().get());
+        }
+        json.endObject();
+
+        json.name("gauges").beginObject();
+        for (Map.Entry<String, DoubleSupplier> entry : new TreeMap<>(GAUGES).entrySet()) {
+            final double value = entry.getValue().getAsDouble();
+            json.name(entry.getKey());
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                json.nullValue();
+            } else {
+                json.value(value);
+            }
+        }
+        json.endObject();
+
+        json.name("reports").beginObject();
+        for (Map.Entry<String, Report> entry : new TreeMap<>(REPORTS).entrySet()) {
+            entry.getValue().write(json.name(entry.getKey()));
+        }
+        json.endObject();
+
+        json.endObject();
+        json.flush();
+    }
+
+    /**
+     * Write the spans kept as a Chrome trace: complete events ("ph": "X") in micros, one row
+     * per thread.
+     *
+     * @param writer where to write (not closed).
+     * @throws IOException in case of error.
+     */
+    public static void writeTrace(final Writer writer) throws IOException {
+        Validation.notNull(writer, "writer");
+        TRACE.write(new JsonWriter(writer));
+    }
+
+    /**
+     * Write metrics.json and trace.json into the directory.
+     *
+     * @param directory where to write (created if needed).
+     */
+    public static void export(final File directory) {
+        Validation.notNull(directory, "directory");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new RuntimeException(new IOException("Can't create " + directory));
+        }
+        try (Writer metrics = new OutputStreamWriter(new FileOutputStream(
+                new File(directory, "metrics.json")), StandardCharsets.UTF_8);
+             Writer trace = new OutputStreamWriter(new FileOutputStream(
+                     new File(directory, "trace.json")), StandardCharsets.UTF_8)) {
+            writeJson(metrics);
+            writeTrace(trace);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        log.debug("Metrics written to {}.", directory);
+    }
+
+    /**
+     * @param json      where to write.
+     * @param histogram to write.
+     * @throws IOException in case of error.
+     */
+    private static void writeHistogram(final JsonWriter json, final Histogram histogram)
+            throws IOException {
+        json.beginObject();
+        json.name("min").value(histogram.getMin());
+        json.name("mean").value(Math.round(histogram.getMean()));
+        json.name("p50").value(histogram.getValueAtPercentile(50));
+        json.name("p90").value(histogram.getValueAtPercentile(90));
+        json.name("p99").value(histogram.getValueAtPercentile(99));
+        json.name("max").value(histogram.getMax());
+        json.name("sum").value(histogram.getSum());
+        json.endObject();
+    }
+
+    /**
+     * The allocation counter of the JVM (com.sun.management.ThreadMXBean), found by reflection:
+     * there is no java.lang.management in Android.
+     *
+     * @return the bytes allocated by the current thread, null if unknown.
+     */
+    private static LongSupplier jvmAllocation() {
+        try {
+            final Object bean = Class.forName("java.lang.management.ManagementFactory")
+                    .getMethod("getThreadMXBean").invoke(null);
+            final Method method = Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getThreadAllocatedBytes", long.class);
+            method.invoke(bean, Thread.currentThread().getId());
+            return () -> {
+                try {
+                    return (Long) method.invoke(bean, Thread.currentThread().getId());
+                } catch (ReflectiveOperationException ex) {
+                    return -1;
+                }
+            };
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError ex) {
+            return null;
+        }
+    }
+
+    /**
+     * A report with more than one value (ex: counts by key, samples).
+     */
+    public interface Report {
+
+        /**
+         * @param json where to write one value (ex: an object).
+         * @throws IOException in case of error.
+         */
+        void write(JsonWriter json) throws IOException;
+    }
+
+    /**
+     * A timer: the latency (and bytes allocated) of each span.
+     */
+    public static final class Timer {
+
+        /**
+         * The name.
+         */
+        private final String name;
+
+        /**
+         * The latency of the spans (nanos).
+         */
+        private final Histogram latency = new Histogram();
+
+        /**
+         * The bytes allocated by the spans (closed in the same thread).
+         */
+        private final Histogram allocated = new Histogram();
+
+        /**
+         * The Constructor.
+         *
+         * @param theName of the timer.
+         */
+        private Timer(final String theName) {
+            this.name = theName;
+        }
+
+        /**
+         * Start a span, to close when the stage ends (try with resources).
+         *
+         * @return the span, a shared no-op if disabled.
+         */
+        public Span start() {
+            if (!enabled) {
+                return Span.NOOP;
+            }
+            final LongSupplier theAllocation = allocation;
+            return new Span(this, System.nanoTime(),
+                    theAllocation == null ? -1 : theAllocation.getAsLong(), theAllocation);
+        }
+
+        /**
+         * @return the name.
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * @return the latency of the spans (nanos).
+         */
+        public Histogram getLatency() {
+            return this.latency;
+        }
+
+        /**
+         * @return the bytes allocated by the spans (empty if unknown).
+         */
+        public Histogram getAllocated() {
+            return this.allocated;
+        }
+    }
+
+    /**
+     * One measure of a timer.
+     */
+    public static final class Span implements AutoCloseable {
+
+        /**
+         * The span of the disabled metrics.
+         */
+        private static final Span NOOP = new Span(null, 0, -1, null);
+
+        /**
+         * The timer (null: no-op).
+         */
+        private final Timer timer;
+
+        /**
+         * When started (nanos).
+         */
+        private final long start;
+
+        /**
+         * The bytes allocated by the thread when started (-1 if unknown).
+         */
+        private final long allocatedStart;
+
+        /**
+         * The allocation counter used.
+         */
+        private final LongSupplier allocation;
+
+        /**
+         * The thread that started the span.
+         */
+        private final Thread thread;
+
+        /**
+         * The Constructor.
+         *
+         * @param theTimer          of the span.
+         * @param theStart          nanos.
+         * @param theAllocatedStart bytes.
+         * @param theAllocation     counter.
+         */
+        private Span(final Timer theTimer, final long theStart, final long theAllocatedStart,
+                     final LongSupplier theAllocation) {
+            this.timer = theTimer;
+            this.start = theStart;
+            this.allocatedStart = theAllocatedStart;
+            this.allocation = theAllocation;
+            this.thread = theTimer == null ? null : Thread.currentThread();
+        }
+
+        /**
+         * End the span (once).
+         */
+        @Override
+        public void close() {
+            if (this.timer == null) {
+                return;
+            }
+            final long end = System.nanoTime();
+            this.timer.latency.record(end - this.start);
+            // The allocation only if ended in the same thread
+            if (this.allocatedStart >= 0 && this.thread == Thread.currentThread()) {
+                final long allocatedEnd = this.allocation.getAsLong();
+                if (allocatedEnd >= this.allocatedStart) {
+                    this.timer.allocated.record(allocatedEnd - this.allocatedStart);
+                }
+            }
+            TRACE.add(this.timer.name, this.thread.getId(), this.thread.getName(),
+                    this.start - ORIGIN, end - this.start);
+        }
+    }
+
+    /**
+     * A counter.
+     */
+    public static final class Counter {
+
+        /**
+         * The value.
+         */
+        private final LongAdder value = new LongAdder();
+
+        /**
+         * Add one (if enabled).
+         */
+        public void increment() {
+            if (enabled) {
+                this.value.increment();
+            }
+        }
+
+        /**
+         * @param delta to add (if enabled).
+         */
+        public void add(final long delta) {
+            if (enabled) {
+                this.value.add(delta);
+            }
+        }
+
+        /**
+         * @return the value.
+         */
+        public long get() {
+            return this.value.sum();
+        }
+    }
+
+    /**
+     * The last spans, for the trace.
+     */
+    private static final class Trace {
+
+        /**
+         * The names of the timers of the spans.
+         */
+        private final String[] names;
+
+        /**
+         * The ids of the threads of the spans (not the threads: they may be gone).
+         */
+        private final long[] threadIds;
+
+        /**
+         * The names of the threads of the spans.
+         */
+        private final String[] threadNames;
+
+        /**
+         * The starts of the spans since the origin (nanos).
+         */
+        private final long[] starts;
+
+        /**
+         * The durations of the spans (nanos).
+         */
+        private final long[] durations;
+
+        /**
+         * The number of spans added.
+         */
+        private long added;
+
+        /**
+         * The Constructor.
+         *
+         * @param capacity max number of spans.
+         */
+        private Trace(final int capacity) {
+            this.names = new String[capacity];
+            this.threadIds = new long[capacity];
+            this.threadNames = new String[capacity];
+            this.starts = new long[capacity];
+            this.durations = new long[capacity];
+        }
+
+        /**
+         * @param name       of the timer.
+         * @param threadId   of the span.
+         * @param threadName of the span.
+         * @param start      since the origin (nanos).
+         * @param duration   nanos.
+         */
+        private synchronized void add(final String name, final long threadId,
+                                      final String threadName, final long start,
+                                      final long duration) {
+            final int i = (int) (this.added++ % this.names.length);
+            this.names[i] = name;
+            this.threadIds[i] = threadId;
+            this.threadNames[i] = threadName;
+            this.starts[i] = start;
+            this.durations[i] = duration;
+        }
+
+        /**
+         * @param json where to write.
+         * @throws IOException in case of error.
+         */
+        private synchronized void write(final JsonWriter json) throws IOException {
+            final int size = (int) Math.min(this.added, this.names.length);
+            final long first = this.added - size;
+            final Map<Long, String> threads = new TreeMap<>();
+
+            json.beginObject();
+            json.name("traceEvents").beginArray();
+            for (int k = 0; k < size; k++) {
+                final int i = (int) ((first + k) % this.names.length);
+                threads.put(this.threadIds[i], this.threadNames[i]);
+                json.beginObject();
+                json.name("name").value(this.names[i]);
+                json.name("cat").value("news");
+                json.name("ph").value("X");
+                json.name("ts").value(this.starts[i] / 1000.0);
+                json.name("dur").value(this.durations[i] / 1000.0);
+                json.name("pid").value(1);
+                json.name("tid").value(this.threadIds[i]);
+                json.endObject();
+            }
+            for (Map.Entry<Long, String> thread : threads.entrySet()) {
+                json.beginObject();
+                json.name("name").value("thread_name");
+                json.name("ph").value("M");
+                json.name("pid").value(1);
+                json.name("tid").value(thread.getKey());
+                json.name("args").beginObject().name("name").value(thread.getValue())
+                        .endObject();
+                json.endObject();
+            }
+            json.endArray();
+            json.name("displayTimeUnit").value("ms");
+            json.endObject();
+            json.flush();
+        }
+    }
+}
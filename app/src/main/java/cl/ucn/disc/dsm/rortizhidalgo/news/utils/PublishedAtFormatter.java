@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import org.threeten.bp.LocalDate;
+import org.threeten.bp.ZonedDateTime;
+import org.threeten.bp.format.DateTimeFormatter;
+
+import java.util.Locale;
+
+/**
+ * The formatter of the publishedAt shown in the list: {@link #PATTERN}. The month names are
+ * built once (by {@link DateTimeFormatter}, so the text is the same) and the numbers are
+ * appended with plain arithmetic; the years out of 1 - 9999 go to the {@link DateTimeFormatter}.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class PublishedAtFormatter {
+
+    /**
+     * The pattern.
+     */
+    public static final String PATTERN = "HH:mm d.LLL.yyyy";
+
+    /**
+     * The formatter of the pattern.
+     */
+    private final DateTimeFormatter formatter;
+
+    /**
+     * The short (standalone) name of each month, 1 to 12.
+     */
+    private final String[] months = new String[13];
+
+    /**
+     * The Constructor.
+     *
+     * @param theLocale of the month names.
+     */
+    public PublishedAtFormatter(final Locale theLocale) {
+        Validation.notNull(theLocale, "locale");
+        this.formatter = DateTimeFormatter.ofPattern(PATTERN, theLocale);
+        final DateTimeFormatter month = DateTimeFormatter.ofPattern("LLL", theLocale);
+        for (int m = 1; m <= 12; m++) {
+            this.months[m] = month.format(LocalDate.of(2000, m, 1));
+        }
+    }
+
+    /**
+     * @param date to format.
+     * @return the date in the {@link #PATTERN}.
+     */
+    public String format(final ZonedDateTime date) {
+        Validation.notNull(date, "date");
+        final int year = date.getYear();
+        if (year < 1 || year > 9999) {
+            return this.formatter.format(date);
+        }
+        final String month = this.months[date.getMonthValue()];
+        final StringBuilder sb = new StringBuilder(13 + month.length());
+        appendTwoDigits(sb, date.getHour());
+        sb.append(':');
+        appendTwoDigits(sb, date.getMinute());
+        sb.append(' ').append(date.getDayOfMonth()).append('.').append(month).append('.');
+        appendTwoDigits(sb, year / 100);
+        appendTwoDigits(sb, year % 100);
+        return sb.toString();
+    }
+
+    /**
+     * @param sb    to append.
+     * @param value 0 - 99.
+     */
+    private static void appendTwoDigits(final StringBuilder sb, final int value) {
+        sb.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of strings: equal strings (the names of sources and authors) are replaced by
+ * one instance, so the heap held by many News grows with the distinct names and not with the
+ * number of News. Unlike {@link String#intern()} the pool is bounded and measured. Thread safe.
+ *
+ * The strings are kept in two generations of up to maxSize / 2 strings: the new ones go to
+ * the young one, and the ones found in the old one are moved to the young one. When the young
+ * one is full it becomes the old one, and only the strings not used since the last time (the
+ * old ones) are dropped.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class StringPool {
+
+    /**
+     * The pool of the names of sources and authors.
+     */
+    public static final StringPool NAMES = new StringPool(4096);
+
+    /**
+     * The max number of strings of each generation.
+     */
+    private final int generationSize;
+
+    /**
+     * The strings added or used since the last rotation.
+     */
+    private volatile ConcurrentHashMap<String, String> young;
+
+    /**
+     * The strings of the previous generation, not used since.
+     */
+    private volatile ConcurrentHashMap<String, String> old;
+
+    /**
+     * The number of calls to intern.
+     */
+    private final AtomicLong requests = new AtomicLong();
+
+    /**
+     * The number of calls that returned a pooled string.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * The number of rotations (the young generation full).
+     */
+    private final AtomicLong clears = new AtomicLong();
+
+    /**
+     * The Constructor.
+     *
+     * @param theMaxSize max number of strings.
+     */
+    public StringPool(final int theMaxSize) {
+        if (theMaxSize < 2) {
+            throw new IllegalArgumentException("Error: maxSize need to be >1");
+        }
+        this.generationSize = theMaxSize / 2;
+        this.young = this.newGeneration();
+        this.old = this.newGeneration();
+    }
+
+    /**
+     * @param value to intern.
+     * @return the instance of the pool equal to the value (or the value, if new).
+     */
+    public String intern(final String value) {
+        if (value == null) {
+            return null;
+        }
+        this.requests.incrementAndGet();
+
+        final String pooled = this.young.get(value);
+        if (pooled != null) {
+            this.hits.incrementAndGet();
+            return pooled;
+        }
+
+        // Used again: moved to the young generation
+        final String used = this.old.remove(value);
+        if (used != null) {
+            this.hits.incrementAndGet();
+            return this.add(used);
+        }
+
+        final String previous = this.add(value);
+        if (previous != value) {
+            this.hits.incrementAndGet();
+        }
+        return previous;
+    }
+
+    /**
+     * Add the value to the young generation, rotating the generations if full.
+     *
+     * @param value to add.
+     * @return the instance of the pool equal to the value.
+     */
+    private String add(final String value) {
+        if (this.young.size() >= this.generationSize) {
+            synchronized (this) {
+                if (this.young.size() >= this.generationSize) {
+                    this.old = this.young;
+                    this.young = this.newGeneration();
+                    this.clears.incrementAndGet();
+                }
+            }
+        }
+        final String previous = this.young.putIfAbsent(value, value);
+        return previous != null ? previous : value;
+    }
+
+    /**
+     * @return a new (empty) generation.
+     */
+    private ConcurrentHashMap<String, String> newGeneration() {
+        return new ConcurrentHashMap<>(Math.min(this.generationSize, 256));
+    }
+
+    /**
+     * @return the number of strings in the pool.
+     */
+    public int size() {
+        return this.young.size() + this.old.size();
+    }
+
+    /**
+     * @return the number of calls to intern.
+     */
+    public long getRequests() {
+        return this.requests.get();
+    }
+
+    /**
+     * @return the number of calls that returned a pooled string.
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * @return the number of times the young generation was full (the old one dropped).
+     */
+    public long getClears() {
+        return this.clears.get();
+    }
+
+    /**
+     * @return the fraction of calls that returned a pooled string (0 without calls).
+     */
+    public double getDedupRatio() {
+        final long theRequests = this.requests.get();
+        return theRequests == 0 ? 0 : (double) this.hits.get() / theRequests;
+    }
+
+    /**
+     * Remove all the strings (the counters are kept).
+     */
+    public synchronized void clear() {
+        this.young = this.newGeneration();
+        this.old = this.newGeneration();
+    }
+}
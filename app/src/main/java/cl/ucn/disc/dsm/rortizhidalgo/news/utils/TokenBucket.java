@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import org.threeten.bp.Clock;
+
+/**
+ * The token bucket of a rate limit: up to capacity tokens, refilled at a constant rate. Each
+ * request takes one token; without tokens the caller is told how long to wait. The bucket can
+ * be paused (ex: after a 429 with Retry-After) so no token is given until then.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public final class TokenBucket {
+
+    /**
+     * The max number of tokens.
+     */
+    private final double capacity;
+
+    /**
+     * The tokens added per millisecond.
+     */
+    private final double tokensPerMilli;
+
+    /**
+     * The clock.
+     */
+    private final Clock clock;
+
+    /**
+     * The tokens available.
+     */
+    private double tokens;
+
+    /**
+     * When the tokens were refilled (millis).
+     */
+    private long refilledAt;
+
+    /**
+     * No tokens before this time (millis).
+     */
+    private long pausedUntil;
+
+    /**
+     * The Constructor: the bucket starts full.
+     *
+     * @param theCapacity        max number of tokens (the burst).
+     * @param theTokensPerSecond refill rate.
+     * @param theClock           to use.
+     */
+    public TokenBucket(final int theCapacity, final double theTokensPerSecond,
+                       final Clock theClock) {
+        Validation.notNull(theClock, "clock");
+        if (theCapacity < 1 || !(theTokensPerSecond > 0)) {
+            throw new IllegalArgumentException("Error: capacity and rate need to be >0");
+        }
+        this.capacity = theCapacity;
+        this.tokensPerMilli = theTokensPerSecond / 1000;
+        this.clock = theClock;
+        this.tokens = theCapacity;
+        this.refilledAt = theClock.millis();
+    }
+
+    /**
+     * Take one token, if available.
+     *
+     * @return 0 if taken, else the millis to wait for the next one.
+     */
+    public synchronized long tryAcquire() {
+        final long now = this.clock.millis();
+        if (now < this.pausedUntil) {
+            return this.pausedUntil - now;
+        }
+        this.refill(now);
+        if (this.tokens >= 1) {
+            this.tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - this.tokens) / this.tokensPerMilli));
+    }
+
+    /**
+     * Give no tokens until the time, and start empty then.
+     *
+     * @param untilMillis epoch millis.
+     */
+    public synchronized void pauseUntil(final long untilMillis) {
+        if (untilMillis > this.pausedUntil) {
+            this.pausedUntil = untilMillis;
+            this.tokens = 0;
+            this.refilledAt = untilMillis;
+        }
+    }
+
+    /**
+     * @return the tokens available now.
+     */
+    public synchronized double getTokens() {
+        final long now = this.clock.millis();
+        if (now < this.pausedUntil) {
+            return 0;
+        }
+        this.refill(now);
+        return this.tokens;
+    }
+
+    /**
+     * @param now epoch millis.
+     */
+    private void refill(final long now) {
+        if (now > this.refilledAt) {
+            this.tokens = Math.min(this.capacity,
+                    this.tokens + (now - this.refilledAt) * this.tokensPerMilli);
+            this.refilledAt = now;
+        }
+    }
+}
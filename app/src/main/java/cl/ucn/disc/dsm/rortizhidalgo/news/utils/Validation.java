@@ -43,4 +43,38 @@ public class Validation {
             throw new IllegalArgumentException("Argument null or wrong size ->" + message);
         }
     }
+
+    /**
+     * Parse a number (ex: a page token).
+     *
+     * @param value   to parse.
+     * @param min     value allowed.
+     * @param message to throw in case of error.
+     * @return the number.
+     */
+    public static int toInt(String value, int min, String message) {
+        final long number = toLong(value, message);
+        if (number < min || number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Error: " + message + " need to be >=" + min
+                    + " -> " + value);
+        }
+        return (int) number;
+    }
+
+    /**
+     * Parse a number (ex: a page token).
+     *
+     * @param value   to parse.
+     * @param message to throw in case of error.
+     * @return the number.
+     */
+    public static long toLong(String value, String message) {
+        notNull(value, message);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Error: " + message + " isn't a number -> "
+                    + value, ex);
+        }
+    }
 }
\ No newline at end of file
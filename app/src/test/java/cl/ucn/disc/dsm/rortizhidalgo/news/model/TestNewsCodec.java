@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.model;
+
+import com.google.gson.Gson;
+import com.kwabenaberko.newsapilib.models.Article;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Testing of NewsCodec.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestNewsCodec {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestNewsCodec.class);
+
+    /**
+     * One article as sent by NewsAPI.
+     */
+    private static final String ARTICLE = "{"
+            + "\"source\":{\"id\":\"the-verge\",\"name\":\"The Verge\"},"
+            + "\"author\":\"Nilay Patel\","
+            + "\"title\":\"Apple’s M1 Macs are here — and they’re fast\","
+            + "\"description\":\"The first Apple Silicon Macs are the MacBook Air, the 13-inch "
+            + "MacBook Pro and the Mac Mini. Señal: 😀\","
+            + "\"url\":\"https://www.theverge.com/2020/11/17/apple-m1-review\","
+            + "\"urlToImage\":\"https://cdn.vox-cdn.com/thumbor/m1.jpg\","
+            + "\"publishedAt\":\"2020-11-17T14:00:00Z\"}";
+
+    /**
+     * @param article to convert.
+     * @return the News.
+     */
+    private static News toNews(final Article article) {
+        return new News(article.getTitle(),
+                article.getSource().getName(),
+                article.getAuthor(),
+                article.getUrl(),
+                article.getUrlToImage(),
+                article.getDescription(),
+                article.getDescription(),
+                ZonedDateTime.parse(article.getPublishedAt()).withZoneSameInstant(ZoneId.of("-3")));
+    }
+
+    /**
+     * @param expected news.
+     * @param actual   news.
+     */
+    private static void assertSame(final News expected, final News actual) {
+        Assertions.assertEquals(expected.getId(), actual.getId(), "Wrong id!");
+        Assertions.assertEquals(expected.getTitle(), actual.getTitle());
+        Assertions.assertEquals(expected.getSource(), actual.getSource());
+        Assertions.assertEquals(expected.getAuthor(), actual.getAuthor());
+        Assertions.assertEquals(expected.getUrl(), actual.getUrl());
+        Assertions.assertEquals(expected.getUrlImage(), actual.getUrlImage());
+        Assertions.assertEquals(expected.getDescription(), actual.getDescription());
+        Assertions.assertEquals(expected.getContent(), actual.getContent());
+        Assertions.assertEquals(expected.getPublishedAt(), actual.getPublishedAt());
+    }
+
+    /**
+     * The Test of the round trip over heap and direct buffers.
+     */
+    @Test
+    public void testRoundTrip() {
+
+        log.debug("Testing..");
+
+        final News news = toNews(new Gson().fromJson(ARTICLE, Article.class));
+
+        // Heap
+        final byte[] bytes = NewsCodec.encode(news);
+        Assertions.assertEquals(NewsCodec.sizeOf(news), bytes.length, "Wrong size!");
+        assertSame(news, NewsCodec.decode(bytes));
+
+        // Direct, at some offset, with nulls
+        final News nulls = new News("The Title", "The Source", "The Author", null, null,
+                "The Description", "The Content", ZonedDateTime.now(ZoneId.of("-3")));
+        final ByteBuffer direct = ByteBuffer.allocateDirect(1024);
+        direct.position(7);
+        NewsCodec.write(news, direct);
+        final int second = direct.position();
+        NewsCodec.write(nulls, direct);
+
+        assertSame(news, NewsCodec.read(direct, 7));
+        assertSame(nulls, NewsCodec.read(direct, second));
+        Assertions.assertEquals(nulls.getId(), NewsCodec.readId(direct, second));
+        Assertions.assertEquals(nulls.getPublishedAt().toInstant().toEpochMilli(),
+                NewsCodec.readPublishedAt(direct, second));
+        Assertions.assertEquals(news.getTitle(), NewsCodec.readTitle(direct, 7));
+        Assertions.assertEquals(news.getDescription(), NewsCodec.readDescription(direct, 7));
+        Assertions.assertEquals(nulls.getDescription(), NewsCodec.readDescription(direct, second));
+
+        // Unknown version
+        bytes[0] = 42;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> NewsCodec.decode(bytes));
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the lazy read: same News, the text decoded once.
+     */
+    @Test
+    public void testLazy() {
+
+        log.debug("Testing..");
+
+        final News news = toNews(new Gson().fromJson(ARTICLE, Article.class));
+        final News other = new News("The Title", "The Source", "The Author", null, null,
+                "The Description", "The Content", ZonedDateTime.now(ZoneId.of("-3")));
+
+        // Two records in a direct buffer
+        final ByteBuffer direct = ByteBuffer.allocateDirect(1024);
+        NewsCodec.write(news, direct);
+        final int second = direct.position();
+        NewsCodec.write(other, direct);
+
+        final News lazy = NewsCodec.readLazy(direct, 0);
+        final News lazyOther = NewsCodec.readLazy(direct, second);
+        assertSame(news, lazy);
+        assertSame(other, lazyOther);
+
+        // The names are pooled
+        Assertions.assertSame(NewsCodec.readLazy(direct, 0).getSource(), lazy.getSource());
+        Assertions.assertSame(NewsCodec.read(direct, 0).getAuthor(), lazy.getAuthor());
+
+        // Decoded once, the content is the description
+        Assertions.assertSame(lazy.getDescription(), lazy.getDescription());
+        Assertions.assertSame(lazy.getDescription(), lazy.getContent());
+
+        // Encoded again (the store copies News from other stores)
+        assertSame(other, NewsCodec.decode(NewsCodec.encode(NewsCodec.readLazy(
+                ByteBuffer.wrap(NewsCodec.encode(other)), 0))));
+
+        log.debug("Done.");
+    }
+
+    /**
+     * @param news to encode.
+     * @return the lazy text of the encoded news (its description and content, at the end).
+     */
+    private static LazyText lazyText(final News news) {
+        final byte[] bytes = NewsCodec.encode(news);
+        final int size = 2 * Integer.BYTES
+                + news.getDescription().getBytes(StandardCharsets.UTF_8).length
+                + (news.getContent().equals(news.getDescription()) ? 0
+                : news.getContent().getBytes(StandardCharsets.UTF_8).length);
+        return new LazyText(ByteBuffer.wrap(bytes, bytes.length - size, size).slice());
+    }
+
+    /**
+     * The Test of the lazy text: the description doesn't decode the content.
+     */
+    @Test
+    public void testLazyText() {
+
+        log.debug("Testing..");
+
+        final ZonedDateTime now = ZonedDateTime.now(ZoneId.of("-3"));
+        final LazyText text = lazyText(new News("The Title", "The Source", "The Author", null,
+                null, "The Description", "The Content of the article", now));
+        Assertions.assertEquals("The Description", text.getDescription());
+        Assertions.assertSame(text.getDescription(), text.getDescription());
+        Assertions.assertFalse(text.isContentDecoded(), "Content decoded with the description!");
+
+        final String content = text.getContent();
+        Assertions.assertEquals("The Content of the article", content);
+        Assertions.assertTrue(text.isContentDecoded(), "Content not kept!");
+        Assertions.assertSame(content, text.getContent());
+
+        // The content is the description: nothing else decoded
+        final LazyText same = lazyText(new News("The Title", "The Source", "The Author", null,
+                null, "The Description", "The Description", now));
+        Assertions.assertSame(same.getContent(), same.getDescription());
+        Assertions.assertFalse(same.isContentDecoded());
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The size against the Gson encoding of the Article.
+     */
+    @Test
+    public void testAgainstGson() {
+
+        final Gson gson = new Gson();
+        final Article article = gson.fromJson(ARTICLE, Article.class);
+        final News news = toNews(article);
+
+        final int jsonSize = gson.toJson(article).getBytes(StandardCharsets.UTF_8).length;
+        final int codecSize = NewsCodec.sizeOf(news);
+        log.info("Size: json {} bytes, codec {} bytes.", jsonSize, codecSize);
+        Assertions.assertTrue(codecSize < jsonSize, "The codec is bigger than json!");
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.model;
+
+import net.openhft.hashing.LongHashFunction;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Testing of NewsId.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestNewsId {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestNewsId.class);
+
+    /**
+     * @param fields title, source and author.
+     * @return the id as computed before NewsId.
+     */
+    private static long concat(final String[] fields) {
+        return LongHashFunction.xx().hashChars(fields[0] + "|" + fields[1] + "|" + fields[2]);
+    }
+
+    /**
+     * The Test of the ids against the hash of the concatenation.
+     */
+    @Test
+    public void testSameAsConcat() {
+
+        log.debug("Testing..");
+
+        final char[] big = new char[1000];
+        Arrays.fill(big, 'x');
+
+        final List<String[]> fields = new ArrayList<>();
+        fields.add(new String[]{"The Title", "The Source", "The Author"});
+        fields.add(new String[]{"Apple’s M1 — fast", "The Verge", "Señal 😀"});
+        fields.add(new String[]{"The Title", null, null});
+        fields.add(new String[]{"", "", ""});
+        fields.add(new String[]{new String(big), "The Source", new String(big)});
+        fields.add(new String[]{"Short", "Again", "After the big one"});
+
+        for (String[] f : fields) {
+            Assertions.assertEquals(concat(f), NewsId.of(f[0], f[1], f[2]), "Wrong id!");
+        }
+
+        // The same as News
+        final News news = new News("The Title", "The Source", "The Author", null, null,
+                "The Description", "The Content", ZonedDateTime.now(ZoneId.of("-3")));
+        Assertions.assertEquals(concat(fields.get(0)), news.getId(), "Wrong News id!");
+
+        // Batch
+        final long[] ids = NewsId.of(fields, f -> f[0], f -> f[1], f -> f[2]);
+        Assertions.assertEquals(fields.size(), ids.length, "Wrong size!");
+        for (int i = 0; i < ids.length; i++) {
+            Assertions.assertEquals(concat(fields.get(i)), ids[i], "Wrong batch id!");
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> NewsId.of(null, f -> "", f -> "", f -> ""));
+
+        log.debug("Done.");
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Testing of NewsIndex.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestNewsIndex {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestNewsIndex.class);
+
+    /**
+     * The base date.
+     */
+    private static final ZonedDateTime START = ZonedDateTime.of(2020, 11, 1, 0, 0, 0, 0,
+            ZoneId.of("-3"));
+
+    /**
+     * Some words of the titles.
+     */
+    private static final String[] WORDS = {"apple", "android", "science", "space", "mars",
+            "climate", "economy", "election", "football", "music", "vaccine", "virus",
+            "market", "bitcoin", "chile", "santiago", "tesla", "google", "review", "launch"};
+
+    /**
+     * @param i           number of the news.
+     * @param title       of the news.
+     * @param description of the news.
+     * @return a News published i seconds after the start.
+     */
+    private static News news(final int i, final String title, final String description) {
+        return new News(title, "The Source " + i, "The Author", null, null, description,
+                "The Content", START.plusSeconds(i));
+    }
+
+    /**
+     * The Test of the tokenizer.
+     */
+    @Test
+    public void testTokenize() {
+
+        log.debug("Testing..");
+
+        Assertions.assertEquals(Arrays.asList("apple", "m1", "macs", "are", "here", "senal",
+                        "cafe"),
+                NewsIndex.tokenize("Apple’s M1 Macs are here — SEÑAL: café!"));
+        Assertions.assertTrue(NewsIndex.tokenize(null).isEmpty());
+        Assertions.assertTrue(NewsIndex.tokenize(" a - ! ").isEmpty());
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the search and the autocomplete.
+     */
+    @Test
+    public void testSearch() {
+
+        log.debug("Testing..");
+
+        final NewsIndex index = new NewsIndex();
+        final News macs = news(1, "Apple’s M1 Macs are here", "The first Apple Silicon Macs");
+        final News iphone = news(3, "The iPhone 12 review", "Apple did it again");
+        final News mars = news(2, "Perseverance lands on Mars", "The NASA rover is on Mars");
+        final News vaccine = news(4, "Vacuna en Santiago", "Comienza la vacunación");
+
+        Assertions.assertTrue(index.add(macs));
+        Assertions.assertEquals(3, index.addAll(Arrays.asList(iphone, mars, vaccine, macs)));
+        Assertions.assertFalse(index.add(mars), "Indexed twice!");
+        Assertions.assertEquals(4, index.size());
+
+        // Newest first, case and accents folded
+        Assertions.assertArrayEquals(ids(iphone, macs), index.search("APPLE", 10));
+        Assertions.assertArrayEquals(ids(iphone), index.search("apple", 1));
+        Assertions.assertArrayEquals(ids(vaccine), index.search("vacunacion", 10));
+
+        // All the words, the last one as prefix
+        Assertions.assertArrayEquals(ids(macs), index.search("apple sil", 10));
+        Assertions.assertArrayEquals(ids(iphone, macs), index.search("ap", 10));
+        Assertions.assertArrayEquals(ids(vaccine), index.search("vacun", 10));
+        Assertions.assertEquals(0, index.search("apple mars", 10).length);
+        Assertions.assertEquals(0, index.search("nothing", 10).length);
+        Assertions.assertEquals(0, index.search("", 10).length);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.search(null, 10));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.search("apple", 0));
+
+        // The most frequent first
+        Assertions.assertEquals(Arrays.asList("the", "then"), newIndexWith("the", "then",
+                "the").complete("TH", 10));
+        Assertions.assertEquals(Arrays.asList("vacuna", "vacunacion"),
+                index.complete("la vacu", 10));
+        Assertions.assertEquals(1, index.complete("ma", 1).size());
+        Assertions.assertTrue(index.complete("zz", 10).isEmpty());
+
+        log.debug("Done.");
+    }
+
+    /**
+     * @param news to identify.
+     * @return the ids of the news.
+     */
+    private static long[] ids(final News... news) {
+        final long[] ids = new long[news.length];
+        for (int i = 0; i < news.length; i++) {
+            ids[i] = news[i].getId();
+        }
+        return ids;
+    }
+
+    /**
+     * @param titles of the news.
+     * @return the index of the news with the titles.
+     */
+    private static NewsIndex newIndexWith(final String... titles) {
+        final NewsIndex index = new NewsIndex();
+        for (int i = 0; i < titles.length; i++) {
+            index.add(news(i, titles[i], "The Description"));
+        }
+        return index;
+    }
+
+    /**
+     * The Test of the search over 100k news against a linear scan.
+     */
+    @Test
+    public void testLarge() {
+
+        log.debug("Testing..");
+
+        final Random random = new Random(42);
+        final int size = 100_000;
+        final List<News> all = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            // Random dates: the arrival order isn't the recency order
+            all.add(news(random.nextInt(10 * size), WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + i, "Some words about "
+                    + WORDS[random.nextInt(WORDS.length)]));
+        }
+
+        final NewsIndex index = new NewsIndex();
+        index.addAll(all);
+
+        final String[] queries = {"apple", "apple mars", "space about", "tes", "chile sant"};
+        for (String query : queries) {
+            Assertions.assertArrayEquals(ids(scan(all, query, 20).toArray(new News[0])),
+                    index.search(query, 20), query);
+        }
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The search by brute force.
+     *
+     * @param news  to search.
+     * @param query to match.
+     * @param limit of the result.
+     * @return the matching news, newest first.
+     */
+    private static List<News> scan(final List<News> news, final String query, final int limit) {
+        final List<String> words = NewsIndex.tokenize(query);
+        final List<News> matches = new ArrayList<>();
+        for (int i = 0; i < news.size(); i++) {
+            final List<String> terms = NewsIndex.tokenize(news.get(i).getTitle() + " "
+                    + news.get(i).getDescription());
+            boolean match = true;
+            for (int w = 0; w < words.size() && match; w++) {
+                final String word = words.get(w);
+                match = w < words.size() - 1
+                        ? terms.contains(word)
+                        : terms.stream().anyMatch(term -> term.startsWith(word));
+            }
+            if (match) {
+                matches.add(news.get(i));
+            }
+        }
+        // Newest first, the last one indexed if same date
+        final List<News> sorted = new ArrayList<>(matches);
+        sorted.sort((n1, n2) -> {
+            final int cmp = n2.getPublishedAt().compareTo(n1.getPublishedAt());
+            return cmp != 0 ? cmp : Integer.compare(matches.indexOf(n2), matches.indexOf(n1));
+        });
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+}
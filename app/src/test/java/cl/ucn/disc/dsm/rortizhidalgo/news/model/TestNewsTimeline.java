@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Testing of NewsTimeline.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestNewsTimeline {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestNewsTimeline.class);
+
+    /**
+     * The base date.
+     */
+    private static final ZonedDateTime START = ZonedDateTime.of(2020, 11, 1, 0, 0, 0, 0,
+            ZoneId.of("-3"));
+
+    /**
+     * @param i number of the news.
+     * @return a News published i seconds after the start.
+     */
+    private static News news(final int i) {
+        return new News("The Title " + i, "The Source", "The Author", null, null,
+                "The Description", "The Content", START.plusSeconds(i));
+    }
+
+    /**
+     * The filter + sort pipeline used before the timeline.
+     *
+     * @param news to filter and sort.
+     * @return the list without duplicates, newest first.
+     */
+    private static List<News> pipeline(final List<News> news) {
+        final Set<Long> seen = new HashSet<>();
+        return news.stream().filter(n -> seen.add(n.getId()))
+                .sorted((k1, k2) -> k2.getPublishedAt().compareTo(k1.getPublishedAt()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The Test of order, duplicates and capacity.
+     */
+    @Test
+    public void testMerge() {
+
+        log.debug("Testing..");
+
+        final List<News> all = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            all.add(news(i));
+        }
+        final List<News> shuffled = new ArrayList<>(all);
+        Collections.shuffle(shuffled, new Random(42));
+
+        // Unbounded: same as the pipeline
+        final NewsTimeline timeline = new NewsTimeline(1000);
+        Assertions.assertEquals(200, timeline.addAll(shuffled));
+        Assertions.assertEquals(0, timeline.addAll(shuffled), "Duplicates added!");
+        Assertions.assertEquals(pipeline(shuffled), timeline.newest(1000));
+
+        // Bounded: only the newest ones
+        final NewsTimeline bounded = new NewsTimeline(10);
+        bounded.addAll(shuffled);
+        Assertions.assertEquals(10, bounded.size());
+        Assertions.assertEquals(pipeline(all).subList(0, 10), bounded.newest(100));
+        Assertions.assertFalse(bounded.add(news(0)), "Too old to be added!");
+        Assertions.assertTrue(bounded.add(news(500)), "New news not added!");
+        Assertions.assertEquals(news(500).getId(), bounded.newest(1).get(0).getId());
+        Assertions.assertFalse(bounded.contains(news(190).getId()), "Oldest not removed!");
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The refresh (30 news, half of them new) against the pipeline at 30, 1k and 100k news.
+     */
+    @Test
+    public void testRefresh() {
+        for (int size : new int[]{30, 1_000, 100_000}) {
+            final List<News> existing = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                existing.add(news(i));
+            }
+            final List<News> refresh = new ArrayList<>(30);
+            for (int i = size - 15; i < size + 15; i++) {
+                refresh.add(news(i));
+            }
+
+            final NewsTimeline timeline = new NewsTimeline(size + 15);
+            timeline.addAll(existing);
+
+            // The pipeline runs over everything again
+            final List<News> merged = new ArrayList<>(existing);
+            merged.addAll(refresh);
+            final List<News> expected = pipeline(merged);
+            final int added = timeline.addAll(refresh);
+
+            Assertions.assertEquals(15, added, "Wrong news added!");
+            Assertions.assertEquals(expected.subList(0, 30), timeline.newest(30));
+        }
+    }
+}
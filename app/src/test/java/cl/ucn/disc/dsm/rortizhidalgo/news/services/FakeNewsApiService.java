@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.kwabenaberko.newsapilib.models.Article;
+
+import org.threeten.bp.Instant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+
+/**
+ * The local stand-in of NewsAPI: builds the articles instead of requesting them.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class FakeNewsApiService extends NewsApiService {
+
+    /**
+     * The Gson to build the Articles.
+     */
+    private static final Gson GSON = new Gson();
+
+    /**
+     * The threads of the asynchronic requests (the common pool may have only one).
+     */
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "fake-news-api");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The number of requests.
+     */
+    private final AtomicInteger requests = new AtomicInteger();
+
+    /**
+     * The number of requests in flight.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * The max number of requests in flight.
+     */
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    /**
+     * The number of articles returned.
+     */
+    private final AtomicInteger articles = new AtomicInteger();
+
+    /**
+     * The number of articles mapped to News.
+     */
+    private final AtomicInteger mapped = new AtomicInteger();
+
+    /**
+     * The number of next requests to fail.
+     */
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * The latency of each request (millis).
+     */
+    private final long latency;
+
+    /**
+     * The number of articles available.
+     */
+    private final int total;
+
+    /**
+     * The Constructor.
+     *
+     * @param theLatency of each request.
+     * @param theTotal   number of articles available.
+     */
+    public FakeNewsApiService(final long theLatency, final int theTotal) {
+        super("fake-api-key");
+        this.latency = theLatency;
+        this.total = theTotal;
+    }
+
+    /**
+     * The Constructor.
+     *
+     * @param theLatency of each request.
+     */
+    public FakeNewsApiService(final long theLatency) {
+        this(theLatency, 1000);
+    }
+
+    /**
+     * The Constructor, without latency.
+     */
+    public FakeNewsApiService() {
+        this(0);
+    }
+
+    /**
+     * @param category of the article.
+     * @param i        number of the article.
+     * @param epochSecond of publication.
+     * @return one Article, as Gson builds it from NewsAPI.
+     */
+    public static Article article(final String category, final int i, final long epochSecond) {
+        final JsonObject source = new JsonObject();
+        source.addProperty("id", category);
+        source.addProperty("name", "The " + category + " Source");
+
+        final JsonObject json = new JsonObject();
+        json.add("source", source);
+        json.addProperty("author", i % 3 == 0 ? null : "The Author " + i);
+        json.addProperty("title", "The " + category + " Title " + i);
+        json.addProperty("description", i % 5 == 0 ? "" : "The Description of " + i);
+        json.addProperty("url", "https://news/" + category + "/" + i);
+        json.addProperty("urlToImage", "https://news/" + category + "/" + i + ".jpg");
+        json.addProperty("publishedAt", Instant.ofEpochSecond(epochSecond).toString());
+        return GSON.fromJson(json, Article.class);
+    }
+
+    /**
+     * The getTopHeadLines stand-in: the articles are one minute apart, newest first.
+     *
+     * @param category to search.
+     * @param pageSize number of articles.
+     * @param page     number of the page.
+     * @return the List of Article.
+     */
+    @Override
+    public List<Article> getTopHeadlines(final String category, final Integer pageSize,
+                                         final Integer page) {
+        this.requests.incrementAndGet();
+        this.maxInFlight.accumulateAndGet(this.inFlight.incrementAndGet(), Math::max);
+        try {
+            if (this.latency > 0) {
+                Thread.sleep(this.latency);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.inFlight.decrementAndGet();
+        }
+        if (this.failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            throw new RuntimeException("Error: 503-->Service Unavailable");
+        }
+        final List<Article> articles = new ArrayList<>(pageSize);
+        final int first = this.total - 1 - (page - 1) * pageSize;
+        for (int i = first; i > first - pageSize && i >= 0; i--) {
+            articles.add(article(category, i, 1_600_000_000L + i * 60L));
+        }
+        this.articles.addAndGet(articles.size());
+        return articles;
+    }
+
+    /**
+     * The asynchronic stand-in, run in the common pool.
+     *
+     * @param category to search.
+     * @param pageSize number of articles.
+     * @param page     number of the page.
+     * @return the future List of Article.
+     */
+    @Override
+    public CompletableFuture<List<Article>> getTopHeadlinesAsync(final String category,
+                                                                 final Integer pageSize,
+                                                                 final Integer page) {
+        return CompletableFuture.supplyAsync(
+                () -> this.getTopHeadlines(category, pageSize, page), EXECUTOR);
+    }
+
+    /**
+     * The streamed stand-in: the articles of {@link #getTopHeadlines(String, Integer, Integer)}
+     * not known, mapped one by one.
+     *
+     * @param category to search.
+     * @param pageSize number of articles.
+     * @param page     number of the page.
+     * @param known    ids to skip, null to map all the articles.
+     * @param consumer of each News.
+     * @return the number of News.
+     */
+    @Override
+    public int streamTopHeadlines(final String category, final Integer pageSize,
+                                  final Integer page, final LongPredicate known,
+                                  final Consumer<News> consumer) {
+        final List<News> news = this.getMapper().toNews(
+                this.getTopHeadlines(category, pageSize, page), known);
+        news.forEach(consumer);
+        this.mapped.addAndGet(news.size());
+        return news.size();
+    }
+
+    /**
+     * The asynchronic streamed stand-in.
+     *
+     * @param category to search.
+     * @param pageSize number of articles.
+     * @param page     number of the page.
+     * @param known    ids to skip, null to map all the articles.
+     * @return the future List of News.
+     */
+    @Override
+    public CompletableFuture<List<News>> getTopHeadlinesNewsAsync(final String category,
+                                                                  final Integer pageSize,
+                                                                  final Integer page,
+                                                                  final LongPredicate known) {
+        return CompletableFuture.supplyAsync(() -> {
+            final List<News> news = new ArrayList<>();
+            this.streamTopHeadlines(category, pageSize, page, known, news::add);
+            return news;
+        }, EXECUTOR);
+    }
+
+    /**
+     * @param theFailures number of next requests to fail.
+     */
+    public void setFailures(final int theFailures) {
+        this.failures.set(theFailures);
+    }
+
+    /**
+     * @return the number of requests.
+     */
+    public int getRequests() {
+        return this.requests.get();
+    }
+
+    /**
+     * @return the number of articles returned.
+     */
+    public int getArticles() {
+        return this.articles.get();
+    }
+
+    /**
+     * @return the number of articles mapped to News.
+     */
+    public int getMapped() {
+        return this.mapped.get();
+    }
+
+    /**
+     * @return the max number of requests in flight at the same time.
+     */
+    public int getMaxInFlight() {
+        return this.maxInFlight.get();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+
+/**
+ * Testing of ContractsImplCache.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestContractsImplCache {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestContractsImplCache.class);
+
+    /**
+     * The Test of TTL and hit/miss counters.
+     */
+    @Test
+    public void testTtl() {
+
+        log.debug("Testing..");
+
+        final FakeNewsApiService service = new FakeNewsApiService();
+        final FakeClock clock = new FakeClock(0);
+        final ContractsImplCache cache = new ContractsImplCache(
+                new ContractsImplNewsApi(service), 1000, 10, clock);
+
+        final List<News> first = cache.retrieveNews(10);
+        Assertions.assertEquals(10, first.size(), "Wrong size!");
+        Assertions.assertSame(first, cache.retrieveNews(10), "Not cached!");
+        Assertions.assertEquals(1, service.getRequests());
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+
+        // Other key
+        cache.retrieveNews("science", 10);
+        Assertions.assertEquals(2, service.getRequests());
+
+        // Expired
+        clock.advance(1000);
+        Assertions.assertNotSame(first, cache.retrieveNews(10), "Not expired!");
+        Assertions.assertEquals(3, service.getRequests());
+        Assertions.assertEquals(3, cache.getLoads());
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the LRU eviction.
+     */
+    @Test
+    public void testEviction() {
+
+        final FakeNewsApiService service = new FakeNewsApiService();
+        final ContractsImplCache cache = new ContractsImplCache(
+                new ContractsImplNewsApi(service), 60_000, 2, new FakeClock(0));
+
+        cache.retrieveNews("a", 5);
+        cache.retrieveNews("b", 5);
+        cache.retrieveNews("a", 5); // b is now the LRU
+        cache.retrieveNews("c", 5);
+        Assertions.assertEquals(1, cache.getEvictions(), "Wrong evictions!");
+
+        cache.retrieveNews("a", 5);
+        Assertions.assertEquals(3, service.getRequests(), "a was evicted!");
+        cache.retrieveNews("b", 5);
+        Assertions.assertEquals(4, service.getRequests(), "b wasn't evicted!");
+    }
+
+    /**
+     * The Test of the request coalescing.
+     */
+    @Test
+    public void testCoalescing() throws Exception {
+
+        final FakeNewsApiService service = new FakeNewsApiService(200);
+        final ContractsImplCache cache = new ContractsImplCache(
+                new ContractsImplNewsApi(service), 60_000, 10, new FakeClock(0));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<List<News>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> cache.retrieveNews(20)));
+            }
+            for (Future<List<News>> future : futures) {
+                Assertions.assertEquals(20, future.get().size(), "Wrong size!");
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals(1, service.getRequests(), "Request not shared!");
+    }
+
+    /**
+     * The Test of the asynchronic path.
+     */
+    @Test
+    public void testAsync() {
+
+        final FakeNewsApiService service = new FakeNewsApiService(100);
+        final ContractsImplCache cache = new ContractsImplCache(
+                new ContractsImplNewsApi(service), 60_000, 10, new FakeClock(0));
+
+        // Several fetches in flight, none of them blocking this thread
+        final List<CompletableFuture<List<News>>> futures = new ArrayList<>();
+        for (String category : new String[]{"a", "b", "c", "a"}) {
+            futures.add(cache.retrieveNewsAsync(category, 10));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        Assertions.assertEquals(3, service.getRequests(), "Wrong requests!");
+        Assertions.assertSame(futures.get(0).join(), futures.get(3).join(), "Not shared!");
+
+        // The default adapter of Contracts
+        Assertions.assertEquals(5, new ContractsImplFaker().retrieveNewsAsync(5).join().size());
+    }
+
+    /**
+     * The Test of the delegate failing before returning its future (ex: the validation of the
+     * query): the error is reported and not kept in flight.
+     */
+    @Test
+    public void testDelegateThrows() {
+
+        log.debug("Testing..");
+
+        // pageSize 0: rejected by the query, before any request
+        final ContractsImplCache cache = new ContractsImplCache(
+                new ContractsImplNewsApi(new NewsApiService("the-api-key")), 60_000, 10,
+                new FakeClock(0));
+
+        for (int i = 0; i < 2; i++) {
+            final CompletableFuture<List<News>> future = cache.retrieveNewsAsync("technology", 0);
+            Assertions.assertTrue(future.isCompletedExceptionally(), "Never completed!");
+            final CompletionException ex = Assertions.assertThrows(CompletionException.class,
+                    future::join);
+            Assertions.assertTrue(ex.getCause() instanceof IllegalArgumentException);
+        }
+        Assertions.assertEquals(2, cache.getMisses());
+
+        log.debug("Done.");
+    }
+}
@@ -16,7 +16,12 @@ import org.slf4j.LoggerFactory;
 import org.threeten.bp.ZoneId;
 import org.threeten.bp.ZonedDateTime;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
 
@@ -101,4 +106,81 @@ public class TestContractsImplFaker {
 
     }
 
-}
\ No newline at end of file
+    /**
+     * @param i     number of the news.
+     * @param start base date.
+     * @return a News published i seconds after start.
+     */
+    private static News news(final int i, final ZonedDateTime start) {
+        return new News("The Title " + i, "The Source", "The Author", null, null,
+                "The Description", "The Content", start.plusSeconds(i));
+    }
+
+    /**
+     * The Test of the bulk load and the concurrent saves.
+     */
+    @Test
+    public void testSaveAll() throws Exception {
+
+        log.debug("Testing..");
+
+        final ZonedDateTime start = ZonedDateTime.now(ZoneId.of("-3"));
+        final ContractsImplFaker contracts = new ContractsImplFaker();
+
+        // Bulk load
+        final int total = 50_000;
+        final List<News> news = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            news.add(news(i, start));
+        }
+        contracts.saveAll(news);
+        Assertions.assertEquals(total + 5, contracts.retrieveNews(total * 2).size());
+
+        // All or nothing
+        final List<News> duplicated = new ArrayList<>();
+        duplicated.add(news(total, start));
+        duplicated.add(news(total + 1, start));
+        duplicated.add(news(total, start));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> contracts.saveAll(duplicated));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> contracts.saveNews(news(10, start)));
+        Assertions.assertEquals(total + 5, contracts.retrieveNews(total * 2).size());
+        contracts.saveNews(news(total, start));
+        contracts.saveNews(news(total + 1, start));
+
+        // Concurrent saves of the same news: each one saved only once
+        final int threads = 4;
+        final int each = 5_000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch ready = new CountDownLatch(1);
+        final List<Future<Integer>> saved = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            saved.add(executor.submit(() -> {
+                ready.await();
+                int count = 0;
+                for (int i = 0; i < each; i++) {
+                    try {
+                        contracts.saveNews(news(total + 2 + i, start));
+                        count++;
+                    } catch (IllegalArgumentException ex) {
+                        // Saved by other thread
+                    }
+                }
+                return count;
+            }));
+        }
+        ready.countDown();
+        int count = 0;
+        for (Future<Integer> f : saved) {
+            count += f.get();
+        }
+        executor.shutdown();
+
+        Assertions.assertEquals(each, count, "Wrong number of saves!");
+        Assertions.assertEquals(total + 5 + 2 + each,
+                contracts.retrieveNews(total * 2).size(), "Wrong size!");
+
+        log.debug("Done.");
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+
+/**
+ * Testing of ContractsImplFanOut.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestContractsImplFanOut {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestContractsImplFanOut.class);
+
+    /**
+     * The categories.
+     */
+    private static final List<String> CATEGORIES =
+            Arrays.asList("business", "health", "science", "sports");
+
+    /**
+     * The Test of the latency and the concurrency limit.
+     */
+    @Test
+    public void testFanOut() {
+
+        log.debug("Testing..");
+
+        // All at once: close to the latency of one request
+        FakeNewsApiService service = new FakeNewsApiService(300);
+        Contracts contracts = new ContractsImplFanOut(
+                new ContractsImplNewsApi(service), CATEGORIES, 4, 5_000);
+
+        long start = System.nanoTime();
+        List<News> news = contracts.retrieveNews(20);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        log.debug("Fan-out in {} ms.", millis);
+
+        Assertions.assertEquals(20, news.size(), "Wrong size!");
+        Assertions.assertTrue(millis < 4 * 300, "Requests not concurrent!");
+        for (int i = 1; i < news.size(); i++) {
+            Assertions.assertFalse(news.get(i).getPublishedAt()
+                    .isAfter(news.get(i - 1).getPublishedAt()), "Wrong order!");
+        }
+
+        // Two at a time
+        service = new FakeNewsApiService(100);
+        contracts = new ContractsImplFanOut(
+                new ContractsImplNewsApi(service), CATEGORIES, 2, 5_000);
+        Assertions.assertEquals(20, contracts.retrieveNews(20).size(), "Wrong size!");
+        Assertions.assertEquals(4, service.getRequests(), "Wrong requests!");
+        Assertions.assertEquals(2, service.getMaxInFlight(), "Wrong concurrency!");
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the timeout.
+     */
+    @Test
+    public void testTimeout() {
+        final Contracts contracts = new ContractsImplFanOut(
+                new ContractsImplNewsApi(new FakeNewsApiService(2_000)), CATEGORIES, 4, 100);
+
+        final long start = System.nanoTime();
+        final RuntimeException ex = Assertions.assertThrows(RuntimeException.class,
+                () -> contracts.retrieveNews(10));
+        Assertions.assertTrue(ex.getCause() instanceof TimeoutException, "Not a timeout!");
+        Assertions.assertTrue(System.nanoTime() - start < 1_000_000_000L, "Timeout ignored!");
+    }
+
+    /**
+     * The Test of the delegate failing before returning its future (ex: the validation of the
+     * query): the slots are freed, the next requests don't wait forever.
+     */
+    @Test
+    public void testDelegateThrows() {
+
+        log.debug("Testing..");
+
+        // pageSize 0: rejected by the query, before any request
+        final Contracts contracts = new ContractsImplFanOut(
+                new ContractsImplNewsApi(new NewsApiService("the-api-key")), CATEGORIES, 2,
+                5_000);
+
+        for (int i = 0; i < 3; i++) {
+            final ExecutionException ex = Assertions.assertThrows(ExecutionException.class,
+                    () -> contracts.retrieveNewsAsync(0).get(1, TimeUnit.SECONDS));
+            Assertions.assertTrue(ex.getCause() instanceof IllegalArgumentException,
+                    "Wrong error: " + ex.getCause());
+        }
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the k-way merge.
+     */
+    @Test
+    public void testMerge() {
+        final ZonedDateTime start = ZonedDateTime.now(ZoneId.of("-3"));
+
+        final List<List<News>> lists = new ArrayList<>();
+        for (int l = 0; l < 3; l++) {
+            final List<News> list = new ArrayList<>();
+            for (int i = 10; i >= 0; i--) {
+                // The same title in all the lists when i is even: duplicates
+                final String title = i % 2 == 0 ? "The Title " + i : "The Title " + l + "-" + i;
+                list.add(new News(title, "The Source", "The Author", null, null,
+                        "The Description", "The Content", start.plusMinutes(i)));
+            }
+            lists.add(list);
+        }
+
+        final List<News> merged = ContractsImplFanOut.merge(lists, 100);
+        Assertions.assertEquals(6 + 3 * 5, merged.size(), "Duplicates not removed!");
+        for (int i = 1; i < merged.size(); i++) {
+            Assertions.assertFalse(merged.get(i).getPublishedAt()
+                    .isAfter(merged.get(i - 1).getPublishedAt()), "Wrong order!");
+        }
+        Assertions.assertEquals(5, ContractsImplFanOut.merge(lists, 5).size(), "Wrong limit!");
+        Assertions.assertTrue(ContractsImplFanOut.merge(
+                Collections.singletonList(new ArrayList<>()), 5).isEmpty());
+    }
+}
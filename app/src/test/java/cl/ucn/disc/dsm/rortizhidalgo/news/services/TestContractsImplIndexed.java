@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+
+/**
+ * Testing of ContractsImplIndexed.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestContractsImplIndexed {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestContractsImplIndexed.class);
+
+    /**
+     * The base date.
+     */
+    private static final ZonedDateTime START = ZonedDateTime.of(2020, 11, 1, 0, 0, 0, 0,
+            ZoneId.of("-3"));
+
+    /**
+     * @param i           number of the news.
+     * @param title       of the news.
+     * @param description of the news.
+     * @return a News published i hours after the start.
+     */
+    private static News news(final int i, final String title, final String description) {
+        return new News(title, "The Source", "The Author", null, null, description,
+                description, START.plusHours(i));
+    }
+
+    /**
+     * @param news to identify.
+     * @return the titles of the news.
+     */
+    private static List<String> titles(final List<News> news) {
+        final String[] titles = new String[news.size()];
+        for (int i = 0; i < titles.length; i++) {
+            titles[i] = news.get(i).getTitle();
+        }
+        return Arrays.asList(titles);
+    }
+
+    /**
+     * The Test of the search over the news stored (indexed from the records) and saved.
+     */
+    @Test
+    public void testSearch() throws IOException {
+
+        log.debug("Testing..");
+
+        final File file = File.createTempFile("indexed", ".store");
+        file.deleteOnExit();
+        new File(file.getPath() + ".bloom").deleteOnExit();
+
+        // Stored before the index
+        ContractsImplStore store = new ContractsImplStore(file);
+        store.saveAll(Arrays.asList(
+                news(1, "Apple’s M1 Macs are here", "The first Apple Silicon Macs"),
+                news(2, "Perseverance lands on Mars", "The NASA rover is on Mars")));
+        store.close();
+
+        store = new ContractsImplStore(file);
+        final ContractsImplIndexed indexed = new ContractsImplIndexed(store);
+        Assertions.assertEquals(2, indexed.getIndex().size());
+        Assertions.assertEquals(Arrays.asList("Apple’s M1 Macs are here"),
+                titles(indexed.search("silicon", 10)));
+        Assertions.assertEquals("The NASA rover is on Mars",
+                indexed.search("nasa", 10).get(0).getDescription());
+
+        // Saved through the index, the duplicates once
+        indexed.saveAll(Arrays.asList(
+                news(3, "The iPhone 12 review", "Apple did it again"),
+                news(2, "Perseverance lands on Mars", "The NASA rover is on Mars")));
+        indexed.saveNews(news(4, "Mars again", "Another rover"));
+        Assertions.assertEquals(4, indexed.getIndex().size());
+        Assertions.assertEquals(4, store.size());
+        Assertions.assertEquals(Arrays.asList("The iPhone 12 review", "Apple’s M1 Macs are here"),
+                titles(indexed.search("apple", 10)));
+        Assertions.assertEquals(Arrays.asList("Mars again", "Perseverance lands on Mars"),
+                titles(indexed.search("mar", 10)));
+        Assertions.assertEquals(Arrays.asList("mars", "macs"), indexed.complete("ma", 10));
+        Assertions.assertEquals(4, indexed.retrieveNews(10).size());
+        store.close();
+
+        log.debug("Done.");
+    }
+}
@@ -20,6 +20,7 @@ import org.slf4j.LoggerFactory;
 import java.util.List;
 
 import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.LongHashSet;
 
 /**
  * The Test.
@@ -61,4 +62,51 @@ public class TestContractsImplNewsApi {
 
 
     }
+
+    /**
+     * The Test of the delta refresh: only the new articles are mapped.
+     */
+    @Test
+    public void testDelta() {
+
+        log.debug("Testing..");
+
+        final FakeNewsApiService service = new FakeNewsApiService();
+        final ContractsImplNewsApi contracts = new ContractsImplNewsApi(service);
+
+        Assertions.assertEquals(10, contracts.retrieveNews("technology", 10).size());
+        Assertions.assertEquals(10, service.getMapped());
+
+        // The same page: nothing new
+        Assertions.assertEquals(10, contracts.retrieveNews("technology", 10).size());
+        Assertions.assertEquals(10, service.getMapped());
+
+        // A bigger page: only the 20 new ones, same result as a full refresh
+        final List<News> news = contracts.retrieveNewsAsync("technology", 30).join();
+        Assertions.assertEquals(30, service.getMapped());
+        final List<News> full = new ContractsImplNewsApi(new FakeNewsApiService())
+                .retrieveNews("technology", 30);
+        Assertions.assertEquals(full.size(), news.size(), "Wrong size!");
+        for (int i = 0; i < full.size(); i++) {
+            Assertions.assertEquals(full.get(i).getId(), news.get(i).getId(), "Wrong id!");
+        }
+
+        // Other category, other timeline
+        Assertions.assertEquals(10, contracts.retrieveNews("science", 10).size());
+        Assertions.assertEquals(40, service.getMapped());
+
+        // The ingestion: the ones already stored are skipped too
+        final LongHashSet stored = new LongHashSet();
+        for (int i = 0; i < 15; i++) {
+            stored.add(full.get(i).getId());
+        }
+        final FakeNewsApiService other = new FakeNewsApiService();
+        final List<News> ingested = new ContractsImplNewsApi(other, stored::contains)
+                .retrieveNews("technology", 30);
+        Assertions.assertEquals(15, other.getMapped());
+        Assertions.assertEquals(full.subList(15, 30).get(0).getId(), ingested.get(0).getId());
+        Assertions.assertEquals(15, ingested.size(), "Wrong size!");
+
+        log.debug("Done.");
+    }
 }
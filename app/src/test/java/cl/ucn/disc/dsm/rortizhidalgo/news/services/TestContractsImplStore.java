@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+
+/**
+ * Testing of ContractsImplStore.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestContractsImplStore {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestContractsImplStore.class);
+
+    /**
+     * @param i     number of the news.
+     * @param start base date.
+     * @return a News published i hours after start.
+     */
+    private static News news(final int i, final ZonedDateTime start) {
+        return new News(
+                "The Title " + i,
+                "The Source",
+                "The Author",
+                "URL " + i,
+                i % 2 == 0 ? null : "URL Image",
+                "The Description " + i,
+                "The Content " + i,
+                start.plusHours(i));
+    }
+
+    /**
+     * The Test of save, retrieve and reopen.
+     */
+    @Test
+    public void testSaveAndRetrieve() throws IOException {
+
+        log.debug("Testing..");
+
+        final File file = File.createTempFile("news", ".store");
+        file.deleteOnExit();
+        new File(file.getPath() + ".bloom").deleteOnExit();
+
+        final ZonedDateTime start = ZonedDateTime.now(ZoneId.of("-3")).withNano(0);
+        final int total = 2000;
+
+        // Save the news (enough to grow the mapped region)
+        ContractsImplStore store = new ContractsImplStore(file);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> store.saveNews(null));
+        for (int i = 0; i < total; i++) {
+            store.saveNews(news(i, start));
+        }
+
+        // Duplicates are ignored
+        store.saveNews(news(0, start));
+        Assertions.assertEquals(total, store.size(), "Duplicate stored!");
+
+        // Newest first
+        List<News> newest = store.retrieveNews(3);
+        Assertions.assertEquals(3, newest.size(), "Wrong size!");
+        Assertions.assertEquals("The Title " + (total - 1), newest.get(0).getTitle());
+        Assertions.assertEquals("The Title " + (total - 3), newest.get(2).getTitle());
+        store.close();
+
+        // Reopen: the indexes are rebuilt from the log
+        ContractsImplStore reopen = new ContractsImplStore(file);
+        Assertions.assertEquals(total, reopen.size(), "Wrong size after reopen!");
+        Assertions.assertEquals(total, reopen.retrieveNews(total + 10).size(), "Wrong size!");
+
+        News last = reopen.retrieveNews(1).get(0);
+        News expected = news(total - 1, start);
+        Assertions.assertEquals(expected.getId(), last.getId(), "Wrong id!");
+        Assertions.assertEquals(expected.getUrlImage(), last.getUrlImage());
+        Assertions.assertEquals(expected.getContent(), last.getContent());
+        Assertions.assertTrue(expected.getPublishedAt().isEqual(last.getPublishedAt()));
+
+        // Still appendable
+        reopen.saveNews(news(total, start));
+        Assertions.assertEquals("The Title " + total, reopen.retrieveNews(1).get(0).getTitle());
+        reopen.close();
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the known ids: the filter, its false positives and its file.
+     */
+    @Test
+    public void testKnown() throws Exception {
+
+        log.debug("Testing..");
+
+        final File file = File.createTempFile("news", ".store");
+        file.deleteOnExit();
+        final File bloomFile = new File(file.getPath() + ".bloom");
+        bloomFile.deleteOnExit();
+
+        final ZonedDateTime start = ZonedDateTime.now(ZoneId.of("-3")).withNano(0);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new ContractsImplStore(file, 0, 0.01));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new ContractsImplStore(file, 100, 1));
+
+        // A small filter: it grows with the news
+        final ContractsImplStore store = new ContractsImplStore(file, 100, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            store.saveNews(news(i, start));
+        }
+        Assertions.assertTrue(store.getBloomFilter().getExpectedFpp() <= 0.02, "Too full!");
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertTrue(store.isKnown(news(i, start).getId()), "Unknown news!");
+        }
+
+        // The unknown ones: only the false positives reach the index
+        int unknown = 0;
+        for (int i = 1000; i < 11_000; i++) {
+            if (!store.isKnown(news(i, start).getId())) {
+                unknown++;
+            }
+        }
+        Assertions.assertEquals(10_000, unknown, "Known news!");
+        log.info("False positives: {} of 10000.", store.getFalsePositives());
+        Assertions.assertTrue(store.getFalsePositives() < 300, "Too many false positives!");
+
+        // Without the lock: answered while other thread holds it
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread holder = new Thread(() -> {
+            synchronized (store) {
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        holder.start();
+        try {
+            Assertions.assertTrue(locked.await(1, TimeUnit.SECONDS), "Lock not taken!");
+            final long falsePositives = store.getFalsePositives();
+            Assertions.assertTrue(CompletableFuture.supplyAsync(() -> {
+                int known = 0;
+                for (int i = 0; i < 11_000; i++) {
+                    if (store.isKnown(news(i, start).getId())) {
+                        known++;
+                    }
+                }
+                return known == 1000;
+            }).get(5, TimeUnit.SECONDS), "Wrong known news!");
+            Assertions.assertEquals(2 * falsePositives, store.getFalsePositives());
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        store.flush();
+        Assertions.assertTrue(bloomFile.exists(), "Filter not written!");
+        final byte[] flushed = Files.readAllBytes(bloomFile.toPath());
+
+        // Saved after the filter was written: added to the filter on reopen
+        store.saveNews(news(1000, start));
+        store.close();
+        Files.write(bloomFile.toPath(), flushed);
+        final ContractsImplStore reopen = new ContractsImplStore(file, 100, 0.01);
+        Assertions.assertEquals(1001, reopen.size());
+        Assertions.assertTrue(reopen.isKnown(news(1000, start).getId()), "Unknown news!");
+        Assertions.assertTrue(reopen.isKnown(news(0, start).getId()), "Unknown news!");
+        reopen.close();
+
+        // A broken filter is built again
+        Files.write(bloomFile.toPath(), new byte[]{1, 2, 3});
+        final ContractsImplStore broken = new ContractsImplStore(file, 100, 0.01);
+        Assertions.assertTrue(broken.isKnown(news(500, start).getId()), "Unknown news!");
+        Assertions.assertFalse(broken.isKnown(news(5000, start).getId()), "Known news!");
+        broken.close();
+
+        log.debug("Done.");
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.ZoneOffset;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Metrics;
+
+/**
+ * Testing of DataQuality (the names are unique: the metrics are global).
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestDataQuality {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestDataQuality.class);
+
+    /**
+     * The Test of the counts of the mapper.
+     */
+    @Test
+    public void testMapper() {
+
+        log.debug("Testing..");
+
+        final DataQuality quality = new DataQuality("test.quality.mapper", 4);
+        final NewsMapper mapper = new NewsMapper(ZoneOffset.ofHours(-3), quality);
+
+        for (int i = 0; i < 10; i++) {
+            final News news = mapper.toNews("The Title " + i, i % 2 == 0 ? "The Verge" : "Wired",
+                    i < 6 ? null : "The Author", "https://the.url/" + i, null,
+                    i < 3 ? "" : "The Description", "2020-11-17T14:00:00Z");
+            if (i < 6) {
+                Assertions.assertEquals(NewsMapper.NO_AUTHOR, news.getAuthor());
+            }
+        }
+
+        Assertions.assertEquals(10, quality.getChecked());
+        Assertions.assertEquals(6, quality.getFixed(DataQuality.Field.AUTHOR));
+        Assertions.assertEquals(3, quality.getFixed(DataQuality.Field.DESCRIPTION));
+        Assertions.assertEquals(3, quality.getFixed(DataQuality.Field.AUTHOR, "The Verge"));
+        Assertions.assertEquals(3, quality.getFixed(DataQuality.Field.AUTHOR, "Wired"));
+        Assertions.assertEquals(2, quality.getFixed(DataQuality.Field.DESCRIPTION, "The Verge"));
+        Assertions.assertEquals(0, quality.getFixed(DataQuality.Field.AUTHOR, "CNN"));
+
+        // The last 4 fixups: the author of 3, 4 and 5 (after the descriptions of 0 .. 2)
+        final List<DataQuality.Sample> samples = quality.getSamples();
+        Assertions.assertEquals(4, samples.size());
+        Assertions.assertEquals(DataQuality.Field.AUTHOR, samples.get(3).getField());
+        Assertions.assertEquals("The Title 5", samples.get(3).getTitle());
+        Assertions.assertEquals("Wired", samples.get(3).getSource());
+        Assertions.assertEquals("https://the.url/5", samples.get(3).getUrl());
+        Assertions.assertEquals("The Title 2", samples.get(0).getTitle());
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the bound of the sources and of the report.
+     */
+    @Test
+    public void testReport() throws IOException {
+
+        log.debug("Testing..");
+
+        final DataQuality quality = new DataQuality("test.quality.report", 8);
+        for (int i = 0; i < DataQuality.MAX_SOURCES + 10; i++) {
+            quality.checked();
+            quality.fixed(DataQuality.Field.DESCRIPTION, "Source " + i, "The Title", null);
+        }
+        quality.fixed(DataQuality.Field.AUTHOR, null, "The Title", null);
+        quality.fixed(DataQuality.Field.AUTHOR, "Source 0", "The Title", null);
+
+        Assertions.assertEquals(1, quality.getFixed(DataQuality.Field.AUTHOR, "Source 0"));
+        Assertions.assertEquals(0, quality.getFixed(DataQuality.Field.AUTHOR, null));
+        Assertions.assertEquals(10, quality.getFixed(DataQuality.Field.DESCRIPTION,
+                DataQuality.OTHER_SOURCES));
+        Assertions.assertEquals(1, quality.getFixed(DataQuality.Field.AUTHOR,
+                DataQuality.OTHER_SOURCES));
+
+        final StringWriter writer = new StringWriter();
+        Metrics.writeJson(writer);
+        final JsonObject root = JsonParser.parseString(writer.toString()).getAsJsonObject();
+        Assertions.assertEquals(2, root.getAsJsonObject("gauges")
+                .get("test.quality.report.author").getAsLong());
+        Assertions.assertEquals(DataQuality.MAX_SOURCES + 10, root.getAsJsonObject("gauges")
+                .get("test.quality.report.checked").getAsLong());
+
+        final JsonObject report = root.getAsJsonObject("reports")
+                .getAsJsonObject("test.quality.report");
+        Assertions.assertEquals(DataQuality.MAX_SOURCES + 10, report.get("checked").getAsLong());
+        Assertions.assertEquals(DataQuality.MAX_SOURCES + 1,
+                report.getAsJsonObject("sources").size());
+        Assertions.assertEquals(8, report.getAsJsonArray("samples").size());
+        Assertions.assertEquals("author", report.getAsJsonArray("samples").get(7)
+                .getAsJsonObject().get("field").getAsString());
+
+        log.debug("Done.");
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+
+/**
+ * Testing of ImageFetcher against a local MockWebServer.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestImageFetcher {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestImageFetcher.class);
+
+    /**
+     * The image server stand-in.
+     */
+    private MockWebServer server;
+
+    /**
+     * The directory of the disk cache (deleted after each test).
+     */
+    @TempDir
+    File directory;
+
+    /**
+     * Start the server.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        this.server = new MockWebServer();
+        this.server.start();
+    }
+
+    /**
+     * Stop the server.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        this.server.shutdown();
+    }
+
+    /**
+     * @param size of the image.
+     * @return the response with a (fake) image.
+     */
+    private static MockResponse image(final int size) {
+        final byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        return new MockResponse()
+                .setHeader("Content-Type", "image/jpeg")
+                .setBody(new Buffer().write(bytes));
+    }
+
+    /**
+     * The Test of the disk cache and the hit rate.
+     */
+    @Test
+    public void testDiskCache() throws Exception {
+
+        log.debug("Testing..");
+
+        final ImageFetcher fetcher = new ImageFetcher(this.directory, 1024 * 1024);
+        final String url = this.server.url("/images/1.jpg").toString();
+        this.server.enqueue(image(4096));
+
+        final byte[] first = fetcher.fetch(url).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(4096, first.length, "Wrong size!");
+        Assertions.assertEquals(1, fetcher.getNetworkLoads());
+
+        // From the disk, without request
+        final byte[] second = new ImageFetcher(this.directory, 1024 * 1024).fetch(url)
+                .get(5, TimeUnit.SECONDS);
+        Assertions.assertArrayEquals(first, second);
+        Assertions.assertEquals(1, this.server.getRequestCount(), "Not cached!");
+
+        // Same fetcher: half of the downloads from the disk
+        fetcher.fetch(url).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(1, fetcher.getDiskHits());
+        Assertions.assertEquals(0.5, fetcher.getDiskHitRate());
+
+        // The errors aren't cached
+        final String missing = this.server.url("/images/404.jpg").toString();
+        this.server.enqueue(new MockResponse().setResponseCode(404));
+        final ExecutionException ex = Assertions.assertThrows(ExecutionException.class,
+                () -> fetcher.fetch(missing).get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(ex.getCause() instanceof IOException);
+        Assertions.assertEquals(1, fetcher.getErrors());
+        Assertions.assertThrows(ExecutionException.class,
+                () -> fetcher.fetch("not an url").get(5, TimeUnit.SECONDS));
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the shared download and the cancellation.
+     */
+    @Test
+    public void testCancel() throws Exception {
+
+        log.debug("Testing..");
+
+        final ImageFetcher fetcher = new ImageFetcher(this.directory, 1024 * 1024);
+        final String url = this.server.url("/images/slow.jpg").toString();
+
+        // Two waiters, one download
+        this.server.enqueue(image(1024).setBodyDelay(200, TimeUnit.MILLISECONDS));
+        final CompletableFuture<byte[]> first = fetcher.fetch(url);
+        final CompletableFuture<byte[]> second = fetcher.fetch(url);
+        Assertions.assertEquals(1, fetcher.getCoalesced());
+
+        // One cancels, the other one gets the image
+        first.cancel(true);
+        Assertions.assertEquals(1024, second.get(5, TimeUnit.SECONDS).length);
+        Assertions.assertEquals(1, this.server.getRequestCount());
+        Assertions.assertEquals(1, fetcher.getCancels());
+
+        // The only waiter cancels: the download is cancelled
+        final String other = this.server.url("/images/slower.jpg").toString();
+        this.server.enqueue(image(1024).setBodyDelay(5, TimeUnit.SECONDS));
+        final CompletableFuture<byte[]> cancelled = fetcher.fetch(other);
+        this.server.takeRequest();
+        Assertions.assertEquals("/images/slower.jpg",
+                this.server.takeRequest(5, TimeUnit.SECONDS).getPath());
+        cancelled.cancel(true);
+        Assertions.assertEquals(2, fetcher.getCancels());
+
+        // And started again by the next one
+        this.server.enqueue(image(2048));
+        Assertions.assertEquals(2048, fetcher.fetch(other).get(5, TimeUnit.SECONDS).length);
+        Assertions.assertEquals(0, fetcher.getErrors(), "Cancel counted as error!");
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the downsampling.
+     */
+    @Test
+    public void testSampleSize() {
+
+        log.debug("Testing..");
+
+        // 80dp at 3x
+        Assertions.assertEquals(4, ImageFetcher.sampleSize(1200, 1000, 240, 240));
+        Assertions.assertEquals(1, ImageFetcher.sampleSize(400, 300, 240, 240));
+        Assertions.assertEquals(2, ImageFetcher.sampleSize(480, 480, 240, 240));
+        Assertions.assertEquals(1, ImageFetcher.sampleSize(4000, 4000, 0, 0));
+
+        log.debug("Done.");
+    }
+}
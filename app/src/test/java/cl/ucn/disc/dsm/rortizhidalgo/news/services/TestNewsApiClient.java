@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import com.kwabenaberko.newsapilib.models.Article;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * Testing of NewsApiClient: cache, revalidation, compression and connection reuse against a
+ * local MockWebServer.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestNewsApiClient {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestNewsApiClient.class);
+
+    /**
+     * One page of top headlines.
+     */
+    private static final String PAGE = "{\"status\":\"ok\",\"totalResults\":2,\"articles\":["
+            + "{\"source\":{\"id\":null,\"name\":\"The Verge\"},\"author\":\"Nilay Patel\","
+            + "\"title\":\"The Title 1\",\"description\":\"The Description 1\","
+            + "\"url\":\"https://theverge.com/1\",\"urlToImage\":null,"
+            + "\"publishedAt\":\"2020-11-17T14:00:00Z\",\"content\":null},"
+            + "{\"source\":{\"id\":null,\"name\":\"Wired\"},\"author\":null,"
+            + "\"title\":\"The Title 2\",\"description\":\"The Description 2\","
+            + "\"url\":\"https://wired.com/2\",\"urlToImage\":null,"
+            + "\"publishedAt\":\"2020-11-17T13:00:00Z\",\"content\":null}]}";
+
+    /**
+     * The NewsAPI stand-in.
+     */
+    private MockWebServer server;
+
+    /**
+     * The directory of the cache (deleted after each test).
+     */
+    @TempDir
+    File directory;
+
+    /**
+     * Start the server.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        this.server = new MockWebServer();
+        this.server.start();
+    }
+
+    /**
+     * Stop the server.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        this.server.shutdown();
+    }
+
+    /**
+     * @param text to compress.
+     * @return the gzip of the text.
+     */
+    private static Buffer gzip(final String text) throws IOException {
+        final Buffer buffer = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(buffer))) {
+            sink.writeUtf8(text);
+        }
+        return buffer;
+    }
+
+    /**
+     * The Test of the conditional revalidation: the second request costs a 304.
+     */
+    @Test
+    public void testRevalidation() throws Exception {
+
+        log.debug("Testing..");
+
+        final OkHttpClient client = NewsApiClient.withCache(this.directory, 1024 * 1024);
+        final String baseUrl = this.server.url("/v2/").toString();
+
+        // First: the full (gzip) page with an ETag
+        this.server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setHeader("Content-Encoding", "gzip")
+                .setHeader("ETag", "\"v1\"")
+                .setBody(gzip(PAGE)));
+        // Second: not modified
+        this.server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+
+        final List<Article> first = new NewsApiService("the-api-key", baseUrl, client)
+                .getTopHeadlines("technology", 2);
+        Assertions.assertEquals(2, first.size(), "Wrong size!");
+        Assertions.assertEquals("The Title 1", first.get(0).getTitle());
+
+        final RecordedRequest request1 = this.server.takeRequest();
+        Assertions.assertEquals("/v2/top-headlines", request1.getRequestUrl().encodedPath());
+        Assertions.assertTrue(request1.getHeader("Accept-Encoding").contains("br"), "No br!");
+        Assertions.assertTrue(request1.getHeader("Accept-Encoding").contains("gzip"), "No gzip!");
+        Assertions.assertNull(request1.getHeader("If-None-Match"));
+
+        // Other ContractsImplNewsApi, same cache and connections
+        final List<Article> second = new NewsApiService("the-api-key", baseUrl,
+                NewsApiClient.withCache(this.directory, 1024 * 1024)).getTopHeadlines(
+                "technology", 2);
+        Assertions.assertEquals(2, second.size(), "Wrong size!");
+        Assertions.assertEquals("The Title 2", second.get(1).getTitle());
+
+        final RecordedRequest request2 = this.server.takeRequest();
+        Assertions.assertEquals("\"v1\"", request2.getHeader("If-None-Match"), "Not conditional!");
+        Assertions.assertTrue(request2.getSequenceNumber() > 0, "Connection not reused!");
+
+        Assertions.assertEquals(2, client.cache().networkCount(), "Wrong network count!");
+        Assertions.assertEquals(1, client.cache().hitCount(), "The 304 is not a hit!");
+
+        // Other page: not in the cache
+        this.server.enqueue(new MockResponse().setBody(PAGE));
+        new NewsApiService("the-api-key", baseUrl, client).getTopHeadlines("technology", 2, 2);
+        Assertions.assertNull(this.server.takeRequest().getHeader("If-None-Match"));
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the errors: not cached, reported.
+     */
+    @Test
+    public void testError() throws Exception {
+
+        log.debug("Testing..");
+
+        final OkHttpClient client = NewsApiClient.withCache(this.directory, 1024 * 1024);
+        final NewsApiService service = new NewsApiService("the-api-key",
+                this.server.url("/v2/").toString(), client);
+
+        this.server.enqueue(new MockResponse().setResponseCode(401)
+                .setBody("{\"status\":\"error\",\"code\":\"apiKeyInvalid\"}"));
+        Assertions.assertThrows(RuntimeException.class,
+                () -> service.getTopHeadlines("technology", 2));
+
+        this.server.enqueue(new MockResponse().setBody(PAGE));
+        Assertions.assertEquals(2, service.getTopHeadlines("technology", 2).size());
+        this.server.takeRequest();
+        Assertions.assertNull(this.server.takeRequest().getHeader("If-None-Match"),
+                "The error was cached!");
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> NewsApiClient.withCache(this.directory, 0));
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the asynchronic calls: the body is read (and decoded) in the OkHttp thread of
+     * the call, not in the main thread (the default of Retrofit in Android).
+     */
+    @Test
+    public void testAsyncThreads() throws Exception {
+
+        log.debug("Testing..");
+
+        // The threads reading the body
+        final Set<String> readers = ConcurrentHashMap.newKeySet();
+        final OkHttpClient client = new OkHttpClient.Builder().addInterceptor(chain -> {
+            final Response response = chain.proceed(chain.request());
+            final ResponseBody body = response.body();
+            final BufferedSource source = Okio.buffer(new ForwardingSource(body.source()) {
+                @Override
+                public long read(final Buffer sink, final long byteCount) throws IOException {
+                    readers.add(Thread.currentThread().getName());
+                    return super.read(sink, byteCount);
+                }
+            });
+            return response.newBuilder()
+                    .body(ResponseBody.create(source, body.contentType(), body.contentLength()))
+                    .build();
+        }).build();
+
+        final NewsApiService service = new NewsApiService("the-api-key",
+                this.server.url("/v2/").toString(), client);
+        this.server.enqueue(new MockResponse().setBody(PAGE));
+        final List<News> news = service.getTopHeadlinesNewsAsync("technology", 2, 1)
+                .get(10, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(2, news.size());
+        Assertions.assertFalse(readers.isEmpty(), "The body wasn't read?");
+        // Read as it arrives, in the OkHttp thread of the call (not queued in other threads)
+        for (String reader : readers) {
+            Assertions.assertTrue(reader.startsWith("OkHttp"),
+                    "Body not read in the OkHttp thread: " + reader);
+        }
+
+        log.debug("Done.");
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.kwabenaberko.newsapilib.models.Article;
+import com.kwabenaberko.newsapilib.models.response.ArticleResponse;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.LongHashSet;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * Testing of NewsJsonReader.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestNewsJsonReader {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestNewsJsonReader.class);
+
+    /**
+     * The Gson.
+     */
+    private static final Gson GSON = new Gson();
+
+    /**
+     * @param size number of articles.
+     * @return the json of one page of top headlines.
+     */
+    private static String page(final int size) {
+        final JsonArray articles = new JsonArray();
+        for (int i = 0; i < size; i++) {
+            articles.add(GSON.toJsonTree(FakeNewsApiService.article("technology", i,
+                    1_600_000_000L + i * 60L)));
+        }
+        final JsonObject page = new JsonObject();
+        page.addProperty("status", "ok");
+        page.add("articles", articles);
+        page.addProperty("totalResults", 9000);
+        return GSON.toJson(page);
+    }
+
+    /**
+     * @param json to read.
+     * @return the News, read with the streaming decoder.
+     */
+    private static List<News> stream(final String json) throws Exception {
+        final List<News> news = new ArrayList<>();
+        try (NewsJsonReader reader = new NewsJsonReader(new StringReader(json))) {
+            while (reader.hasNext()) {
+                news.add(reader.next());
+            }
+        }
+        return news;
+    }
+
+    /**
+     * @param json to read.
+     * @return the News, read with Gson (ArticleResponse) and then mapped.
+     */
+    private static List<News> gson(final String json) {
+        final List<News> news = new ArrayList<>();
+        for (Article article : GSON.fromJson(json, ArticleResponse.class).getArticles()) {
+            news.add(NewsMapper.DEFAULT.toNews(article));
+        }
+        return news;
+    }
+
+    /**
+     * The Test of the streaming decoder against Gson.
+     */
+    @Test
+    public void testAgainstGson() throws Exception {
+
+        log.debug("Testing..");
+
+        final String json = page(100);
+        final List<News> expected = gson(json);
+        final List<News> actual = stream(json);
+
+        Assertions.assertEquals(expected.size(), actual.size(), "Wrong size!");
+        for (int i = 0; i < expected.size(); i++) {
+            final News e = expected.get(i);
+            final News a = actual.get(i);
+            Assertions.assertEquals(e.getId(), a.getId(), "Wrong id!");
+            Assertions.assertEquals(e.getAuthor(), a.getAuthor());
+            Assertions.assertEquals(e.getDescription(), a.getDescription());
+            Assertions.assertEquals(e.getContent(), a.getContent());
+            Assertions.assertEquals(e.getUrlImage(), a.getUrlImage());
+            Assertions.assertEquals(e.getPublishedAt(), a.getPublishedAt());
+        }
+
+        // The fixes
+        Assertions.assertEquals(NewsMapper.NO_AUTHOR, actual.get(0).getAuthor());
+        Assertions.assertEquals(NewsMapper.NO_DESCRIPTION, actual.get(0).getDescription());
+
+        // The total is after the articles
+        try (NewsJsonReader reader = new NewsJsonReader(new StringReader(json))) {
+            Assertions.assertEquals(-1, reader.getTotalResults());
+            int count = 0;
+            while (reader.hasNext()) {
+                reader.next();
+                count++;
+            }
+            Assertions.assertEquals(100, count);
+            Assertions.assertEquals(9000, reader.getTotalResults());
+            Assertions.assertFalse(reader.hasNext());
+        }
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the known articles: skipped, before building their News.
+     */
+    @Test
+    public void testKnown() throws Exception {
+
+        log.debug("Testing..");
+
+        final String json = page(100);
+        final List<News> all = gson(json);
+
+        // The even ones are known
+        final LongHashSet known = new LongHashSet();
+        final List<News> expected = new ArrayList<>();
+        for (int i = 0; i < all.size(); i++) {
+            if (i % 2 == 0) {
+                known.add(all.get(i).getId());
+            } else {
+                expected.add(all.get(i));
+            }
+        }
+
+        final List<News> actual = new ArrayList<>();
+        try (NewsJsonReader reader = new NewsJsonReader(new StringReader(json),
+                NewsMapper.DEFAULT, known::contains)) {
+            while (reader.hasNext()) {
+                actual.add(reader.next());
+            }
+            Assertions.assertEquals(50, reader.getSkipped());
+            Assertions.assertEquals(9000, reader.getTotalResults());
+        }
+        Assertions.assertEquals(expected.size(), actual.size(), "Wrong size!");
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(expected.get(i).getId(), actual.get(i).getId(), "Wrong id!");
+            Assertions.assertEquals(expected.get(i).getDescription(),
+                    actual.get(i).getDescription());
+        }
+
+        // Same with the Articles
+        final List<News> mapped = NewsMapper.DEFAULT.toNews(
+                GSON.fromJson(json, ArticleResponse.class).getArticles(), known::contains);
+        Assertions.assertEquals(expected.size(), mapped.size(), "Wrong size!");
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(expected.get(i).getId(), mapped.get(i).getId(), "Wrong id!");
+        }
+
+        // Without author, the last one known
+        final String noAuthor = "{\"status\":\"ok\",\"articles\":["
+                + "{\"title\":\"The Title\",\"source\":{\"name\":\"The Source\"},"
+                + "\"publishedAt\":\"2020-11-17T14:00:00Z\"},"
+                + "{\"title\":\"The Other\",\"source\":{\"name\":\"The Source\"},"
+                + "\"publishedAt\":\"2020-11-17T14:00:00Z\"}]}";
+        known.add(NewsMapper.idOf("The Other", "The Source", null));
+        try (NewsJsonReader reader = new NewsJsonReader(new StringReader(noAuthor),
+                NewsMapper.DEFAULT, known::contains)) {
+            Assertions.assertTrue(reader.hasNext());
+            Assertions.assertEquals("The Title", reader.next().getTitle());
+            Assertions.assertFalse(reader.hasNext());
+            Assertions.assertEquals(1, reader.getSkipped());
+        }
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the responses without articles and with errors.
+     */
+    @Test
+    public void testEmptyAndErrors() throws Exception {
+
+        log.debug("Testing..");
+
+        Assertions.assertTrue(stream("{\"status\":\"ok\",\"totalResults\":0,\"articles\":[]}")
+                .isEmpty());
+        Assertions.assertTrue(stream("{\"status\":\"ok\",\"articles\":null}").isEmpty());
+
+        final RuntimeException ex = Assertions.assertThrows(RuntimeException.class,
+                () -> stream("{\"status\":\"error\",\"code\":\"rateLimited\","
+                        + "\"message\":\"Too many requests\"}"));
+        Assertions.assertTrue(ex.getMessage().contains("rateLimited"), "Wrong message!");
+
+        // Invalid article (no title)
+        Assertions.assertThrows(IllegalArgumentException.class, () -> stream(
+                "{\"status\":\"ok\",\"articles\":[{\"source\":{\"name\":\"The Source\"},"
+                        + "\"publishedAt\":\"2020-11-17T14:00:00Z\"}]}"));
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the time to the first News: the News are given while the body arrives.
+     */
+    @Test
+    public void testTimeToFirst() throws Exception {
+
+        log.debug("Testing..");
+
+        final MockWebServer server = new MockWebServer();
+        server.start();
+        try {
+            final String json = page(200);
+            server.enqueue(new MockResponse()
+                    .setBody(json)
+                    .throttleBody(json.length() / 10, 30, TimeUnit.MILLISECONDS));
+
+            final NewsApiService service = new NewsApiService("the-api-key",
+                    server.url("/v2/").toString(), NewsApiClient.shared());
+
+            final long start = System.nanoTime();
+            final long[] first = {0};
+            final int count = service.streamTopHeadlines("technology", 200, 1, news -> {
+                if (first[0] == 0) {
+                    first[0] = System.nanoTime() - start;
+                }
+            });
+            final long total = System.nanoTime() - start;
+            log.info("First News {} ms, all {} ms.", first[0] / 1_000_000, total / 1_000_000);
+
+            Assertions.assertEquals(200, count, "Wrong count!");
+            Assertions.assertTrue(first[0] < total / 2, "The body was read before the first!");
+
+            // Async
+            server.enqueue(new MockResponse().setBody(json));
+            Assertions.assertEquals(200, service.getTopHeadlinesNewsAsync("technology", 200, 1)
+                    .get(5, TimeUnit.SECONDS).size());
+
+            // Error
+            server.enqueue(new MockResponse().setResponseCode(429).setBody("Too many"));
+            Assertions.assertThrows(RuntimeException.class,
+                    () -> service.getTopHeadlinesNews("technology", 200, 1));
+        } finally {
+            server.shutdown();
+        }
+
+        log.debug("Done.");
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+
+/**
+ * Testing of the pages of the Contracts.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestNewsPager {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestNewsPager.class);
+
+    /**
+     * Iterate all the pages checking the order and the duplicates.
+     *
+     * @param contracts to iterate.
+     * @param pageSize  of the pages.
+     * @param newestFirst true if the pages are sorted by publishedAt desc.
+     * @return the number of news.
+     */
+    private static int iterate(final Contracts contracts, final int pageSize,
+                               final boolean newestFirst) {
+        final Set<Long> ids = new HashSet<>();
+        ZonedDateTime previous = null;
+        int pages = 0;
+
+        final NewsPager pager = new NewsPager(contracts, pageSize);
+        while (pager.hasNext()) {
+            final NewsPage page = pager.next();
+            Assertions.assertTrue(page.getNews().size() <= pageSize, "Page too big!");
+            pages++;
+            for (News news : page.getNews()) {
+                Assertions.assertTrue(ids.add(news.getId()), "Duplicated news!");
+                if (newestFirst && previous != null) {
+                    Assertions.assertFalse(news.getPublishedAt().isAfter(previous), "Wrong order!");
+                }
+                previous = news.getPublishedAt();
+            }
+        }
+        log.debug("Pages: {}, news: {}.", pages, ids.size());
+        return ids.size();
+    }
+
+    /**
+     * The Test of the NewsAPI pages.
+     */
+    @Test
+    public void testNewsApi() {
+        final FakeNewsApiService service = new FakeNewsApiService(0, 95);
+        Assertions.assertEquals(95, iterate(new ContractsImplNewsApi(service), 20, true));
+        Assertions.assertEquals(5, service.getRequests(), "Wrong requests!");
+    }
+
+    /**
+     * The Test of the cached NewsAPI pages: one page of NewsAPI each, no news read again.
+     */
+    @Test
+    public void testCache() {
+        final FakeNewsApiService service = new FakeNewsApiService(0, 95);
+        Assertions.assertEquals(95, iterate(new ContractsImplCache(
+                new ContractsImplNewsApi(service)), 20, true));
+        Assertions.assertEquals(5, service.getRequests(), "Wrong requests!");
+        Assertions.assertEquals(95, service.getArticles(), "News read again!");
+    }
+
+    /**
+     * The Test of the store pages (cursor over the index).
+     */
+    @Test
+    public void testStore() throws IOException {
+        final File file = File.createTempFile("news", ".store");
+        file.deleteOnExit();
+        new File(file.getPath() + ".bloom").deleteOnExit();
+
+        final ContractsImplStore store = new ContractsImplStore(file);
+        final ZonedDateTime start = ZonedDateTime.now(ZoneId.of("-3")).withNano(0);
+        for (int i = 0; i < 100; i++) {
+            // Pairs with the same publishedAt
+            store.saveNews(new News("The Title " + i, "The Source", "The Author", null, null,
+                    "The Description", "The Content", start.plusMinutes(i / 2)));
+        }
+        Assertions.assertEquals(100, iterate(store, 7, true));
+        Assertions.assertEquals(100, iterate(store, 100, true));
+        store.close();
+    }
+
+    /**
+     * The Test of the faker pages.
+     */
+    @Test
+    public void testFaker() {
+        final ContractsImplFaker faker = new ContractsImplFaker();
+        Assertions.assertEquals(5, iterate(faker, 2, false));
+    }
+
+    /**
+     * The Test of the wrong page tokens.
+     */
+    @Test
+    public void testWrongTokens() throws IOException {
+        final File file = File.createTempFile("tokens", ".store");
+        file.deleteOnExit();
+        new File(file.getPath() + ".bloom").deleteOnExit();
+
+        final ContractsImplStore store = new ContractsImplStore(file);
+        for (String token : new String[]{"", "x", "12", "12:", ":34", "12:x", "x:34"}) {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> store.retrievePage(token, 10), token);
+        }
+        store.close();
+
+        final ContractsImplFaker faker = new ContractsImplFaker();
+        final ContractsImplNewsApi newsApi = new ContractsImplNewsApi(new FakeNewsApiService());
+        final Contracts contracts = new ContractsImpl();
+        for (String token : new String[]{"", "x", "-1", "1.5", "99999999999"}) {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> faker.retrievePage(token, 10), token);
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> newsApi.retrievePage(token, 10), token);
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> newsApi.retrievePageAsync(token, 10), token);
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> contracts.retrievePage(token, 10), token);
+        }
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> newsApi.retrievePage("0", 10));
+
+        // The default page: size and overflow
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> contracts.retrievePage(null, null));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> contracts.retrievePage(null, 0));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> contracts.retrievePage(null, -1));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> contracts.retrievePage(String.valueOf(Integer.MAX_VALUE), 10));
+    }
+}
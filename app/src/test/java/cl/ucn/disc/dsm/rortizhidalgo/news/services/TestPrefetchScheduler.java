@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Testing of PrefetchScheduler.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestPrefetchScheduler {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestPrefetchScheduler.class);
+
+    /**
+     * One minute (millis).
+     */
+    private static final long MINUTE = 60 * 1000L;
+
+    /**
+     * Wait the refreshes running.
+     *
+     * @param scheduler to wait.
+     * @param done      number of refreshes (saved or failed) expected.
+     */
+    private static void await(final PrefetchScheduler scheduler, final long done) {
+        await(() -> scheduler.getRefreshes() + scheduler.getErrors() >= done);
+    }
+
+    /**
+     * Wait the condition (5 seconds max).
+     *
+     * @param condition to wait.
+     */
+    private static void await(final BooleanSupplier condition) {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline, "Timeout!");
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+
+    /**
+     * @return a new store in a temp file.
+     * @throws IOException in case of error.
+     */
+    private static ContractsImplStore store() throws IOException {
+        final File file = File.createTempFile("prefetch", ".store");
+        file.deleteOnExit();
+        new File(file.getPath() + ".bloom").deleteOnExit();
+        return new ContractsImplStore(file);
+    }
+
+    /**
+     * The Test of the schedule, the backoff and the store.
+     */
+    @Test
+    public void testSchedule() throws IOException {
+
+        log.debug("Testing..");
+
+        final FakeNewsApiService service = new FakeNewsApiService();
+        final FakeClock clock = new FakeClock(0);
+        final ContractsImplStore store = store();
+        final List<String> refreshed = new CopyOnWriteArrayList<>();
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        final PrefetchScheduler scheduler = new PrefetchScheduler(
+                new ContractsImplNewsApi(service), store, Arrays.asList("technology", "science"),
+                10, 10 * MINUTE, 2 * MINUTE, 0, clock, new Random(42));
+        scheduler.setListener(category -> {
+            threads.add(Thread.currentThread().getName());
+            refreshed.add(category);
+        });
+
+        // All due at start, into the store
+        Assertions.assertEquals(2, scheduler.runDue(), "Not started!");
+        await(() -> refreshed.size() == 2);
+        Assertions.assertEquals(20, store.size(), "Not stored!");
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("technology", "science")),
+                new HashSet<>(refreshed));
+        Assertions.assertEquals(10 * MINUTE, scheduler.getNextRefresh("technology"));
+        Assertions.assertEquals(Collections.singleton("news-prefetch"), threads,
+                "Saved out of the scheduler!");
+
+        // Nothing due
+        clock.advance(10 * MINUTE - 1);
+        Assertions.assertEquals(0, scheduler.runDue(), "Started before time!");
+        Assertions.assertEquals(2, service.getRequests());
+
+        // Due again, the duplicates are ignored by the store
+        clock.advance(1);
+        Assertions.assertEquals(2, scheduler.runDue());
+        await(() -> refreshed.size() == 4);
+        Assertions.assertEquals(20, store.size(), "Duplicates stored!");
+
+        // Errors: 30s, 60s, 120s, 120s (max)
+        final long[] backoffs = {30_000, 60_000, 2 * MINUTE, 2 * MINUTE};
+        long done = 4;
+        for (int i = 0; i < backoffs.length; i++) {
+            clock.advance(scheduler.getNextRefresh("science") - clock.millis());
+            service.setFailures(2);
+            Assertions.assertEquals(2, scheduler.runDue());
+            done += 2;
+            await(scheduler, done);
+            Assertions.assertEquals(i + 1, scheduler.getFailures("science"));
+            Assertions.assertEquals(clock.millis() + backoffs[i],
+                    scheduler.getNextRefresh("science"), "Wrong backoff!");
+        }
+        Assertions.assertEquals(8, scheduler.getErrors());
+        Assertions.assertEquals(4, refreshed.size(), "Errors told!");
+
+        // The success resets the backoff
+        clock.advance(2 * MINUTE);
+        Assertions.assertEquals(2, scheduler.runDue());
+        await(scheduler, done + 2);
+        Assertions.assertEquals(0, scheduler.getFailures("science"));
+        Assertions.assertEquals(clock.millis() + 10 * MINUTE,
+                scheduler.getNextRefresh("science"));
+
+        // Refresh now (pull to refresh)
+        Assertions.assertEquals(2, scheduler.refreshNow());
+        await(scheduler, done + 4);
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> scheduler.getNextRefresh("sports"));
+        scheduler.close();
+        store.close();
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the jitter: the categories spread around the interval.
+     */
+    @Test
+    public void testJitter() throws IOException {
+
+        log.debug("Testing..");
+
+        final List<String> categories = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            categories.add("category" + i);
+        }
+        final ContractsImplStore store = store();
+        final PrefetchScheduler scheduler = new PrefetchScheduler(
+                new ContractsImplNewsApi(new FakeNewsApiService()), store, categories,
+                1, 10 * MINUTE, 60 * MINUTE, 0.2, new FakeClock(0), new Random(42));
+
+        Assertions.assertEquals(50, scheduler.runDue());
+        await(scheduler, 50);
+
+        final Set<Long> next = new HashSet<>();
+        for (String category : categories) {
+            final long at = scheduler.getNextRefresh(category);
+            Assertions.assertTrue(at >= 8 * MINUTE && at <= 12 * MINUTE, "Out of jitter: " + at);
+            next.add(at);
+        }
+        Assertions.assertTrue(next.size() > 40, "No jitter!");
+        log.debug("Next refreshes from {} to {}.", Collections.min(next), Collections.max(next));
+        store.close();
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the timer and the validations.
+     */
+    @Test
+    public void testStart() throws IOException {
+
+        log.debug("Testing..");
+
+        final ContractsImplNewsApi source = new ContractsImplNewsApi(new FakeNewsApiService());
+        final ContractsImplStore store = store();
+        final List<String> categories = Collections.singletonList("technology");
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new PrefetchScheduler(null, store, categories));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new PrefetchScheduler(source, store, Collections.emptyList()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new PrefetchScheduler(source, store, categories, 10, MINUTE, MINUTE, 1.5,
+                        new FakeClock(0), new Random()));
+
+        // The timer runs the first refresh
+        final PrefetchScheduler scheduler = new PrefetchScheduler(source, store, categories);
+        scheduler.start(10);
+        await(scheduler, 1);
+        Assertions.assertEquals(30, store.size(), "Not stored!");
+        scheduler.close();
+        store.close();
+
+        log.debug("Done.");
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.Clock;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+/**
+ * Testing of the retries, the circuit breaker and the rate limit of NewsApiClient against a
+ * local MockWebServer.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestResilientClient {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestResilientClient.class);
+
+    /**
+     * One page of top headlines.
+     */
+    private static final String PAGE = "{\"status\":\"ok\",\"totalResults\":1,\"articles\":["
+            + "{\"source\":{\"id\":null,\"name\":\"The Verge\"},\"author\":\"Nilay Patel\","
+            + "\"title\":\"The Title\",\"description\":\"The Description\","
+            + "\"url\":\"https://theverge.com/1\",\"urlToImage\":null,"
+            + "\"publishedAt\":\"2020-11-17T14:00:00Z\",\"content\":null}]}";
+
+    /**
+     * The NewsAPI stand-in.
+     */
+    private MockWebServer server;
+
+    /**
+     * The directory of the cache (deleted after each test).
+     */
+    @TempDir
+    File directory;
+
+    /**
+     * Start the server.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        this.server = new MockWebServer();
+        this.server.start();
+    }
+
+    /**
+     * Stop the server.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        this.server.shutdown();
+    }
+
+    /**
+     * @param client to use.
+     * @return the service of the server.
+     */
+    private NewsApiService service(final OkHttpClient client) {
+        return new NewsApiService("the-api-key", this.server.url("/v2/").toString(), client);
+    }
+
+    /**
+     * @return a rate limit that never waits.
+     */
+    private static RateLimitInterceptor noLimit() {
+        return new RateLimitInterceptor(1000, 1000, Clock.systemUTC());
+    }
+
+    /**
+     * The Test of the retries: transient errors, Retry-After and io errors.
+     */
+    @Test
+    public void testRetry() throws Exception {
+
+        log.debug("Testing..");
+
+        final RetryInterceptor retry = new RetryInterceptor(3, 1, 50, new Random(42));
+        // Without the retries of OkHttp on the pooled connections
+        final NewsApiService service = service(NewsApiClient.resilient(
+                NewsApiClient.shared().newBuilder().retryOnConnectionFailure(false).build(),
+                new CircuitBreaker(100, 1000, Clock.systemUTC()), retry, noLimit()));
+
+        // 503, 429 (Retry-After), ok
+        this.server.enqueue(new MockResponse().setResponseCode(503));
+        this.server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "0"));
+        this.server.enqueue(new MockResponse().setBody(PAGE));
+        Assertions.assertEquals(1, service.getTopHeadlines("technology", 1).size());
+        Assertions.assertEquals(3, this.server.getRequestCount());
+        Assertions.assertEquals(2, retry.getRetries());
+
+        // Disconnected, ok
+        this.server.enqueue(new MockResponse()
+                .setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        this.server.enqueue(new MockResponse().setBody(PAGE));
+        Assertions.assertEquals(1, service.getTopHeadlines("technology", 1).size());
+        Assertions.assertEquals(3, retry.getRetries());
+
+        // Not transient: no retry
+        this.server.enqueue(new MockResponse().setResponseCode(401));
+        Assertions.assertFalse(Assertions.assertThrows(NewsApiException.class,
+                () -> service.getTopHeadlines("technology", 1)).isTransient());
+
+        // All the attempts failed
+        for (int i = 0; i < 3; i++) {
+            this.server.enqueue(new MockResponse().setResponseCode(500));
+        }
+        final CompletionException failed = Assertions.assertThrows(CompletionException.class,
+                () -> service.getTopHeadlinesNewsAsync("technology", 1, 1).join());
+        Assertions.assertEquals(500, ((NewsApiException) failed.getCause()).getCode());
+        Assertions.assertEquals(3 + 2 + 1 + 3, this.server.getRequestCount());
+
+        // Retry-After too long: no retry (and the key paused)
+        this.server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "60")
+                .setBody("{\"status\":\"error\",\"code\":\"rateLimited\"}"));
+        final NewsApiException limited = Assertions.assertThrows(NewsApiException.class,
+                () -> service.getTopHeadlines("technology", 1));
+        Assertions.assertEquals(429, limited.getCode());
+        Assertions.assertTrue(limited.isTransient());
+        Assertions.assertTrue(limited.getMessage().contains("rateLimited"), "Wrong message!");
+
+        // The backoff is capped, with jitter
+        for (int attempt = 1; attempt < 20; attempt++) {
+            final long delay = retry.backoff(attempt);
+            Assertions.assertTrue(delay >= 1 && delay <= 51, "Wrong backoff: " + delay);
+        }
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the circuit breaker: fail fast and stale cache while open.
+     */
+    @Test
+    public void testCircuitBreaker() throws Exception {
+
+        log.debug("Testing..");
+
+        final FakeClock clock = new FakeClock(0);
+        final CircuitBreaker breaker = new CircuitBreaker(2, 1000, clock);
+        final NewsApiService service = service(NewsApiClient.resilient(
+                NewsApiClient.withCache(this.directory, 1024 * 1024), breaker,
+                new RetryInterceptor(1, 1, 1, new Random(42)), noLimit()));
+
+        // Cached
+        this.server.enqueue(new MockResponse().setBody(PAGE).setHeader("ETag", "\"v1\""));
+        Assertions.assertEquals(1, service.getTopHeadlines("technology", 1).size());
+
+        // Two failures: open
+        this.server.enqueue(new MockResponse().setResponseCode(500));
+        this.server.enqueue(new MockResponse().setResponseCode(502));
+        Assertions.assertThrows(NewsApiException.class,
+                () -> service.getTopHeadlines("technology", 1));
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assertions.assertThrows(NewsApiException.class,
+                () -> service.getTopHeadlines("technology", 1));
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // Open: the stale page, without request
+        Assertions.assertEquals("The Title",
+                service.getTopHeadlines("technology", 1).get(0).getTitle());
+        Assertions.assertEquals(1, breaker.getStaleHits());
+
+        // Open and not cached: fail fast
+        final NewsApiException ex = Assertions.assertThrows(NewsApiException.class,
+                () -> service.getTopHeadlines("science", 1));
+        Assertions.assertEquals(503, ex.getCode());
+        Assertions.assertEquals(1, breaker.getRejected());
+        Assertions.assertEquals(3, this.server.getRequestCount(), "Request while open!");
+
+        // Open, with slow retries: the lookups of the cache are not retried
+        final RetryInterceptor slowRetry = new RetryInterceptor(3, 1000, 1000, new Random(42));
+        final NewsApiService slowService = service(NewsApiClient.resilient(
+                NewsApiClient.withCache(this.directory, 1024 * 1024), breaker, slowRetry,
+                noLimit()));
+        final long start = System.nanoTime();
+        Assertions.assertEquals(1, slowService.getTopHeadlines("technology", 1).size());
+        Assertions.assertEquals(503, Assertions.assertThrows(NewsApiException.class,
+                () -> slowService.getTopHeadlines("science", 1)).getCode());
+        Assertions.assertTrue(System.nanoTime() - start < 500_000_000L, "Not fast!");
+        Assertions.assertEquals(0, slowRetry.getRetries(), "Cache lookup retried!");
+        Assertions.assertEquals(2, breaker.getRejected());
+
+        // Half open: the trial fails, open again
+        clock.advance(1000);
+        this.server.enqueue(new MockResponse().setResponseCode(503));
+        Assertions.assertThrows(NewsApiException.class,
+                () -> service.getTopHeadlines("science", 1));
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // Half open: the trial works, closed
+        clock.advance(1000);
+        this.server.enqueue(new MockResponse().setBody(PAGE));
+        Assertions.assertEquals(1, service.getTopHeadlines("science", 1).size());
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assertions.assertEquals(5, this.server.getRequestCount());
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the rate limit per key and the pause after a 429.
+     */
+    @Test
+    public void testRateLimit() throws Exception {
+
+        log.debug("Testing..");
+
+        final RateLimitInterceptor rateLimit = new RateLimitInterceptor(2, 5,
+                Clock.systemUTC());
+        final NewsApiService service = service(NewsApiClient.resilient(
+                NewsApiClient.withCache(this.directory, 1024 * 1024),
+                new CircuitBreaker(100, 1000, Clock.systemUTC()),
+                new RetryInterceptor(1, 1, 1, new Random(42)), rateLimit));
+
+        // The burst, then one each 200 ms
+        final long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            this.server.enqueue(new MockResponse().setBody(PAGE));
+            service.getTopHeadlines("technology", 1);
+        }
+        final long elapsed = (System.nanoTime() - start) / 1_000_000;
+        log.debug("5 requests in {} ms, waited {} ms.", elapsed, rateLimit.getWaited());
+        Assertions.assertTrue(elapsed >= 500, "Not limited: " + elapsed);
+        Assertions.assertTrue(rateLimit.getWaited() >= 500);
+
+        // Other key, other bucket
+        Assertions.assertEquals(2, rateLimit.bucket("other-key").getTokens(), 0.0001);
+
+        // 429: the key is paused
+        this.server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "5"));
+        Assertions.assertThrows(NewsApiException.class,
+                () -> service.getTopHeadlines("technology", 1));
+        Assertions.assertTrue(rateLimit.bucket("the-api-key").tryAcquire() > 4000, "Not paused!");
+
+        log.debug("Done.");
+    }
+}
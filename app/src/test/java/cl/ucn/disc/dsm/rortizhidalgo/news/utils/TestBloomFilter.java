@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.NewsId;
+
+/**
+ * Testing of BloomFilter.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestBloomFilter {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestBloomFilter.class);
+
+    /**
+     * @param i number of the news.
+     * @return the id of one News.
+     */
+    private static long id(final int i) {
+        return NewsId.of("The Title " + i, "The Source", "The Author");
+    }
+
+    /**
+     * The Test of the false positives against the configured probability.
+     */
+    @Test
+    public void testFpp() {
+
+        log.debug("Testing..");
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1));
+
+        for (double fpp : new double[]{0.1, 0.01, 0.001}) {
+            final int expected = 10_000;
+            final BloomFilter filter = new BloomFilter(expected, fpp);
+            for (int i = 0; i < expected; i++) {
+                filter.put(id(i));
+            }
+
+            // No false negatives
+            for (int i = 0; i < expected; i++) {
+                Assertions.assertTrue(filter.mightContain(id(i)), "False negative!");
+            }
+
+            // The false positives near the configured probability
+            final int tries = 100_000;
+            int positives = 0;
+            for (int i = expected; i < expected + tries; i++) {
+                if (filter.mightContain(id(i))) {
+                    positives++;
+                }
+            }
+            final double rate = (double) positives / tries;
+            log.info("fpp {}: {} bits ({} bits/id), {} hashes, rate {}, expected {}.", fpp,
+                    filter.getBitCount(), filter.getBitCount() / expected,
+                    filter.getHashCount(), rate, filter.getExpectedFpp());
+            Assertions.assertTrue(rate < fpp * 1.5, "Too many false positives: " + rate);
+            Assertions.assertTrue(filter.getExpectedFpp() < fpp * 1.1);
+        }
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the write and read.
+     */
+    @Test
+    public void testWriteAndRead() throws IOException {
+
+        log.debug("Testing..");
+
+        final BloomFilter filter = new BloomFilter(1000, 0.01);
+        final Random random = new Random(42);
+        final long[] keys = new long[1000];
+        int added = 0;
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+            // False if all its bits were already set (a false positive)
+            if (filter.put(keys[i])) {
+                added++;
+            }
+        }
+        Assertions.assertTrue(added > 980, "Too many false positives!");
+        Assertions.assertFalse(filter.put(keys[0]), "Added twice!");
+        Assertions.assertEquals(added, filter.getCount());
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        filter.writeTo(out);
+        final BloomFilter read = BloomFilter.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        Assertions.assertEquals(filter.getBitCount(), read.getBitCount());
+        Assertions.assertEquals(filter.getHashCount(), read.getHashCount());
+        Assertions.assertEquals(filter.getCount(), read.getCount());
+        for (long key : keys) {
+            Assertions.assertTrue(read.mightContain(key), "False negative!");
+        }
+        for (int i = 0; i < 1000; i++) {
+            final long key = random.nextLong();
+            Assertions.assertEquals(filter.mightContain(key), read.mightContain(key));
+        }
+
+        // Unknown version
+        final byte[] bytes = out.toByteArray();
+        bytes[3] = 42;
+        Assertions.assertThrows(IOException.class,
+                () -> BloomFilter.readFrom(new ByteArrayInputStream(bytes)));
+
+        log.debug("Done.");
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Testing of Histogram.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestHistogram {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestHistogram.class);
+
+    /**
+     * The Test of the buckets: contiguous, each value inside its bucket.
+     */
+    @Test
+    public void testBuckets() {
+
+        log.debug("Testing..");
+
+        for (int b = 1; b < Histogram.bucket(Long.MAX_VALUE); b++) {
+            Assertions.assertEquals(b, Histogram.bucket(Histogram.highest(b)), "Wrong bucket!");
+            Assertions.assertEquals(b, Histogram.bucket(Histogram.highest(b - 1) + 1),
+                    "Not contiguous!");
+        }
+        Assertions.assertEquals(Long.MAX_VALUE,
+                Histogram.highest(Histogram.bucket(Long.MAX_VALUE)));
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the percentiles against the sorted values.
+     */
+    @Test
+    public void testPercentiles() {
+
+        log.debug("Testing..");
+
+        final Histogram empty = new Histogram();
+        Assertions.assertEquals(0, empty.getValueAtPercentile(99));
+        Assertions.assertEquals(0, empty.getMin());
+        Assertions.assertEquals(0, empty.getMax());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> empty.getValueAtPercentile(101));
+
+        // Latencies from 1 us to 100 ms, log-uniform
+        final Random random = new Random(42);
+        final long[] values = new long[100_000];
+        final Histogram histogram = new Histogram();
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.pow(10, 3 + random.nextDouble() * 5);
+            histogram.record(values[i]);
+            sum += values[i];
+        }
+        Arrays.sort(values);
+
+        Assertions.assertEquals(values.length, histogram.getCount());
+        Assertions.assertEquals(sum, histogram.getSum());
+        Assertions.assertEquals(values[0], histogram.getMin());
+        Assertions.assertEquals(values[values.length - 1], histogram.getMax());
+        Assertions.assertEquals(values[values.length - 1], histogram.getValueAtPercentile(100));
+
+        for (double percentile : new double[]{1, 10, 50, 90, 99, 99.9}) {
+            final long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            final long actual = histogram.getValueAtPercentile(percentile);
+            log.debug("p{}: {} vs {}.", percentile, actual, expected);
+            Assertions.assertTrue(actual >= expected, "Below the value!");
+            Assertions.assertTrue(actual <= expected * 1.03, "Too far from the value!");
+        }
+
+        log.debug("Done.");
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.Instant;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZoneOffset;
+import org.threeten.bp.ZonedDateTime;
+import org.threeten.bp.format.DateTimeParseException;
+
+import java.util.Random;
+
+/**
+ * Testing of InstantParser.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestInstantParser {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestInstantParser.class);
+
+    /**
+     * The zone of the app.
+     */
+    private static final ZoneId ZONE = ZoneId.of("-3");
+
+    /**
+     * @param text to parse.
+     * @return the date, parsed as before InstantParser.
+     */
+    private static ZonedDateTime general(final String text) {
+        return ZonedDateTime.parse(text).withZoneSameInstant(ZONE);
+    }
+
+    /**
+     * The Test of the fast path against the general parser.
+     */
+    @Test
+    public void testAgainstParse() {
+
+        log.debug("Testing..");
+
+        // Random instants between 1900 and 2100, with and without fraction and offset
+        final Random random = new Random(42);
+        final long min = Instant.parse("1900-01-01T00:00:00Z").getEpochSecond();
+        final long max = Instant.parse("2100-12-31T23:59:59Z").getEpochSecond();
+        for (int i = 0; i < 100_000; i++) {
+            final Instant instant = Instant.ofEpochSecond(
+                    min + (long) (random.nextDouble() * (max - min)),
+                    i % 3 == 0 ? 0 : random.nextInt(1_000_000_000));
+            final String text = i % 2 == 0
+                    ? instant.toString()
+                    : instant.atOffset(ZoneOffset.ofHoursMinutes(
+                    random.nextInt(25) - 12, 0)).toString();
+            if (i % 2 == 0) {
+                Assertions.assertNotNull(InstantParser.parseFast(text), text);
+            }
+            Assertions.assertEquals(general(text), InstantParser.parse(text, ZONE), text);
+        }
+
+        // The formats of NewsAPI
+        final String[] texts = {
+                "2020-11-17T14:00:00Z",
+                "2020-11-17T14:00:00.1Z",
+                "2020-11-17T14:00:00.123456789Z",
+                "2020-11-17T14:00:00+00:00",
+                "2020-11-17T14:00:00-03:30",
+                "2020-02-29T23:59:59Z",
+                "2000-02-29T00:00:00Z",
+                "1970-01-01T00:00:00Z",
+        };
+        for (String text : texts) {
+            Assertions.assertNotNull(InstantParser.parseFast(text), text);
+            Assertions.assertEquals(general(text), InstantParser.parse(text, ZONE), text);
+            Assertions.assertEquals(general(text).toInstant(), InstantParser.parseInstant(text));
+        }
+
+        // The zone is only the display
+        final ZoneId santiago = ZoneId.of("America/Santiago");
+        Assertions.assertEquals(santiago, InstantParser.parse(texts[0], santiago).getZone());
+        Assertions.assertEquals(InstantParser.parse(texts[0], ZONE).toInstant(),
+                InstantParser.parse(texts[0], santiago).toInstant());
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the odd inputs: the general parser or the same error.
+     */
+    @Test
+    public void testFallback() {
+
+        log.debug("Testing..");
+
+        // Valid, but not in the fast format
+        final String[] others = {
+                "2020-11-17T14:00Z",
+                "2020-11-17T14:00:00Z[UTC]",
+                "2020-11-17T14:00:00+01:00[Europe/Paris]",
+                "2020-11-17T14:00:00.Z",
+        };
+        for (String text : others) {
+            Assertions.assertNull(InstantParser.parseFast(text), text);
+            Assertions.assertEquals(general(text), InstantParser.parse(text, ZONE), text);
+        }
+
+        // Invalid
+        final String[] invalid = {
+                "",
+                "2020-11-17",
+                "2020-13-17T14:00:00Z",
+                "2021-02-29T14:00:00Z",
+                "2020-11-17T24:00:00Z",
+                "2020-11-17T14:00:00",
+                "2020-11-17T14:00:00+19:00",
+                "2020-11-17 14:00:00Z",
+                "2020-11-17T14:00:00Zx",
+                "2020-11-17T14:00:00.1234567890Z",
+        };
+        for (String text : invalid) {
+            Assertions.assertNull(InstantParser.parseFast(text), text);
+            Assertions.assertThrows(DateTimeParseException.class,
+                    () -> InstantParser.parse(text, ZONE), text);
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> InstantParser.parse(null, ZONE));
+
+        log.debug("Done.");
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Testing of LongHashSet.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestLongHashSet {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestLongHashSet.class);
+
+    /**
+     * The Test of add, contains and remove against a HashSet.
+     */
+    @Test
+    public void testAgainstHashSet() {
+
+        log.debug("Testing..");
+
+        final LongHashSet set = new LongHashSet(0);
+        final Set<Long> expected = new HashSet<>();
+
+        // Small range: many collisions, duplicates and removals (zero included)
+        final Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            final long key = random.nextInt(5000) - 100;
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(expected.remove(key), set.remove(key), "Wrong remove!");
+            } else {
+                Assertions.assertEquals(expected.add(key), set.add(key), "Wrong add!");
+            }
+        }
+        Assertions.assertEquals(expected.size(), set.size(), "Wrong size!");
+        for (long key = -100; key < 4900; key++) {
+            Assertions.assertEquals(expected.contains(key), set.contains(key), "Wrong contains!");
+        }
+
+        // Keys sharing the low bits
+        set.clear();
+        Assertions.assertEquals(0, set.size(), "Not cleared!");
+        for (long i = 1; i <= 10_000; i++) {
+            Assertions.assertTrue(set.add(i << 32));
+        }
+        Assertions.assertEquals(10_000, set.size(), "Wrong size!");
+        Assertions.assertTrue(set.contains(5000L << 32));
+        Assertions.assertFalse(set.contains(5000L));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LongHashSet(-1));
+
+        log.debug("Done.");
+    }
+}
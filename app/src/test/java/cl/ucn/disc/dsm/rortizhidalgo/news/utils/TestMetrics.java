@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Testing of Metrics (the names are unique: the registry is global).
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestMetrics {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestMetrics.class);
+
+    /**
+     * The Test of the disabled metrics: nothing recorded.
+     */
+    @Test
+    public void testDisabled() {
+
+        log.debug("Testing..");
+
+        Assertions.assertFalse(Metrics.isEnabled(), "Enabled by default!");
+
+        final Metrics.Timer timer = Metrics.timer("test.disabled");
+        final Metrics.Counter counter = Metrics.counter("test.disabled");
+        Assertions.assertSame(timer, Metrics.timer("test.disabled"));
+        Assertions.assertSame(timer.start(), timer.start(), "Not the no-op!");
+
+        final Metrics.Span span = timer.start();
+        try {
+            counter.increment();
+            counter.add(10);
+        } finally {
+            span.close();
+        }
+        Assertions.assertEquals(0, timer.getLatency().getCount());
+        Assertions.assertEquals(0, counter.get());
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the spans, counters and gauges, and of the json and trace written.
+     */
+    @Test
+    public void testEnabled() throws IOException, InterruptedException {
+
+        log.debug("Testing..");
+
+        Metrics.setEnabled(true);
+        try {
+            final Metrics.Timer timer = Metrics.timer("test.enabled");
+            final Metrics.Counter counter = Metrics.counter("test.enabled");
+            Metrics.gauge("test.enabled", () -> 0.5);
+            Metrics.gauge("test.nan", () -> Double.NaN);
+
+            for (int i = 0; i < 10; i++) {
+                final Metrics.Span span = timer.start();
+                try {
+                    Thread.sleep(1);
+                    counter.increment();
+                } finally {
+                    span.close();
+                }
+            }
+
+            // Started in one thread, ended in other: latency but no allocation
+            final Metrics.Span span = Metrics.timer("test.async").start();
+            final Thread other = new Thread(span::close, "test-async");
+            other.start();
+            other.join();
+
+            Assertions.assertEquals(10, timer.getLatency().getCount());
+            Assertions.assertTrue(timer.getLatency().getMin() >= 1_000_000, "Too fast!");
+            Assertions.assertEquals(10, counter.get());
+            Assertions.assertEquals(1, Metrics.timer("test.async").getLatency().getCount());
+            Assertions.assertEquals(0, Metrics.timer("test.async").getAllocated().getCount());
+
+            // The json
+            final StringWriter json = new StringWriter();
+            Metrics.writeJson(json);
+            final JsonObject root = JsonParser.parseString(json.toString()).getAsJsonObject();
+            final JsonObject enabled = root.getAsJsonObject("timers")
+                    .getAsJsonObject("test.enabled");
+            Assertions.assertEquals(10, enabled.get("count").getAsLong());
+            Assertions.assertTrue(enabled.getAsJsonObject("nanos").get("p50").getAsLong()
+                    >= 1_000_000);
+            Assertions.assertEquals(10, root.getAsJsonObject("counters")
+                    .get("test.enabled").getAsLong());
+            Assertions.assertEquals(0.5, root.getAsJsonObject("gauges")
+                    .get("test.enabled").getAsDouble());
+            Assertions.assertTrue(root.getAsJsonObject("gauges").get("test.nan").isJsonNull());
+
+            // The trace: the spans of the test with their threads
+            final StringWriter trace = new StringWriter();
+            Metrics.writeTrace(trace);
+            final JsonArray events = JsonParser.parseString(trace.toString()).getAsJsonObject()
+                    .getAsJsonArray("traceEvents");
+            int spans = 0;
+            for (int i = 0; i < events.size(); i++) {
+                final JsonObject event = events.get(i).getAsJsonObject();
+                if ("X".equals(event.get("ph").getAsString())
+                        && "test.enabled".equals(event.get("name").getAsString())) {
+                    spans++;
+                    Assertions.assertTrue(event.get("dur").getAsDouble() >= 1_000);
+                }
+            }
+            Assertions.assertEquals(10, spans);
+            log.debug("Json: {}", json);
+        } finally {
+            Metrics.setEnabled(false);
+        }
+
+        log.debug("Done.");
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.threeten.bp.Instant;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+import org.threeten.bp.format.DateTimeFormatter;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Testing of PublishedAtFormatter.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestPublishedAtFormatter {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestPublishedAtFormatter.class);
+
+    /**
+     * The Test of the same text of DateTimeFormatter, in some locales.
+     */
+    @Test
+    public void testFormat() {
+
+        log.debug("Testing..");
+
+        final Random random = new Random(42);
+        final ZoneId zone = ZoneId.of("-3");
+        for (Locale locale : new Locale[]{Locale.getDefault(), Locale.ENGLISH,
+                new Locale("es", "CL"), Locale.FRENCH, Locale.JAPANESE}) {
+
+            final PublishedAtFormatter formatter = new PublishedAtFormatter(locale);
+            final DateTimeFormatter expected = DateTimeFormatter.ofPattern(
+                    PublishedAtFormatter.PATTERN, locale);
+
+            for (int i = 0; i < 10_000; i++) {
+                // From year 1 to 9999
+                final ZonedDateTime date = ZonedDateTime.ofInstant(Instant.ofEpochSecond(
+                        -62_135_596_800L + (long) (random.nextDouble() * 315_537_897_599L)), zone);
+                Assertions.assertEquals(expected.format(date), formatter.format(date));
+            }
+
+            // Out of the fast path
+            final ZonedDateTime far = ZonedDateTime.of(12345, 1, 2, 3, 4, 5, 0, zone);
+            Assertions.assertEquals(expected.format(far), formatter.format(far));
+        }
+
+        Assertions.assertEquals("09:05 7.Nov.2020", new PublishedAtFormatter(Locale.ENGLISH)
+                .format(ZonedDateTime.of(2020, 11, 7, 9, 5, 0, 0, zone)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new PublishedAtFormatter(Locale.ENGLISH).format(null));
+
+        log.debug("Done.");
+    }
+}
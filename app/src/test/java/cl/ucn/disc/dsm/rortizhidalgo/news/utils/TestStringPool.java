@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Testing of StringPool.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestStringPool {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestStringPool.class);
+
+    /**
+     * The Test of the dedup and the counters.
+     */
+    @Test
+    public void testIntern() {
+
+        log.debug("Testing..");
+
+        final StringPool pool = new StringPool(4);
+        Assertions.assertEquals(0, pool.getDedupRatio());
+        Assertions.assertNull(pool.intern(null));
+
+        final String first = pool.intern(new String("The Verge"));
+        final String second = pool.intern(new String("The Verge"));
+        Assertions.assertSame(first, second, "Not deduplicated!");
+        Assertions.assertEquals(2, pool.getRequests());
+        Assertions.assertEquals(1, pool.getHits());
+        Assertions.assertEquals(0.5, pool.getDedupRatio());
+
+        // Bounded: two generations of 2, the names in use are kept
+        final String wired = pool.intern(new String("Wired"));
+        Assertions.assertEquals(2, pool.size());
+        pool.intern("BBC");
+        Assertions.assertEquals(3, pool.size());
+        Assertions.assertEquals(1, pool.getClears());
+        Assertions.assertSame(first, pool.intern(new String("The Verge")), "Dropped in use!");
+        pool.intern("CNN");
+        Assertions.assertEquals(2, pool.getClears());
+        Assertions.assertEquals(3, pool.size());
+        Assertions.assertSame(first, pool.intern(new String("The Verge")), "Dropped in use!");
+        Assertions.assertNotSame(wired, pool.intern(new String("Wired")), "Not dropped!");
+        Assertions.assertTrue(pool.size() <= 4, "Not bounded!");
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new StringPool(1));
+
+        log.debug("Done.");
+    }
+
+    /**
+     * The Test of the concurrent interning: one instance per name.
+     */
+    @Test
+    public void testConcurrent() throws Exception {
+
+        log.debug("Testing..");
+
+        final StringPool pool = new StringPool(1000);
+        final int threads = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Future<String[]>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                final String[] names = new String[100];
+                for (int round = 0; round < 100; round++) {
+                    for (int i = 0; i < names.length; i++) {
+                        names[i] = pool.intern("The Source " + i);
+                    }
+                }
+                return names;
+            }));
+        }
+        final String[] expected = results.get(0).get();
+        for (Future<String[]> result : results) {
+            final String[] names = result.get();
+            for (int i = 0; i < names.length; i++) {
+                Assertions.assertSame(expected[i], names[i], "Two instances of one name!");
+            }
+        }
+        executor.shutdown();
+
+        Assertions.assertEquals(100, pool.size());
+        Assertions.assertEquals(threads * 100 * 100, pool.getRequests());
+        log.info("Dedup ratio: {}.", pool.getDedupRatio());
+        Assertions.assertTrue(pool.getDedupRatio() > 0.99, "Wrong ratio!");
+
+        log.debug("Done.");
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.services.FakeClock;
+
+/**
+ * Testing of TokenBucket.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+public class TestTokenBucket {
+
+    /**
+     * The logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(TestTokenBucket.class);
+
+    /**
+     * The Test of the burst, the refill and the pause.
+     */
+    @Test
+    public void testAcquire() {
+
+        log.debug("Testing..");
+
+        final FakeClock clock = new FakeClock(0);
+        final TokenBucket bucket = new TokenBucket(3, 2, clock);
+
+        // The burst
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(0, bucket.tryAcquire(), "No token!");
+        }
+        Assertions.assertEquals(500, bucket.tryAcquire(), "Wrong wait!");
+
+        // Refilled at 2 per second, up to the capacity
+        clock.advance(250);
+        Assertions.assertEquals(250, bucket.tryAcquire());
+        clock.advance(250);
+        Assertions.assertEquals(0, bucket.tryAcquire());
+        clock.advance(60_000);
+        Assertions.assertEquals(3, bucket.getTokens(), 0.0001);
+
+        // Paused (429): nothing until then, empty after
+        bucket.pauseUntil(clock.millis() + 2000);
+        Assertions.assertEquals(2000, bucket.tryAcquire());
+        Assertions.assertEquals(0, bucket.getTokens());
+        clock.advance(2000);
+        Assertions.assertEquals(500, bucket.tryAcquire());
+        clock.advance(500);
+        Assertions.assertEquals(0, bucket.tryAcquire());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TokenBucket(0, 1, clock));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TokenBucket(1, 0, clock));
+
+        log.debug("Done.");
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.activities;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+import org.threeten.bp.format.DateTimeFormatter;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.PublishedAtFormatter;
+
+/**
+ * The cost of the date of a NewsItem row: before, formatted with a DateTimeFormatter on each
+ * bind; after, with the PublishedAtFormatter once per item (the Android views can't run here).
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NewsItemBenchmark {
+
+    /**
+     * The formatter of NewsItem, before.
+     */
+    private static final DateTimeFormatter FORMATTER =
+            DateTimeFormatter.ofPattern(PublishedAtFormatter.PATTERN);
+
+    /**
+     * The formatter of NewsItem, after.
+     */
+    private static final PublishedAtFormatter PUBLISHED_AT_FORMATTER =
+            new PublishedAtFormatter(Locale.getDefault());
+
+    /**
+     * The date to format.
+     */
+    private ZonedDateTime publishedAt = ZonedDateTime.now(ZoneId.of("-3"));
+
+    /**
+     * @return the formatted date, before.
+     */
+    @Benchmark
+    public String formatPublishedAt() {
+        return FORMATTER.format(this.publishedAt);
+    }
+
+    /**
+     * @return the formatted date, after (done once per item).
+     */
+    @Benchmark
+    public String formatPublishedAtFast() {
+        return PUBLISHED_AT_FORMATTER.format(this.publishedAt);
+    }
+}
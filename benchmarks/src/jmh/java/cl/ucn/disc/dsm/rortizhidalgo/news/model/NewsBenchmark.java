@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.model;
+
+import net.openhft.hashing.LongHashFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+import java.util.concurrent.TimeUnit;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.Validation;
+
+/**
+ * The construction of {@link News}: validation and id hashing.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NewsBenchmark {
+
+    /**
+     * The title (not final: no constant folding).
+     */
+    private String title = "Apple's M1 Macs are here and they're fast";
+
+    /**
+     * The source.
+     */
+    private String source = "The Verge";
+
+    /**
+     * The author.
+     */
+    private String author = "Nilay Patel";
+
+    /**
+     * The url.
+     */
+    private String url = "https://www.theverge.com/2020/11/17/apple-m1-review";
+
+    /**
+     * The url of the image.
+     */
+    private String urlImage = "https://cdn.vox-cdn.com/thumbor/m1.jpg";
+
+    /**
+     * The description.
+     */
+    private String description = "The first Apple Silicon Macs are the MacBook Air and others.";
+
+    /**
+     * The date.
+     */
+    private ZonedDateTime publishedAt = ZonedDateTime.now(ZoneId.of("-3"));
+
+    /**
+     * @return the News.
+     */
+    @Benchmark
+    public News construct() {
+        return new News(this.title, this.source, this.author, this.url, this.urlImage,
+                this.description, this.description, this.publishedAt);
+    }
+
+    /**
+     * @return the id, as computed before {@link NewsId}.
+     */
+    @Benchmark
+    public long hashIdConcat() {
+        return LongHashFunction.xx().hashChars(this.title + "|" + this.source + "|"
+                + this.author);
+    }
+
+    /**
+     * @return the id, as computed by the constructor of News.
+     */
+    @Benchmark
+    public long hashIdNewsId() {
+        return NewsId.of(this.title, this.source, this.author);
+    }
+
+    /**
+     * The validations of the constructor of News.
+     *
+     * @param blackhole to consume the fields.
+     */
+    @Benchmark
+    public void validation(final Blackhole blackhole) {
+        Validation.minSize(this.title, 2, "title");
+        Validation.minSize(this.source, 2, "source");
+        Validation.minSize(this.author, 3, "author");
+        Validation.minSize(this.description, 10, "description");
+        Validation.notNull(this.description, "content");
+        Validation.notNull(this.publishedAt, "publishedAt");
+        blackhole.consume(this.title);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.model;
+
+import com.google.gson.Gson;
+import com.kwabenaberko.newsapilib.models.Article;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link NewsCodec} against the Gson encoding of the {@link Article}.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NewsCodecBenchmark {
+
+    /**
+     * One article as sent by NewsAPI.
+     */
+    private static final String ARTICLE = "{"
+            + "\"source\":{\"id\":\"the-verge\",\"name\":\"The Verge\"},"
+            + "\"author\":\"Nilay Patel\","
+            + "\"title\":\"Apple's M1 Macs are here and they're fast\","
+            + "\"description\":\"The first Apple Silicon Macs are the MacBook Air, the 13-inch "
+            + "MacBook Pro and the Mac Mini.\","
+            + "\"url\":\"https://www.theverge.com/2020/11/17/apple-m1-review\","
+            + "\"urlToImage\":\"https://cdn.vox-cdn.com/thumbor/m1.jpg\","
+            + "\"publishedAt\":\"2020-11-17T14:00:00Z\"}";
+
+    /**
+     * The Gson.
+     */
+    private final Gson gson = new Gson();
+
+    /**
+     * The article.
+     */
+    private Article article;
+
+    /**
+     * The json of the article.
+     */
+    private String json;
+
+    /**
+     * The news.
+     */
+    private News news;
+
+    /**
+     * The bytes of the news, in the heap.
+     */
+    private ByteBuffer heap;
+
+    /**
+     * The bytes of the news, out of the heap.
+     */
+    private ByteBuffer direct;
+
+    /**
+     * Build the data.
+     */
+    @Setup
+    public void setup() {
+        this.article = this.gson.fromJson(ARTICLE, Article.class);
+        this.json = this.gson.toJson(this.article);
+        this.news = new News(this.article.getTitle(), this.article.getSource().getName(),
+                this.article.getAuthor(), this.article.getUrl(), this.article.getUrlToImage(),
+                this.article.getDescription(), this.article.getDescription(),
+                ZonedDateTime.parse(this.article.getPublishedAt())
+                        .withZoneSameInstant(ZoneId.of("-3")));
+        this.heap = ByteBuffer.wrap(NewsCodec.encode(this.news));
+        this.direct = ByteBuffer.allocateDirect(this.heap.capacity());
+        this.direct.put(this.heap.duplicate());
+    }
+
+    /**
+     * @return the bytes written.
+     */
+    @Benchmark
+    public int codecWrite() {
+        this.direct.clear();
+        return NewsCodec.write(this.news, this.direct);
+    }
+
+    /**
+     * @return the News read from a heap buffer.
+     */
+    @Benchmark
+    public News codecReadHeap() {
+        return NewsCodec.read(this.heap, 0);
+    }
+
+    /**
+     * @return the News read from a direct buffer.
+     */
+    @Benchmark
+    public News codecReadDirect() {
+        return NewsCodec.read(this.direct, 0);
+    }
+
+    /**
+     * @return the News read from a direct buffer, without the description nor content.
+     */
+    @Benchmark
+    public News codecReadLazy() {
+        return NewsCodec.readLazy(this.direct, 0);
+    }
+
+    /**
+     * @return the json of the Article.
+     */
+    @Benchmark
+    public String gsonWrite() {
+        return this.gson.toJson(this.article);
+    }
+
+    /**
+     * @return the Article read from json.
+     */
+    @Benchmark
+    public Article gsonRead() {
+        return this.gson.fromJson(this.json, Article.class);
+    }
+}
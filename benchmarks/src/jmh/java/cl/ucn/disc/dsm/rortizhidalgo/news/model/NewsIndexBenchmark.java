@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The search over size news: one word, one prefix and two words with {@link NewsIndex},
+ * against the scan of the titles and descriptions (the only way before the index).
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NewsIndexBenchmark {
+
+    /**
+     * Some words of the titles.
+     */
+    private static final String[] WORDS = {"apple", "android", "science", "space", "mars",
+            "climate", "economy", "election", "football", "music", "vaccine", "virus",
+            "market", "bitcoin", "chile", "santiago", "tesla", "google", "review", "launch"};
+
+    /**
+     * The number of news.
+     */
+    @Param({"1000", "100000"})
+    private int size;
+
+    /**
+     * The query.
+     */
+    @Param({"apple", "tes", "chile sant"})
+    private String query;
+
+    /**
+     * The news.
+     */
+    private List<News> news;
+
+    /**
+     * The index of the news.
+     */
+    private NewsIndex index;
+
+    /**
+     * Build the news and the index.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        final ZonedDateTime start = ZonedDateTime.of(2020, 11, 1, 0, 0, 0, 0, ZoneId.of("-3"));
+        final Random random = new Random(42);
+        this.news = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            this.news.add(new News(WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + i, "The Source", "The Author",
+                    null, null, "Some words about " + WORDS[random.nextInt(WORDS.length)],
+                    "The Content", start.plusSeconds(random.nextInt(10 * this.size))));
+        }
+        this.index = new NewsIndex();
+        this.index.addAll(this.news);
+    }
+
+    /**
+     * @return the 20 newest news matching the query (the old way).
+     */
+    @Benchmark
+    public List<News> scan() {
+        final String[] words = this.query.split(" ");
+        final List<News> matches = new ArrayList<>();
+        for (News n : this.news) {
+            final String text = (n.getTitle() + " " + n.getDescription()).toLowerCase();
+            boolean match = true;
+            for (int w = 0; w < words.length && match; w++) {
+                match = text.contains(words[w]);
+            }
+            if (match) {
+                matches.add(n);
+            }
+        }
+        matches.sort((n1, n2) -> n2.getPublishedAt().compareTo(n1.getPublishedAt()));
+        return matches.subList(0, Math.min(20, matches.size()));
+    }
+
+    /**
+     * @return the ids of the 20 newest news matching the query.
+     */
+    @Benchmark
+    public long[] index() {
+        return this.index.search(this.query, 20);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * A refresh of 30 news (half of them new) over size news already held: the filter + sort
+ * pipeline of ContractsImplNewsApi (before the timeline) against {@link NewsTimeline}.
+ * Single shot, because the timeline changes with each merge.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+public class NewsTimelineBenchmark {
+
+    /**
+     * The number of news already held.
+     */
+    @Param({"30", "1000", "100000"})
+    private int size;
+
+    /**
+     * The news held.
+     */
+    private List<News> existing;
+
+    /**
+     * The news of the refresh.
+     */
+    private List<News> refresh;
+
+    /**
+     * The timeline with the news held.
+     */
+    private NewsTimeline timeline;
+
+    /**
+     * Build the news.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        final ZonedDateTime start = ZonedDateTime.of(2020, 11, 1, 0, 0, 0, 0, ZoneId.of("-3"));
+        this.existing = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            this.existing.add(news(i, start));
+        }
+        this.refresh = new ArrayList<>(30);
+        for (int i = this.size - 15; i < this.size + 15; i++) {
+            this.refresh.add(news(i, start));
+        }
+    }
+
+    /**
+     * A timeline holding the news, before each merge.
+     */
+    @Setup(Level.Invocation)
+    public void fill() {
+        this.timeline = new NewsTimeline(this.size + 15);
+        this.timeline.addAll(this.existing);
+    }
+
+    /**
+     * @param i     number of the news.
+     * @param start base date.
+     * @return a News published i seconds after the start.
+     */
+    private static News news(final int i, final ZonedDateTime start) {
+        return new News("The Title " + i, "The Source", "The Author", null, null,
+                "The Description", "The Content", start.plusSeconds(i));
+    }
+
+    /**
+     * @return the list without duplicates, newest first (the old way).
+     */
+    @Benchmark
+    public List<News> pipeline() {
+        final List<News> news = new ArrayList<>(this.existing);
+        news.addAll(this.refresh);
+        final Map<Object, Boolean> seen = new ConcurrentHashMap<>();
+        return news.stream().filter(n -> seen.putIfAbsent(n.getId(), Boolean.TRUE) == null)
+                .sorted((k1, k2) -> k2.getPublishedAt().compareTo(k1.getPublishedAt()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the number of news added to the timeline.
+     */
+    @Benchmark
+    public int timeline() {
+        return this.timeline.addAll(this.refresh);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import com.google.gson.Gson;
+import com.kwabenaberko.newsapilib.models.Article;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+
+/**
+ * The mapping of {@link Article} to {@link News} in {@link NewsMapper}.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ContractsBenchmark {
+
+    /**
+     * One article as sent by NewsAPI.
+     */
+    private static final String ARTICLE = "{"
+            + "\"source\":{\"id\":\"the-verge\",\"name\":\"The Verge\"},"
+            + "\"author\":\"Nilay Patel\","
+            + "\"title\":\"Apple's M1 Macs are here and they're fast\","
+            + "\"description\":\"The first Apple Silicon Macs are the MacBook Air, the 13-inch "
+            + "MacBook Pro and the Mac Mini.\","
+            + "\"url\":\"https://www.theverge.com/2020/11/17/apple-m1-review\","
+            + "\"urlToImage\":\"https://cdn.vox-cdn.com/thumbor/m1.jpg\","
+            + "\"publishedAt\":\"2020-11-17T14:00:00Z\"}";
+
+    /**
+     * The complete article.
+     */
+    private Article article;
+
+    /**
+     * The article without author nor description.
+     */
+    private Article incomplete;
+
+    /**
+     * Build the articles.
+     */
+    @Setup
+    public void setup() {
+        final Gson gson = new Gson();
+        this.article = gson.fromJson(ARTICLE, Article.class);
+        this.incomplete = gson.fromJson(ARTICLE, Article.class);
+        this.incomplete.setAuthor(null);
+        this.incomplete.setDescription(null);
+    }
+
+    /**
+     * @return the News of a complete Article.
+     */
+    @Benchmark
+    public News toNews() {
+        return NewsMapper.DEFAULT.toNews(this.article);
+    }
+
+    /**
+     * @return the News of an Article that needs to be fixed.
+     */
+    @Benchmark
+    public News toNewsFixed() {
+        return NewsMapper.DEFAULT.toNews(this.incomplete);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+
+/**
+ * The bulk load of {@link ContractsImplFaker}, one by one and with saveAll. Single shot: each
+ * measure saves size news into a new faker.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ContractsImplFakerBenchmark {
+
+    /**
+     * The number of news to save.
+     */
+    @Param({"1000", "10000", "50000"})
+    private int size;
+
+    /**
+     * The news to save.
+     */
+    private List<News> news;
+
+    /**
+     * The faker.
+     */
+    private ContractsImplFaker faker;
+
+    /**
+     * Build the news.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        final ZonedDateTime start = ZonedDateTime.now(ZoneId.of("-3"));
+        this.news = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            this.news.add(new News("The Title " + i, "The Source", "The Author", null, null,
+                    "The Description", "The Content", start.plusSeconds(i)));
+        }
+    }
+
+    /**
+     * A new faker before each measure.
+     */
+    @Setup(Level.Invocation)
+    public void faker() {
+        this.faker = new ContractsImplFaker();
+    }
+
+    /**
+     * @return the faker with the news.
+     */
+    @Benchmark
+    public ContractsImplFaker saveNews() {
+        for (News n : this.news) {
+            this.faker.saveNews(n);
+        }
+        return this.faker;
+    }
+
+    /**
+     * @return the faker with the news.
+     */
+    @Benchmark
+    public ContractsImplFaker saveAll() {
+        this.faker.saveAll(this.news);
+        return this.faker;
+    }
+}
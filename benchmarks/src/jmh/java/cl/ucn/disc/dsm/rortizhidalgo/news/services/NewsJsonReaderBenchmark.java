@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.services;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.kwabenaberko.newsapilib.models.Article;
+import com.kwabenaberko.newsapilib.models.response.ArticleResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import cl.ucn.disc.dsm.rortizhidalgo.news.model.News;
+import cl.ucn.disc.dsm.rortizhidalgo.news.utils.LongHashSet;
+
+/**
+ * The decoding of one page of top headlines: Gson (ArticleResponse, then {@link NewsMapper})
+ * against the streaming {@link NewsJsonReader}, for the whole page and for the first News, and
+ * the refresh of a page with only one new article (the rest known, delta).
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NewsJsonReaderBenchmark {
+
+    /**
+     * The number of articles of the page.
+     */
+    @Param({"20", "100", "1000"})
+    private int pageSize;
+
+    /**
+     * The Gson.
+     */
+    private final Gson gson = new Gson();
+
+    /**
+     * The json of the page.
+     */
+    private String json;
+
+    /**
+     * The ids of the page but the first article.
+     */
+    private final LongHashSet known = new LongHashSet();
+
+    /**
+     * Build the page.
+     */
+    @Setup
+    public void setup() {
+        final JsonArray articles = new JsonArray();
+        for (int i = 0; i < this.pageSize; i++) {
+            final JsonObject source = new JsonObject();
+            source.addProperty("id", "the-verge");
+            source.addProperty("name", "The Verge");
+            final JsonObject article = new JsonObject();
+            article.add("source", source);
+            article.addProperty("author", "The Author " + i);
+            article.addProperty("title", "The Title of the article number " + i);
+            article.addProperty("description", "The Description of the article number " + i
+                    + ", long enough to look like the ones of NewsAPI.");
+            article.addProperty("url", "https://www.theverge.com/2020/11/17/" + i);
+            article.addProperty("urlToImage", "https://cdn.vox-cdn.com/thumbor/" + i + ".jpg");
+            article.addProperty("publishedAt", "2020-11-17T14:00:00Z");
+            article.addProperty("content", "The Content of the article number " + i
+                    + ", truncated by NewsAPI... [+2000 chars]");
+            articles.add(article);
+        }
+        final JsonObject page = new JsonObject();
+        page.addProperty("status", "ok");
+        page.addProperty("totalResults", 9000);
+        page.add("articles", articles);
+        this.json = this.gson.toJson(page);
+
+        for (int i = 1; i < this.pageSize; i++) {
+            this.known.add(NewsMapper.idOf("The Title of the article number " + i, "The Verge",
+                    "The Author " + i));
+        }
+    }
+
+    /**
+     * @param blackhole to consume the News.
+     */
+    @Benchmark
+    public void gson(final Blackhole blackhole) {
+        final ArticleResponse response = this.gson.fromJson(this.json, ArticleResponse.class);
+        for (Article article : response.getArticles()) {
+            blackhole.consume(NewsMapper.DEFAULT.toNews(article));
+        }
+    }
+
+    /**
+     * @param blackhole to consume the News.
+     */
+    @Benchmark
+    public void stream(final Blackhole blackhole) throws IOException {
+        try (NewsJsonReader reader = new NewsJsonReader(new StringReader(this.json))) {
+            while (reader.hasNext()) {
+                blackhole.consume(reader.next());
+            }
+        }
+    }
+
+    /**
+     * @return the first News, with Gson.
+     */
+    @Benchmark
+    public News gsonFirst() {
+        return NewsMapper.DEFAULT.toNews(this.gson.fromJson(this.json, ArticleResponse.class)
+                .getArticles().get(0));
+    }
+
+    /**
+     * @return the first News, streamed.
+     */
+    @Benchmark
+    public News streamFirst() throws IOException {
+        try (NewsJsonReader reader = new NewsJsonReader(new StringReader(this.json))) {
+            return reader.next();
+        }
+    }
+
+    /**
+     * @param blackhole to consume the News.
+     */
+    @Benchmark
+    public void streamDelta(final Blackhole blackhole) throws IOException {
+        try (NewsJsonReader reader = new NewsJsonReader(new StringReader(this.json),
+                NewsMapper.DEFAULT, this.known::contains)) {
+            while (reader.hasNext()) {
+                blackhole.consume(reader.next());
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The parsing of the publishedAt of NewsAPI: the path before {@link InstantParser}
+ * (ZonedDateTime.parse and ZoneId.of per article) against the fast parser.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InstantParserBenchmark {
+
+    /**
+     * The zone of the app.
+     */
+    private final ZoneId zone = ZoneId.of("-3");
+
+    /**
+     * The timestamp in seconds (not final: no constant folding).
+     */
+    private String seconds = "2020-11-17T14:00:00Z";
+
+    /**
+     * The timestamp with a fraction of second.
+     */
+    private String fraction = "2020-11-17T14:00:00.123456Z";
+
+    /**
+     * @return the date, as parsed before.
+     */
+    @Benchmark
+    public ZonedDateTime general() {
+        return ZonedDateTime.parse(this.seconds).withZoneSameInstant(ZoneId.of("-3"));
+    }
+
+    /**
+     * @return the date, with the fast parser.
+     */
+    @Benchmark
+    public ZonedDateTime fast() {
+        return InstantParser.parse(this.seconds, this.zone);
+    }
+
+    /**
+     * @return the date with fraction, as parsed before.
+     */
+    @Benchmark
+    public ZonedDateTime generalFraction() {
+        return ZonedDateTime.parse(this.fraction).withZoneSameInstant(ZoneId.of("-3"));
+    }
+
+    /**
+     * @return the date with fraction, with the fast parser.
+     */
+    @Benchmark
+    public ZonedDateTime fastFraction() {
+        return InstantParser.parse(this.fraction, this.zone);
+    }
+}
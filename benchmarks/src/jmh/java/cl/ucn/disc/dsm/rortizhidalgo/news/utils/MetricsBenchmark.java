@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020 Ricardo Ortiz-Hidalgo, ricardo.ortiz@alumnos.ucn.cl
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cl.ucn.disc.dsm.rortizhidalgo.news.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of one span and one counter of {@link Metrics}, disabled (the release builds) and
+ * enabled.
+ *
+ * @author Ricardo Ortiz-Hidalgo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsBenchmark {
+
+    /**
+     * True to record.
+     */
+    @Param({"false", "true"})
+    private boolean enabled;
+
+    /**
+     * The timer.
+     */
+    private final Metrics.Timer timer = Metrics.timer("benchmark.span");
+
+    /**
+     * The counter.
+     */
+    private final Metrics.Counter counter = Metrics.counter("benchmark.counter");
+
+    /**
+     * Enable (or not) the metrics.
+     */
+    @Setup
+    public void setup() {
+        Metrics.setEnabled(this.enabled);
+    }
+
+    /**
+     * Disable the metrics.
+     */
+    @TearDown
+    public void tearDown() {
+        Metrics.setEnabled(false);
+    }
+
+    /**
+     * One empty span.
+     */
+    @Benchmark
+    public void span() {
+        this.timer.start().close();
+    }
+
+    /**
+     * One increment.
+     */
+    @Benchmark
+    public void counter() {
+        this.counter.increment();
+    }
+}